@@ -165,7 +165,7 @@ public class WorldTestMain extends SimpleApplication implements GameLoadContext,
 	    		inputManager.setCursorVisible(true);
 	    	}
 
-	        world.gameTick (tpf);
+	        world.simulate (tpf);
 	        screenManager.gameTick (tpf, cam, world);
 
 	        if(chaseCam != null && !world.getPlayer().isFirstPerson()){
@@ -205,7 +205,7 @@ public class ClientMain extends SimpleApplication implements GUIObserver, Client
 
 		// tick the game
 		if (world.getPlayer() != null) {
-			world.gameTick(tpf);
+			world.simulate(tpf);
 			long newTime = System.currentTimeMillis();
 			if (newTime - last > 100) {
 				networkClient.sendCurrentLocation();
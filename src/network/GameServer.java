@@ -18,6 +18,7 @@ import world.Activatable;
 import world.Actor;
 import world.Container;
 import world.Entity;
+import world.EntityView;
 import world.Player;
 import world.World;
 import world.effects.Effect;
@@ -94,8 +95,11 @@ public class GameServer extends WorldObserver implements MessageListener<HostedC
 			public Void call() throws Exception {
 				connections.put(conn.getId(), conn);
 				conn.send(new PlayerSpeedMessage(world.getPlayerSpeed(), world.getSpawnPoint()));
-				for(Entity o : world.getEntitiesOfClass(Entity.class))
+				EntityView<Entity> entities = world.getEntityView(Entity.class);
+				for(int i = 0; i < entities.size(); i++) {
+					Entity o = entities.get(i);
 					conn.send(new AddEntityMessage(o.getEntityID(), o, o.getLocation()));
+				}
 				conn.send(new AddEntityFinishMessage());
 
 				return null;
@@ -295,8 +299,11 @@ public class GameServer extends WorldObserver implements MessageListener<HostedC
 	 * Broadcast all mob updates.
 	 */
 	public void updateMobs() {
-		for(Mob m : world.getEntitiesOfClass(Mob.class))
-			server.broadcast(new MoveMessage(m.getEntityID(), m.getLocation(), ((Actor)m).getState().ordinal(), m.getDirection()));
+		EntityView<Mob> mobs = world.getEntityView(Mob.class);
+		for(int i = 0; i < mobs.size(); i++) {
+			Mob m = mobs.get(i);
+			server.broadcast(new MoveMessage(m.getEntityID(), m.getLocation(), m.getState().ordinal(), m.getDirection()));
+		}
 	}
 
 	@Override
@@ -520,6 +527,11 @@ public class GameServer extends WorldObserver implements MessageListener<HostedC
 		server.broadcast(new EffectMessage(e));
 	}
 
+	@Override
+	public void onDamage(World w, Actor target, float amount) {
+		server.broadcast(new DamageMessage(target.getEntityID(), amount));
+	}
+
 	@Override
 	public void onDayNightChange(World w, float time) {
 		server.broadcast(new DayNightMessage(time));
@@ -536,4 +548,9 @@ public class GameServer extends WorldObserver implements MessageListener<HostedC
 
 	}
 
+	@Override
+	public void handleMessage(DamageMessage m) {
+		// only the server deals damage
+	}
+
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import network.packets.AddEntityMessage;
 import network.packets.AttackMessage;
 import network.packets.ChatMessage;
 import network.packets.ChestAccessMessage;
+import network.packets.DamageMessage;
 import network.packets.DayNightMessage;
 import network.packets.EffectMessage;
 import network.packets.EquipItemMessage;
@@ -500,5 +501,18 @@ public class NetworkClient extends WorldObserver implements MessageListener<Clie
 		world.setPlayerSpawn(m.spx, m.spy, m.spz);
 	}
 
+	@Override
+	public void handleMessage(final DamageMessage m) {
+		app.enqueue(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				Entity e = world.getEntityByID(m.eid);
+				if (e instanceof Actor)
+					world.applyDamage((Actor) e, m.amount);
+				return null;
+			}
+		});
+	}
+
 
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import savefile.SaveUtils;
 
 import network.packets.Packets;
 
+import world.SimulationClock;
+import world.TickProfiler;
 import world.World;
 import world.WorldType;
 
@@ -31,6 +33,9 @@ public class ServerMain extends SimpleApplication {
 	private World world;
 	private boolean spawn = true;
 
+	// held here so the logger (and its level) isn't garbage collected before the profiler uses it
+	private static final java.util.logging.Logger tickLog = java.util.logging.Logger.getLogger(TickProfiler.class.getName());
+
 	// records the last time positions were broadcast and data was saved
 	private long last = System.currentTimeMillis();
 	private long lastSave = System.currentTimeMillis();
@@ -75,6 +80,7 @@ public class ServerMain extends SimpleApplication {
 		world.attachToGame(stateManager, assetManager, listener, cam, WorldType.SERVER, viewPort);
 
 		rootNode.attachChild(world.getNode());
+		world.getTickProfiler().register();
 
 		gameServer = new GameServer(server, world, this, playerData);
 		server.addMessageListener(gameServer, Packets.classes);
@@ -97,9 +103,11 @@ public class ServerMain extends SimpleApplication {
 
 	public static void main(String[] args) {
 		java.util.logging.Logger.getLogger("").setLevel(Level.SEVERE);
+		// keep the periodic tick statistics
+		tickLog.setLevel(Level.INFO);
 		ServerMain app;
 		try {
-			if(args != null && args.length == 1){
+			if(args != null && args.length >= 1){
 				try {
 					int port = Integer.parseInt(args[0]);
 					app = new ServerMain(port);
@@ -109,6 +117,14 @@ public class ServerMain extends SimpleApplication {
 			} else {
 				app = new ServerMain();
 			}
+			// optional second argument is the simulation tick rate
+			if(args != null && args.length >= 2){
+				try {
+					SimulationClock.DEFAULT_TICK_RATE = Float.parseFloat(args[1]);
+				} catch (NumberFormatException e) {
+					System.out.println("Invalid tick rate, using " + SimulationClock.DEFAULT_TICK_RATE);
+				}
+			}
 			app.start(JmeContext.Type.Headless);
 		} catch (IOException e) {
 			System.out.println("Error starting server.");
@@ -125,7 +141,7 @@ public class ServerMain extends SimpleApplication {
 	public void simpleUpdate(float tpf) {
 		// only tick the game if players are present
 		if(gameServer.hasConnectedPlayers()){
-			world.gameTick(tpf);
+			world.simulate(tpf);
 		}
 		long temp = System.currentTimeMillis();
 		if(temp - last > 100){
@@ -181,4 +181,13 @@ public interface PacketHandler {
 	abstract void handleMessage(GameWonMessage m);
 
 	abstract void handleMessage(PlayerSpeedMessage m);
+
+	/**
+	 * Handle the damage an actor took in a tick, which is broadcast by the
+	 * server. Clients take it from the actor's health.
+	 *
+	 * @param m
+	 *            message
+	 */
+	abstract void handleMessage(DamageMessage m);
 }
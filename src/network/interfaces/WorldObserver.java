@@ -1,5 +1,6 @@
 package network.interfaces;
 
+import world.Actor;
 import world.Entity;
 import world.World;
 import world.effects.Effect;
@@ -64,6 +65,20 @@ public abstract class WorldObserver {
 	public void addEffect(World w, Effect e) {
 	}
 
+	/**
+	 * Called once per tick for each actor damaged that tick, with the total
+	 * damage it took.
+	 *
+	 * @param w
+	 *            world
+	 * @param target
+	 *            damaged actor
+	 * @param amount
+	 *            damage, after armour
+	 */
+	public void onDamage(World w, Actor target, float amount) {
+	}
+
 	// Currently the methods which client implements
 
 	/**
@@ -0,0 +1,30 @@
+package network.packets;
+
+import network.interfaces.PacketHandler;
+
+import com.jme3.network.serializing.Serializable;
+
+/**
+ * Message to inform the client of the damage an actor took in a tick, after
+ * armour. Replaces sending a serialized SimpleDamage effect for every hit.
+ * 
+ */
+@Serializable
+public class DamageMessage extends GameUpdateMessage {
+	public int eid;
+	public float amount;
+
+	public DamageMessage() {
+	}
+
+	public DamageMessage(int eid, float amount) {
+		super(true);
+		this.eid = eid;
+		this.amount = amount;
+	}
+
+	@Override
+	public void accept(PacketHandler visitor) {
+		visitor.handleMessage(this);
+	}
+}
@@ -23,7 +23,8 @@ public class Packets {
 			ServerSaveMessage.class, EquipItemMessage.class,
 			AddEntityFinishMessage.class, RightClickMessage.class,
 			OnActivateMessage.class, PlayerSetupMessage.class,
-			GameWonMessage.class, PlayerSpeedMessage.class };
+			GameWonMessage.class, PlayerSpeedMessage.class,
+			DamageMessage.class };
 
 	/**
 	 * Registers all the message with the inbuilt serializer.
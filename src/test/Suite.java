@@ -5,10 +5,28 @@ import org.junit.runners.Suite.SuiteClasses;
 
 import test.network.PlayerDataTest;
 import test.world.ActorStatsTests;
+import test.world.AreaTests;
+import test.world.DamageBufferTests;
+import test.world.EntityIDTests;
+import test.world.FlowFieldTests;
 import test.world.GeneralEntityTest;
 import test.world.InventoryTests;
 import test.world.ItemStatsTests;
+import test.world.MobPopulationTests;
+import test.world.NavigationBakeTests;
+import test.world.ParallelThinkTests;
+import test.world.PathNodeLocatorTests;
+import test.world.PathRequestTests;
+import test.world.PathTableTests;
 import test.world.PlayerEquipmentTests;
+import test.world.SimulationClockTests;
+import test.world.SleepTests;
+import test.world.SlotMapTests;
+import test.world.SpawnGridTests;
+import test.world.SpatialGridTests;
+import test.world.TickProfilerTests;
+import test.world.TimerWheelTests;
+import test.world.UpdateLODTests;
 import test.world.WorldTest;
 
 /**
@@ -16,5 +34,10 @@ import test.world.WorldTest;
  */
 @RunWith(org.junit.runners.Suite.class)
 @SuiteClasses({GeneralEntityTest.class, WorldTest.class, InventoryTests.class, ActorStatsTests.class,
-	ItemStatsTests.class, PlayerEquipmentTests.class, PlayerDataTest.class})
+	ItemStatsTests.class, PlayerEquipmentTests.class, PlayerDataTest.class, SpatialGridTests.class,
+	SlotMapTests.class, EntityIDTests.class, TickProfilerTests.class,
+	TimerWheelTests.class, AreaTests.class, DamageBufferTests.class,
+	MobPopulationTests.class, SpawnGridTests.class, PathTableTests.class,
+	FlowFieldTests.class, PathNodeLocatorTests.class, NavigationBakeTests.class, PathRequestTests.class,
+	SimulationClockTests.class, UpdateLODTests.class, SleepTests.class, ParallelThinkTests.class})
 public class Suite {}
\ No newline at end of file
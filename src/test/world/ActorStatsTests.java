@@ -1,5 +1,6 @@
 package test.world;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -7,6 +8,8 @@ import java.util.Set;
 import org.junit.Test;
 
 import com.jme3.asset.AssetManager;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.OutputCapsule;
 
 import savefile.SaveUtils;
 import world.ActorStatObserver;
@@ -24,14 +27,14 @@ public class ActorStatsTests {
 	private static class TestObserver implements ActorStatObserver {
 		@Override
 		public void update(Stat stat, float amount) {
-			this.stat = stat;
-			this.amount = amount;
+			values.put(stat, amount);
+			updates++;
 		}
-		private Stat stat;
-		private float amount;
+		private Map<Stat, Float> values = new HashMap<Stat, Float>();
+		private int updates;
 		public void check(Stat stat, float amount) {
-			assertEquals(stat, this.stat);
-			assertTrue(this.amount == amount);
+			assertTrue(values.containsKey(stat));
+			assertTrue(values.get(stat) == amount);
 		}
 	}
 	
@@ -186,12 +189,61 @@ public class ActorStatsTests {
 		assertTrue(as.getStat(Stat.ENERGY) == 0);
 	}
 	
+	/**
+	 * Saves like ActorStats did before modifiers, with each stat's value including its modifiers.
+	 */
+	public static class OldActorStats extends ActorStats {
+		@Override
+		public void write(JmeExporter ex) throws IOException {
+			OutputCapsule c = ex.getCapsule(this);
+			for (Stat s : Stat.values()) {
+				c.write(getBaseline(s), "base"+s.name(), 0);
+				c.write(getStat(s), "cur"+s.name(), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testSaveWithModifiers() {
+		as.addModifier(this, Stat.HEALTH, 2, 1);
+		assertTrue(as.getStat(Stat.HEALTH) == 3);
+
+		// the modifier isn't saved, but is added back by its source
+		as = SaveUtils.fromBytes(SaveUtils.toBytes(as), ActorStats.class, null);
+		assertTrue(as.getStat(Stat.HEALTH) == 1);
+		as.addModifier(this, Stat.HEALTH, 2, 1);
+		assertTrue(as.getStat(Stat.HEALTH) == 3);
+	}
+
+	@Test
+	public void testLoadOldSave() {
+		OldActorStats old = new OldActorStats();
+		old.addModifier(this, Stat.HEALTH, 2, 1);
+		old.setStat(Stat.DAMAGE, 4);
+		assertTrue(old.getStat(Stat.HEALTH) == 2);
+
+		// the saved value already includes the modifier, so adding it back doesn't change it
+		as = SaveUtils.fromBytes(SaveUtils.toBytes(old), ActorStats.class, null);
+		assertTrue(as.getStat(Stat.HEALTH) == 2);
+		as.addModifier(this, Stat.HEALTH, 2, 1);
+		assertTrue(as.getStat(Stat.HEALTH) == 2);
+		assertTrue(as.getStat(Stat.DAMAGE) == 4);
+
+		// after loading, modifiers apply as usual
+		as.notifyObservers();
+		as.removeModifiers(this);
+		assertTrue(as.getStat(Stat.HEALTH) == 0);
+		as.addModifier(this, Stat.DAMAGE, 1, 1);
+		assertTrue(as.getStat(Stat.DAMAGE) == 5);
+	}
+
 	@Test
 	public void testObserveSet() {
 		as.addObserver(obs);
 		assertTrue(as.getStat(Stat.HEALTH) == 1);
 		as.setStat(Stat.HEALTH, 2);
 		assertTrue(as.getStat(Stat.HEALTH) == 2);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 2);
 	}
 	
@@ -201,6 +253,7 @@ public class ActorStatsTests {
 		assertTrue(as.getStat(Stat.HEALTH) == 1);
 		as.modStat(Stat.HEALTH, 2);
 		assertTrue(as.getStat(Stat.HEALTH) == 3);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 3);
 	}
 	
@@ -210,9 +263,11 @@ public class ActorStatsTests {
 		assertTrue(as.getStat(Stat.HEALTH) == 1);
 		as.setStat(Stat.HEALTH, 2);
 		assertTrue(as.getStat(Stat.HEALTH) == 2);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 2);
 		as.multStat(Stat.HEALTH, 4);
 		assertTrue(as.getStat(Stat.HEALTH) == 8);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 8);
 	}
 	
@@ -220,12 +275,105 @@ public class ActorStatsTests {
 	public void testUnobserve() {
 		as.addObserver(obs);
 		as.setStat(Stat.HEALTH, 2);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 2);
 		as.removeObserver(obs);
 		as.setStat(Stat.HEALTH, 3);
+		as.notifyObservers();
 		obs.check(Stat.HEALTH, 2);
 	}
 	
+	@Test
+	public void testObserveBatched() {
+		as.notifyObservers();
+		as.addObserver(obs);
+		as.modStat(Stat.HEALTH, 1);
+		as.modStat(Stat.HEALTH, 1);
+		as.multStat(Stat.HEALTH, 2);
+		assertEquals(0, obs.updates);
+		as.notifyObservers();
+		assertEquals(1, obs.updates);
+		obs.check(Stat.HEALTH, 6);
+		as.notifyObservers();
+		assertEquals(1, obs.updates);
+	}
+	
+	@Test
+	public void testObserveUnchanged() {
+		as.notifyObservers();
+		as.addObserver(obs);
+		as.setStat(Stat.HEALTH, 1);
+		as.modStat(Stat.DAMAGE, 1);
+		as.resetStat(Stat.DAMAGE);
+		as.notifyObservers();
+		assertEquals(1, obs.updates);
+		obs.check(Stat.DAMAGE, 1);
+	}
+	
+	@Test
+	public void testModifiers() {
+		as.addModifier(this, Stat.DAMAGE, 1, 1);
+		assertTrue(as.getStat(Stat.DAMAGE) == 2);
+		as.addModifier(obs, Stat.DAMAGE, 0, 3);
+		assertTrue(as.getStat(Stat.DAMAGE) == 6);
+		assertTrue(as.getUnmodifiedStat(Stat.DAMAGE) == 1);
+		
+		// replaces the first modifier, rather than adding another
+		as.addModifier(this, Stat.DAMAGE, 2, 1);
+		assertTrue(as.getStat(Stat.DAMAGE) == 9);
+		
+		assertTrue(as.removeModifiers(this));
+		assertFalse(as.removeModifiers(this));
+		assertTrue(as.getStat(Stat.DAMAGE) == 3);
+		as.removeModifiers(obs);
+		assertTrue(as.getStat(Stat.DAMAGE) == 1);
+		assertFalse(as.hasModifiers(obs));
+	}
+	
+	@Test
+	public void testModifiersFromStatModification() {
+		StatModification mod = new StatModification(new Stat[] {Stat.DAMAGE, Stat.HEALTH}, new float[] {2, 4});
+		as.addModifiers(this, mod, true);
+		assertTrue(as.getStat(Stat.DAMAGE) == 2);
+		assertTrue(as.getStat(Stat.HEALTH) == 4);
+		as.addModifiers(obs, mod, false);
+		assertTrue(as.getStat(Stat.DAMAGE) == 6);
+		assertTrue(as.hasModifiers(this));
+		as.removeModifiers(this);
+		as.removeModifiers(obs);
+		assertTrue(as.getStat(Stat.DAMAGE) == 1);
+		assertTrue(as.getStat(Stat.HEALTH) == 1);
+	}
+	
+	@Test
+	public void testChangesUnderModifiers() {
+		as.addModifier(this, Stat.HEALTH, 0, 2);
+		assertTrue(as.getStat(Stat.HEALTH) == 2);
+		as.setStat(Stat.HEALTH, 10);
+		assertTrue(as.getStat(Stat.HEALTH) == 10);
+		as.modStat(Stat.HEALTH, -4);
+		assertTrue(as.getStat(Stat.HEALTH) == 6);
+		as.removeModifiers(this);
+		assertTrue(as.getStat(Stat.HEALTH) == 3);
+		
+		// resetting keeps modifiers
+		as.addModifier(this, Stat.HEALTH, 0, 2);
+		as.resetStat(Stat.HEALTH);
+		assertTrue(as.getStat(Stat.HEALTH) == 2);
+	}
+	
+	@Test
+	public void testObserveModifiers() {
+		as.notifyObservers();
+		as.addObserver(obs);
+		as.addModifier(this, Stat.DAMAGE, 0, 5);
+		as.notifyObservers();
+		obs.check(Stat.DAMAGE, 5);
+		as.removeModifiers(this);
+		as.notifyObservers();
+		obs.check(Stat.DAMAGE, 1);
+	}
+	
 	@Test
 	public void testEquipAndUnequip() {
 		assertTrue(as.getStat(Stat.HEALTH) == 1);
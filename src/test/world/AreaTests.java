@@ -0,0 +1,65 @@
+package test.world;
+
+import org.junit.Test;
+
+import world.Area;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+public class AreaTests {
+	@Test
+	public void testSphere() {
+		Area a = Area.sphere(new Vector3f(10, 0, 0), 5);
+		assertTrue(a.contains(new Vector3f(14, 0, 0), 0));
+		assertFalse(a.contains(new Vector3f(16, 0, 0), 0));
+		assertTrue(a.contains(new Vector3f(16, 0, 0), 2));
+		assertEquals(5, a.getBoundingRadius(), 0.001);
+	}
+
+	@Test
+	public void testBox() {
+		Area a = Area.box(Vector3f.ZERO, new Vector3f(1, 2, 3));
+		assertTrue(a.contains(new Vector3f(1, -2, 3), 0));
+		assertFalse(a.contains(new Vector3f(1.5f, 0, 0), 0));
+		assertTrue(a.contains(new Vector3f(1.5f, 0, 0), 1));
+		assertFalse(a.contains(new Vector3f(0, 0, 4), 0));
+		assertTrue(a.getBoundingRadius() >= new Vector3f(1, 2, 3).length());
+	}
+
+	@Test
+	public void testCone() {
+		Area a = Area.cone(Vector3f.ZERO, new Vector3f(0, 0, 2), 10, FastMath.QUARTER_PI);
+		assertTrue(a.contains(new Vector3f(0, 0, 5), 0));
+		assertTrue(a.contains(new Vector3f(4.9f, 0, 5), 0));
+		assertFalse(a.contains(new Vector3f(5.1f, 0, 5), 0));
+		assertFalse(a.contains(new Vector3f(0, 0, -1), 0));
+		assertFalse(a.contains(new Vector3f(0, 0, 11), 0));
+		assertTrue(a.contains(new Vector3f(0, 0, 11), 1.5f));
+
+		// everything in the cone is within the bounding radius
+		assertTrue(a.getBoundingRadius() >= new Vector3f(10, 0, 10).length() - 0.001f);
+	}
+
+	@Test
+	public void testSetCentre() {
+		Vector3f centre = new Vector3f(0, 0, 0);
+		Area a = Area.sphere(centre, 1);
+		centre.x = 100; // the area keeps its own copy
+		assertTrue(a.contains(Vector3f.ZERO, 0));
+
+		a.setCentre(new Vector3f(50, 0, 0));
+		assertFalse(a.contains(Vector3f.ZERO, 0));
+		assertTrue(a.contains(new Vector3f(50, 0, 0.5f), 0));
+	}
+
+	@Test
+	public void testInvalidCone() {
+		try {
+			Area.cone(Vector3f.ZERO, Vector3f.UNIT_Z, 1, FastMath.HALF_PI);
+			fail("should throw IAE for an angle of pi/2");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
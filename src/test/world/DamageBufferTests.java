@@ -0,0 +1,55 @@
+package test.world;
+
+import org.junit.Test;
+
+import world.DamageBuffer;
+import static org.junit.Assert.*;
+
+public class DamageBufferTests {
+	@Test
+	public void testAggregatesPerTarget() {
+		DamageBuffer b = new DamageBuffer();
+		b.add(5, 1);
+		b.add(5, 2);
+		b.add(7, 4);
+		b.add(5, 3);
+
+		assertEquals(2, b.size());
+		assertEquals(5, b.getTarget(0));
+		assertEquals(6, b.getAmount(0), 0);
+		assertEquals(7, b.getTarget(1));
+		assertEquals(4, b.getAmount(1), 0);
+	}
+
+	@Test
+	public void testGrowAndClear() {
+		DamageBuffer b = new DamageBuffer();
+		for (int i = 0; i < 100; i++)
+			b.add(i, i);
+		for (int i = 0; i < 100; i++)
+			b.add(i, 1);
+		assertEquals(100, b.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, b.getTarget(i));
+			assertEquals(i + 1, b.getAmount(i), 0);
+		}
+
+		b.clear();
+		assertEquals(0, b.size());
+		b.add(3, 1);
+		assertEquals(1, b.size());
+		assertEquals(1, b.getAmount(0), 0);
+	}
+
+	@Test
+	public void testOutOfRange() {
+		DamageBuffer b = new DamageBuffer();
+		b.add(1, 1);
+		b.clear();
+		try {
+			b.getTarget(0);
+			fail("should throw IOOBE after clear");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package test.world;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import world.EntityIDAllocator;
+import world.IntMap;
+import static org.junit.Assert.*;
+
+public class EntityIDTests {
+	@Test
+	public void testAllocatedIDsAreUniqueAndNonNegative() {
+		EntityIDAllocator a = new EntityIDAllocator();
+		Map<Integer, Boolean> seen = new HashMap<Integer, Boolean>();
+		for(int i = 0; i < 1000; i++) {
+			int id = a.allocate();
+			assertTrue(id >= 0);
+			assertTrue(seen.put(id, true) == null);
+			if(i % 3 == 0)
+				a.release(id);
+		}
+	}
+
+	@Test
+	public void testReusedSlotHasNewGeneration() {
+		EntityIDAllocator a = new EntityIDAllocator();
+		int old = a.allocate();
+		a.release(old);
+		assertFalse(a.isInUse(old));
+
+		int reused = a.allocate();
+		assertEquals(EntityIDAllocator.getIndex(old), EntityIDAllocator.getIndex(reused));
+		assertTrue(reused != old);
+		assertTrue(a.isInUse(reused));
+		assertFalse(a.isInUse(old));
+
+		// releasing the stale ID must not free the slot
+		a.release(old);
+		assertTrue(a.isInUse(reused));
+	}
+
+	@Test
+	public void testReserve() {
+		EntityIDAllocator a = new EntityIDAllocator();
+		a.reserve(5);
+		assertTrue(a.isInUse(5));
+		for(int i = 0; i < 10; i++)
+			assertTrue(a.allocate() != 5);
+
+		try {
+			a.reserve(5);
+			fail("reserving an ID in use should throw ISE");
+		} catch(IllegalStateException e) {}
+	}
+
+	@Test
+	public void testIntMapMatchesHashMap() {
+		Random r = new Random(5);
+		IntMap<Integer> m = new IntMap<Integer>();
+		Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+		for(int i = 0; i < 20000; i++) {
+			int key = r.nextInt(500);
+			if(r.nextBoolean()) {
+				assertEquals(expected.put(key, i), m.put(key, i));
+			} else {
+				assertEquals(expected.remove(key), m.remove(key));
+			}
+			assertEquals(expected.size(), m.size());
+		}
+		for(int key = 0; key < 500; key++)
+			assertEquals(expected.get(key), m.get(key));
+	}
+}
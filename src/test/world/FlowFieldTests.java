@@ -0,0 +1,81 @@
+package test.world;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import world.FlowField;
+import world.PathGraph;
+import world.PathNode;
+
+import static org.junit.Assert.*;
+import static test.world.PathNodes.*;
+
+public class FlowFieldTests {
+	@Test
+	public void testGraph() {
+		PathNode a = node(0, 0), b = node(10, 0), outside = node(0, 10);
+		link(a, b);
+		a.neighbours.add(outside);
+		PathGraph g = new PathGraph(Arrays.asList(a, b));
+
+		assertEquals(2, g.size());
+		assertSame(a, g.getNode(g.indexOf(a)));
+		assertSame(b, g.getNode(g.indexOf(b)));
+		assertEquals(-1, g.indexOf(outside));
+	}
+
+	@Test
+	public void testDownhill() {
+		// a line a-b-c-d, with a shortcut from a to d
+		PathNode a = node(0, 0), b = node(10, 0), c = node(20, 0), d = node(30, 0), lone = node(50, 50);
+		link(a, b);
+		link(b, c);
+		link(c, d);
+		a.neighbours.add(d);
+		PathGraph g = new PathGraph(Arrays.asList(a, b, c, d, lone));
+		FlowField f = new FlowField(g, g.indexOf(d));
+
+		assertSame(d, f.getTarget());
+		assertSame(d, f.getNextHop(a));
+		assertSame(c, f.getNextHop(b));
+		assertSame(d, f.getNextHop(d));
+		assertEquals(30, f.getDistance(a), 0.001);
+		assertEquals(20, f.getDistance(b), 0.001);
+		assertEquals(0, f.getDistance(d), 0);
+
+		assertNull(f.getNextHop(lone));
+		assertEquals(Float.POSITIVE_INFINITY, f.getDistance(lone), 0);
+		assertNull(f.route(lone));
+
+		// routes follow the field, and each query gets its own list
+		world.ai.PathNode route = f.route(b);
+		assertSame(b.position, route.loc);
+		assertSame(c.position, route.next.loc);
+		assertSame(d.position, route.next.next.loc);
+		assertNull(route.next.next.next);
+		assertNotSame(route, f.route(b));
+		assertSame(d.position, f.route(d).loc);
+		assertNull(f.route(d).next);
+	}
+
+	@Test
+	public void testOneWay() {
+		PathNode a = node(0, 0), b = node(10, 0);
+		a.neighbours.add(b);
+		PathGraph g = new PathGraph(Arrays.asList(a, b));
+
+		assertSame(b, new FlowField(g, g.indexOf(b)).getNextHop(a));
+		assertNull(new FlowField(g, g.indexOf(a)).getNextHop(b));
+	}
+
+	@Test
+	public void testInvalidTarget() {
+		PathGraph g = new PathGraph(Arrays.asList(node(0, 0)));
+		try {
+			new FlowField(g, 1);
+			fail("should throw IOOBE for a node outside the graph");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+}
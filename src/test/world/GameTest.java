@@ -121,6 +121,8 @@ class GameTest {
 	}
 
 	public void start() {
+		// tests shouldn't leave bakes behind, or depend on ones left by an earlier run
+		World.CACHE_NAVIGATION = false;
 		world = new World();
 		world.setUsePathNodes(usePathNodes);
 		run(new Callable<Void>() {
@@ -22,6 +22,7 @@ import world.RigidEntity;
 import world.World;
 import world.WorldType;
 import world.ai.StandardZombie;
+import world.entity.item.Stat;
 import world.entity.item.consumable.ConsumableFactory;
 import world.entity.item.container.Wallet;
 import world.entity.item.equippable.EquippableFactory;
@@ -40,6 +41,7 @@ import world.entity.item.torch.TorchFactory;
 import world.entity.mob.FastZombie;
 import world.entity.mob.Gnome;
 import world.entity.mob.Mob;
+import world.entity.mob.MobFactory;
 import world.entity.mob.SlowZombie;
 import world.entity.mob.StrongZombie;
 import world.entity.staticentity.ContainerFactory;
@@ -49,6 +51,7 @@ import world.entity.staticentity.RedDot;
 import world.entity.staticentity.StaticTorch;
 
 import com.jme3.asset.AssetManager;
+import com.jme3.bullet.control.PhysicsControl;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.Vector3f;
@@ -433,6 +436,37 @@ public class GeneralEntityTest extends GameTest {
 			}
 		});
 	}
+
+	@Test
+	public void testRecycleMob() throws Exception {
+		if(!(ent instanceof Mob))
+			return;
+
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				Mob mob = (Mob)ent;
+				Spatial mesh = mob.getMesh();
+				PhysicsControl physics = mob.getPhysics();
+				mob.getStats().addModifier(this, Stat.SPEED, 0, 0);
+				mob.getStats().setStat(Stat.HEALTH, 1);
+				mob.setTarget(mob);
+
+				world.removeEntity(mob);
+				if(!new MobFactory().recycle(mob))
+					return null; // not a type of mob that is pooled
+
+				world.addEntity(mob, new Vector3f(5, 10, 5));
+				assertInWorld();
+				assertSame(mesh, mob.getMesh());
+				assertSame(physics, mob.getPhysics());
+				assertNull(mob.getTarget());
+				assertEquals(mob.getStats().getBaseline(Stat.HEALTH), mob.getStats().getStat(Stat.HEALTH), 0);
+				assertEquals(mob.getStats().getBaseline(Stat.SPEED), mob.getStats().getStat(Stat.SPEED), 0);
+				return null;
+			}
+		});
+	}
 }
 
 class GhostEntity extends RigidEntity {
@@ -422,10 +422,9 @@ public class InventoryTests extends GameTest {
 
 	@Test
 	public void coverEmptyMethods() {
-		// these methods do nothing by themselves
+		// nothing has been dropped, so this does nothing
 		// but increases coverage so 100% is possible
-		inv.prePhysicsTick(null, 0);
-		inv.physicsTick(null, 0);
+		inv.applyPendingDrop();
 	}
 
 	@Test
@@ -468,7 +467,7 @@ public class InventoryTests extends GameTest {
 				assertNull(item.getMesh().getParent());
 
 				inv.dropItem(item);
-				inv.prePhysicsTick(world.getPhysicsSpace(), 0.01f);
+				inv.applyPendingDrop();
 
 				assertNotNull(item.getPhysics().getPhysicsSpace());
 				assertNotNull(item.getMesh().getParent());
@@ -506,7 +505,7 @@ public class InventoryTests extends GameTest {
 
 				inv.dropItem(i1);
 				inv.dropItem(i2);
-				inv.prePhysicsTick(world.getPhysicsSpace(), 0.01f);
+				inv.applyPendingDrop();
 
 				assertNotNull(i1.getPhysics().getPhysicsSpace());
 				assertNotNull(i1.getMesh().getParent());
@@ -0,0 +1,63 @@
+package test.world;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import world.Entity;
+import world.MobPopulation;
+import world.Player;
+import world.SpatialGrid;
+import world.entity.mob.Mob;
+import world.entity.mob.SlowZombie;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+public class MobPopulationTests {
+	private SpatialGrid<Entity> grid = new SpatialGrid<Entity>(32);
+	private MobPopulation population = new MobPopulation(grid);
+
+	private void count() {
+		population.update(new ArrayList<Mob>(), new ArrayList<Player>(), 0.1f, new ArrayList<Mob>());
+	}
+
+	@Test
+	public void testGlobalBudget() {
+		population.setBudgets(2, 10, 10, 10);
+		count();
+		assertTrue(population.canSpawn(null, new Vector3f(0, 0, 0)));
+		assertTrue(population.canSpawn(null, new Vector3f(100, 0, 0)));
+		assertFalse(population.canSpawn(null, new Vector3f(200, 0, 0)));
+		assertEquals(2, population.getMobCount());
+
+		// the next update recounts the mobs actually in the World
+		count();
+		assertTrue(population.canSpawn(null, new Vector3f(200, 0, 0)));
+	}
+
+	@Test
+	public void testRegionCap() {
+		population.setBudgets(100, 10, 20, 2);
+		grid.put(new SlowZombie(), new Vector3f(0, 0, 0));
+		grid.put(new SlowZombie(), new Vector3f(5, 0, 5));
+		count();
+
+		assertFalse(population.canSpawn(null, new Vector3f(1, 0, 1)));
+		assertTrue(population.canSpawn(null, new Vector3f(50, 0, 0)));
+	}
+
+	@Test
+	public void testInvalidBudgets() {
+		try {
+			population.setBudgets(-1, 10, 10, 10);
+			fail("should throw IAE for a negative budget");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			population.setDespawn(-1, 10);
+			fail("should throw IAE for a negative distance");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
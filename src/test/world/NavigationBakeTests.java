@@ -0,0 +1,91 @@
+package test.world;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import world.Entity;
+import world.NavigationBake;
+import world.PathNode;
+import world.SpawnGrid;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+public class NavigationBakeTests {
+	private static File writeMap(String contents) throws IOException {
+		File f = File.createTempFile("map", ".txt");
+		f.deleteOnExit();
+		FileWriter w = new FileWriter(f);
+		w.write(contents);
+		w.close();
+		return f;
+	}
+
+	private static byte[] key(File map) throws IOException {
+		return NavigationBake.computeKey(map.getPath(), Collections.<String>emptyList(), null, true);
+	}
+
+	@Test
+	public void testKey() throws IOException {
+		File map = writeMap("spawn, (0,50,0)");
+		byte[] k = key(map);
+		assertArrayEquals(k, key(map));
+		assertFalse(Arrays.equals(k, NavigationBake.computeKey(map.getPath(), Collections.<String>emptyList(), null, false)));
+		assertFalse(Arrays.equals(k, key(writeMap("spawn, (0,60,0)"))));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		PathNode a = new PathNode(), b = new PathNode();
+		a.position = new Vector3f(1, 2, 3);
+		b.position = new Vector3f(4, 5, 6);
+		a.neighbours.add(b);
+		b.neighbours.add(a);
+
+		File map = writeMap("spawn, (0,50,0)");
+		File file = File.createTempFile("map", ".nav");
+		file.deleteOnExit();
+		SpawnGrid grid = new SpawnGrid(-4, -4, 3, 3, 4);
+		for (int z = 0; z < 3; z++)
+			for (int x = 0; x < 3; x++)
+				grid.set(x, z, 7, true);
+		grid.finish();
+		new NavigationBake(key(map), Arrays.asList(a, b), new ArrayList<Entity>(), grid).save(file);
+
+		NavigationBake bake = NavigationBake.load(file, key(map), null);
+		assertNotNull(bake);
+		List<PathNode> nodes = bake.getPathNodes();
+		assertEquals(2, nodes.size());
+		assertEquals(a.position, nodes.get(0).position);
+		assertEquals(b.position, nodes.get(1).position);
+		// the links survive
+		assertSame(nodes.get(1), nodes.get(0).neighbours.iterator().next());
+		assertSame(nodes.get(0), nodes.get(1).neighbours.iterator().next());
+		assertTrue(bake.getTriggers().isEmpty());
+
+		// so does the spawn grid
+		SpawnGrid loaded = bake.getSpawnGrid();
+		assertEquals(3, loaded.getWidth());
+		assertEquals(4, loaded.getCellSize(), 0);
+		assertEquals(7, loaded.getHeight(-3, -3), 0);
+		assertEquals(1, loaded.countFree());
+		assertTrue(loaded.isFree(1, 1));
+
+		// a different map doesn't use it
+		assertNull(NavigationBake.load(file, key(writeMap("spawn, (0,0,0)")), null));
+	}
+
+	@Test
+	public void testMissingFile() throws IOException {
+		File file = File.createTempFile("map", ".nav");
+		file.delete();
+		assertNull(NavigationBake.load(file, new byte[20], null));
+	}
+}
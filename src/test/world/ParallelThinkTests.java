@@ -0,0 +1,108 @@
+package test.world;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import world.PhysicsUtilities;
+import world.World;
+import world.WorldType;
+import world.ai.AI;
+import world.entity.mob.Mob;
+import world.entity.mob.SlowZombie;
+
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that mobs thinking in parallel see the same World as when they think one at a time.
+ */
+public class ParallelThinkTests extends GameTest {
+	@Before public void before() {start();}
+	@After public void after() {stop();}
+
+	public ParallelThinkTests() {
+		super(WorldType.SP);
+	}
+
+	/**
+	 * An AI that only raycasts while thinking, and remembers what it saw.
+	 */
+	private static class RaycastAI extends AI {
+		boolean canSeePlayer;
+		float ground;
+
+		@Override
+		public void think(Mob mob, float tpf) {
+			Vector3f from = mob.getLocation().add(0, 1, 0);
+			// other mobs are in the way of some of them
+			canSeePlayer = PhysicsUtilities.checkLineOfSight(from, world.getPlayer().getLocation(), world.getNode(), false);
+			ground = PhysicsUtilities.nearest(from, new Vector3f(0, -1, 0), world.getNode());
+		}
+
+		@Override
+		public void update(Mob mob, float tpf) {}
+
+		@Override
+		public void write(JmeExporter ex) throws IOException {}
+
+		@Override
+		public void read(JmeImporter im) throws IOException {}
+	}
+
+	@Test
+	public void testSameAsSerial() {
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				world.setEnableMobSpawning(false);
+				Vector3f centre = world.getPlayer().getLocation();
+
+				// rows of mobs going out from the player, so the nearer ones hide the further ones
+				List<RaycastAI> ais = new ArrayList<RaycastAI>();
+				for (int row = 0; row < 8; row++) {
+					for (int i = 1; i <= 6; i++) {
+						float angle = row * (float)Math.PI / 4;
+						Mob mob = new SlowZombie();
+						world.addEntity(mob, centre.add((float)Math.cos(angle) * i * 2, 0, (float)Math.sin(angle) * i * 2));
+						RaycastAI ai = new RaycastAI();
+						mob.setAI(ai);
+						ais.add(ai);
+					}
+				}
+				assertTrue(ais.size() > 32);
+
+				boolean wasParallel = World.PARALLEL_AI;
+				try {
+					World.PARALLEL_AI = false;
+					world.gameTick(0.1f);
+					boolean[] serialSight = new boolean[ais.size()];
+					float[] serialGround = new float[ais.size()];
+					for (int i = 0; i < ais.size(); i++) {
+						serialSight[i] = ais.get(i).canSeePlayer;
+						serialGround[i] = ais.get(i).ground;
+					}
+
+					World.PARALLEL_AI = true;
+					for (int tick = 0; tick < 5; tick++) {
+						world.gameTick(0.1f);
+						for (int i = 0; i < ais.size(); i++) {
+							assertEquals(serialSight[i], ais.get(i).canSeePlayer);
+							assertEquals(serialGround[i], ais.get(i).ground, 0);
+						}
+					}
+				} finally {
+					World.PARALLEL_AI = wasParallel;
+				}
+				return null;
+			}
+		});
+	}
+}
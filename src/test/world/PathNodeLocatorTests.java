@@ -0,0 +1,111 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import world.PathNode;
+import world.PathNodeLocator;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+import static test.world.PathNodes.*;
+
+public class PathNodeLocatorTests {
+	/**
+	 * Line of sight blocked by a wall along a plane x=constant, counting the checks made.
+	 */
+	private static class Wall implements PathNodeLocator.LineOfSight {
+		final float x;
+		int checks;
+
+		Wall(float x) {
+			this.x = x;
+		}
+
+		@Override
+		public boolean check(Vector3f from, Vector3f to) {
+			checks++;
+			return (from.x < x) == (to.x < x);
+		}
+	}
+
+	@Test
+	public void testNearestMatchesBruteForce() {
+		Random r = new Random(42);
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		for (int i = 0; i < 300; i++)
+			nodes.add(node(r.nextFloat() * 200 - 100, r.nextFloat() * 20, r.nextFloat() * 200 - 100));
+		Wall wall = new Wall(0);
+		PathNodeLocator l = new PathNodeLocator(nodes, wall);
+		assertEquals(300, l.size());
+
+		for (int q = 0; q < 200; q++) {
+			Vector3f p = new Vector3f(r.nextFloat() * 220 - 110, r.nextFloat() * 20, r.nextFloat() * 220 - 110);
+			PathNode expected = null;
+			for (PathNode n : nodes)
+				if ((n.position.x < 0) == (p.x < 0) && (expected == null || n.position.distanceSquared(p) < expected.position.distanceSquared(p)))
+					expected = n;
+
+			PathNode found = l.nearestVisible(p);
+			assertNotNull(found);
+			assertEquals((found.position.x < 0), (p.x < 0));
+			assertEquals(expected.position.distance(p), found.position.distance(p), 0.0001f);
+		}
+	}
+
+	@Test
+	public void testOneCheckWhenCached() {
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		for (int x = 0; x < 10; x++)
+			for (int z = 0; z < 10; z++)
+				nodes.add(node(x * 10 + 5, 0, z * 10 + 5));
+		Wall wall = new Wall(0);
+		PathNodeLocator l = new PathNodeLocator(nodes, wall);
+
+		Vector3f p = new Vector3f(41, 1, 42);
+		assertSame(nodes.get(44), l.nearestVisible(p));
+		assertEquals(1, l.getCachedCellCount());
+
+		wall.checks = 0;
+		assertSame(nodes.get(44), l.nearestVisible(new Vector3f(42, 2, 41)));
+		assertEquals(1, wall.checks);
+	}
+
+	@Test
+	public void testWallThroughCell() {
+		float wallX = PathNodeLocator.CELL_SIZE / 2;
+		PathNode left = node(wallX - 1, 0, 2), right = node(wallX + 1, 0, 2);
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		nodes.add(left);
+		nodes.add(right);
+		PathNodeLocator l = new PathNodeLocator(nodes, new Wall(wallX));
+
+		// both points are in the same cell, but on different sides of the wall
+		assertSame(right, l.nearestVisible(new Vector3f(wallX + 0.5f, 0, 0.5f)));
+		assertSame(left, l.nearestVisible(new Vector3f(wallX - 0.5f, 0, 0.5f)));
+		assertNull(new PathNodeLocator(new ArrayList<PathNode>(), new Wall(0)).nearestVisible(Vector3f.ZERO));
+	}
+
+	@Test
+	public void testNearerThanCached() {
+		// a low wall hides near from the centre of the cell (y = 2), but not from points near the ground
+		final PathNode near = node(3, 0, 2), far = node(0, 0, 2);
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		nodes.add(near);
+		nodes.add(far);
+		PathNodeLocator l = new PathNodeLocator(nodes, new PathNodeLocator.LineOfSight() {
+			@Override
+			public boolean check(Vector3f from, Vector3f to) {
+				return to != near.position || from.y < 1;
+			}
+		});
+
+		// only far is remembered for the cell, but near is nearer and can be seen from the point
+		assertSame(near, l.nearestVisible(new Vector3f(3, 0.5f, 1)));
+		assertEquals(1, l.getCachedCellCount());
+		assertSame(far, l.nearestVisible(new Vector3f(3, 1.5f, 1)));
+	}
+}
@@ -0,0 +1,36 @@
+package test.world;
+
+import world.PathNode;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * Helpers for building graphs of PathNodes in the navigation tests.
+ */
+class PathNodes {
+	private PathNodes() {}
+
+	/**
+	 * @return a new unlinked node at the passed position
+	 */
+	static PathNode node(float x, float y, float z) {
+		PathNode n = new PathNode();
+		n.position = new Vector3f(x, y, z);
+		return n;
+	}
+
+	/**
+	 * @return a new unlinked node at the passed position on the ground (y = 0)
+	 */
+	static PathNode node(float x, float z) {
+		return node(x, 0, z);
+	}
+
+	/**
+	 * Links the passed nodes both ways.
+	 */
+	static void link(PathNode a, PathNode b) {
+		a.neighbours.add(b);
+		b.neighbours.add(a);
+	}
+}
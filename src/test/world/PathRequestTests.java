@@ -0,0 +1,94 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import world.FlowField;
+import world.PathGraph;
+import world.PathNode;
+import world.PathRequestService;
+import world.ai.PathRequest;
+
+import static org.junit.Assert.*;
+import static test.world.PathNodes.*;
+
+public class PathRequestTests {
+	private static float length(world.ai.PathNode path) {
+		float length = 0;
+		for (; path.next != null; path = path.next)
+			length += path.loc.distance(path.next.loc);
+		return length;
+	}
+
+	@Test
+	public void testFindPath() {
+		// random links between nodes on a grid, so some pairs are not connected
+		Random r = new Random(1);
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		for (int i = 0; i < 100; i++)
+			nodes.add(node(r.nextInt(100), r.nextInt(100)));
+		for (int i = 0; i < 200; i++)
+			nodes.get(r.nextInt(100)).neighbours.add(nodes.get(r.nextInt(100)));
+		PathGraph g = new PathGraph(nodes);
+
+		for (int to = 0; to < 10; to++) {
+			FlowField f = new FlowField(g, to);
+			for (int from = 0; from < g.size(); from++) {
+				world.ai.PathNode path = g.findPath(from, to);
+				if (f.getDistance(g.getNode(from)) == Float.POSITIVE_INFINITY) {
+					assertNull(path);
+				} else {
+					assertEquals(g.getNode(from).position, path.loc);
+					assertEquals(f.getDistance(g.getNode(from)), length(path), 0.01);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testService() throws InterruptedException {
+		PathNode a = node(0, 0), b = node(10, 0), c = node(20, 0);
+		a.neighbours.add(b);
+		b.neighbours.add(c);
+		List<PathNode> nodes = new ArrayList<PathNode>();
+		nodes.add(a);
+		nodes.add(b);
+		nodes.add(c);
+		PathGraph g = new PathGraph(nodes);
+
+		PathRequestService service = new PathRequestService();
+		try {
+			PathRequest request = service.submit(g, g.indexOf(a), g.indexOf(c));
+			PathRequest none = service.submit(g, g.indexOf(c), g.indexOf(a));
+			// requests only become done when the service is updated
+			for (int i = 0; i < 100 && service.getPendingCount() > 0; i++) {
+				Thread.sleep(10);
+				service.update();
+			}
+			assertEquals(0, service.getPendingCount());
+
+			assertTrue(request.isDone());
+			world.ai.PathNode path = request.getPath();
+			assertEquals(a.position, path.loc);
+			assertEquals(b.position, path.next.loc);
+			assertEquals(c.position, path.next.next.loc);
+			assertNull(path.next.next.next);
+
+			assertTrue(none.isDone());
+			assertNull(none.getPath());
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testCompleted() {
+		assertTrue(PathRequest.completed(null).isDone());
+		assertNull(PathRequest.completed(null).getPath());
+		world.ai.PathNode path = new world.ai.PathNode();
+		assertSame(path, PathRequest.completed(path).getPath());
+	}
+}
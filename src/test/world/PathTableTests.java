@@ -0,0 +1,82 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import world.PathNode;
+import world.PathTable;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+import static test.world.PathNodes.*;
+
+public class PathTableTests {
+	private static List<Vector3f> positions(world.ai.PathNode path) {
+		List<Vector3f> rv = new ArrayList<Vector3f>();
+		for (; path != null; path = path.next)
+			rv.add(path.loc);
+		return rv;
+	}
+
+	@Test
+	public void testShortestPath() {
+		// a square a-b-c-d-a with a long diagonal a-c, and e reachable only from d
+		PathNode a = node(0, 0), b = node(10, 0), c = node(10, 10), d = node(0, 10), e = node(0, 20);
+		link(a, b);
+		link(b, c);
+		link(c, d);
+		link(d, a);
+		a.neighbours.add(c);
+		d.neighbours.add(e);
+		PathTable t = new PathTable(Arrays.asList(a, b, c, d, e));
+
+		assertEquals(5, t.size());
+		assertEquals(Math.sqrt(200), t.getDistance(a, c), 0.001);
+		assertEquals(20, t.getDistance(c, a), 0.001); // the diagonal is one way
+		assertEquals(20, t.getDistance(b, d), 0.001);
+		assertEquals(0, t.getDistance(b, b), 0);
+		assertSame(c, t.getNextHop(a, c));
+		assertSame(d, t.getNextHop(a, e));
+		assertSame(b, t.getNextHop(b, b));
+
+		// e has no way out
+		assertEquals(Float.POSITIVE_INFINITY, t.getDistance(e, a), 0);
+		assertNull(t.getNextHop(e, a));
+		assertNull(t.route(e, a));
+
+		assertEquals(Arrays.asList(b.position, a.position, d.position, e.position), positions(t.route(b, e)));
+		assertEquals(Arrays.asList(c.position), positions(t.route(c, c)));
+	}
+
+	@Test
+	public void testRoutesAreNotShared() {
+		PathNode a = node(0, 0), b = node(10, 0), c = node(20, 0);
+		link(a, b);
+		link(b, c);
+		PathTable t = new PathTable(Arrays.asList(a, b, c));
+
+		// a mob can consume its route without affecting any other
+		world.ai.PathNode ac = t.route(a, c);
+		assertNotSame(ac, t.route(a, c));
+		assertNotSame(ac.next, t.route(b, c));
+		assertEquals(positions(ac.next), positions(t.route(b, c)));
+		assertEquals(Arrays.asList(c.position, b.position, a.position), positions(t.route(c, a)));
+	}
+
+	@Test
+	public void testUnknownNodes() {
+		PathNode a = node(0, 0), b = node(10, 0), outside = node(5, 5);
+		link(a, b);
+		a.neighbours.add(outside); // ignored, since it's not in the table
+		PathTable t = new PathTable(Arrays.asList(a, b));
+
+		assertFalse(t.contains(outside));
+		assertEquals(Float.POSITIVE_INFINITY, t.getDistance(a, outside), 0);
+		assertNull(t.getNextHop(outside, a));
+		assertNull(t.route(a, outside));
+		assertEquals(10, t.getDistance(a, b), 0.001);
+	}
+}
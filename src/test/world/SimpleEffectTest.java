@@ -191,7 +191,7 @@ public class SimpleEffectTest extends GameTest {
 				t.apply(a);
 				t.start();
 				assertTrue(a.getStats().getStat(Stat.ENERGY) == 20);
-				t.update(10000);
+				world.gameTick(10000);
 				assertTrue(a.getStats().getStat(Stat.ENERGY) == 10);
 				return null;
 			}
@@ -0,0 +1,81 @@
+package test.world;
+
+import org.junit.Test;
+
+import world.SimulationClock;
+import static org.junit.Assert.*;
+
+public class SimulationClockTests {
+	@Test
+	public void testSteps() {
+		// steps of a quarter of a second, which floats hold exactly
+		SimulationClock c = new SimulationClock(4, 5);
+		assertEquals(0.25f, c.getStepLength(), 0);
+		assertEquals(4, c.getTickRate(), 0);
+
+		assertEquals(2, c.advance(0.625f));
+		assertEquals(0.5f, c.getAlpha(), 0);
+		assertEquals(0, c.getDroppedTime(), 0);
+	}
+
+	@Test
+	public void testCarry() {
+		SimulationClock c = new SimulationClock(4, 5);
+		assertEquals(0, c.advance(0.125f));
+		assertEquals(0.5f, c.getAlpha(), 0);
+
+		// the leftover time makes up a step with the next frame
+		assertEquals(1, c.advance(0.125f));
+		assertEquals(0, c.getAlpha(), 0);
+
+		// frames that go backwards or stand still don't run anything
+		assertEquals(0, c.advance(0));
+		assertEquals(0, c.advance(-1));
+		assertEquals(0, c.getAlpha(), 0);
+	}
+
+	@Test
+	public void testCatchUpCap() {
+		SimulationClock c = new SimulationClock(4, 5);
+
+		// a three second frame is twelve steps, but only five are run and the rest is dropped
+		assertEquals(5, c.advance(3.125f));
+		assertEquals(1.75f, c.getDroppedTime(), 0);
+		assertEquals(0.5f, c.getAlpha(), 0);
+
+		// the next frame isn't slowed down by the dropped time
+		assertEquals(1, c.advance(0.125f));
+		assertEquals(1.75f, c.getDroppedTime(), 0);
+
+		c.resetStatistics();
+		assertEquals(0, c.getDroppedTime(), 0);
+	}
+
+	@Test
+	public void testRecordStep() {
+		SimulationClock c = new SimulationClock();
+		assertEquals(0, c.getAverageStepNanos());
+
+		c.recordStep(100);
+		c.recordStep(300);
+		c.recordStep(200);
+		assertEquals(3, c.getStepCount());
+		assertEquals(200, c.getLastStepNanos());
+		assertEquals(300, c.getMaxStepNanos());
+		assertEquals(200, c.getAverageStepNanos());
+
+		c.resetStatistics();
+		assertEquals(0, c.getStepCount());
+		assertEquals(0, c.getMaxStepNanos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadTickRate() {
+		new SimulationClock(0, 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadCatchUp() {
+		new SimulationClock(30, 0);
+	}
+}
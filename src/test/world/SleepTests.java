@@ -0,0 +1,156 @@
+package test.world;
+
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import world.WorldType;
+import world.entity.item.miscellaneous.Key;
+import world.entity.staticentity.LiftingDoor;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for entities that stop being updated with World.sleep and sleepFor.
+ */
+public class SleepTests extends GameTest {
+	@Before public void before() {start();}
+	@After public void after() {stop();}
+
+	public SleepTests() {
+		super(WorldType.SP);
+	}
+
+	/**
+	 * An updatable entity that counts its updates, and puts itself to sleep when asked.
+	 */
+	private static class SleepyKey extends Key {
+		int updates;
+		// the time to sleep for on the next update: 0 for until woken, negative to stay awake
+		float sleepNext = -1;
+
+		SleepyKey() {
+			super("Models/key/key.blend", "sleepy key");
+		}
+
+		@Override
+		public boolean isUpdatable() {
+			return true;
+		}
+
+		@Override
+		public void update(float tpf) {
+			updates++;
+			if (sleepNext == 0)
+				sleep();
+			else if (sleepNext > 0)
+				sleepFor(sleepNext);
+			sleepNext = -1;
+		}
+	}
+
+	private void tick(int ticks) {
+		for (int i = 0; i < ticks; i++)
+			world.gameTick(0.1f);
+	}
+
+	@Test
+	public void testSleepInUpdate() {
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				SleepyKey e = new SleepyKey();
+				world.addEntity(e, Vector3f.ZERO);
+				e.sleepNext = 0;
+				tick(1);
+				assertEquals(1, e.updates);
+				assertTrue(world.isSleeping(e));
+
+				// skipped until woken
+				tick(5);
+				assertEquals(1, e.updates);
+
+				world.wake(e);
+				assertFalse(world.isSleeping(e));
+				tick(1);
+				assertEquals(2, e.updates);
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void testSleepFor() {
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				SleepyKey e = new SleepyKey();
+				world.addEntity(e, Vector3f.ZERO);
+				e.sleepNext = 1;
+				tick(1);
+				assertTrue(world.isSleeping(e));
+
+				tick(5);
+				assertEquals(1, e.updates);
+				assertTrue(world.isSleeping(e));
+
+				// the timer wakes it once a second has passed
+				tick(6);
+				assertFalse(world.isSleeping(e));
+				assertTrue(e.updates > 1);
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void testRemoveSleeping() {
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				int timers = world.getTimerCount();
+				SleepyKey e = new SleepyKey();
+				world.addEntity(e, Vector3f.ZERO);
+				e.sleepNext = 1;
+				tick(1);
+				assertEquals(timers + 1, world.getTimerCount());
+
+				// removing it cancels the timer that would have woken it
+				world.removeEntity(e);
+				assertFalse(world.isSleeping(e));
+				assertEquals(timers, world.getTimerCount());
+
+				tick(20);
+				assertEquals(1, e.updates);
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void testDoorSleepsWhenStill() {
+		run(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				LiftingDoor door = new LiftingDoor("door/door.mesh.xml", new Vector3f(1, 1, 1), 0);
+				world.addEntity(door, Vector3f.ZERO);
+
+				// it starts closing, stops at the bottom, and then has nothing to do
+				tick(10);
+				assertTrue(world.isSleeping(door));
+
+				// opening it wakes it until it has finished moving
+				door.activate(world.getPlayer());
+				assertFalse(world.isSleeping(door));
+				tick(2);
+				assertFalse(world.isSleeping(door));
+				tick(10);
+				assertTrue(world.isSleeping(door));
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,90 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import world.SlotMap;
+import static org.junit.Assert.*;
+
+public class SlotMapTests {
+	@Test
+	public void testAddRemoveContains() {
+		SlotMap<String> m = new SlotMap<String>();
+		String a = "a", b = "b";
+		assertTrue(m.add(a));
+		assertFalse(m.add(a));
+		assertTrue(m.add(b));
+		assertEquals(2, m.size());
+
+		assertTrue(m.remove(a));
+		assertFalse(m.remove(a));
+		assertFalse(m.contains(a));
+		assertTrue(m.contains(b));
+		assertEquals(1, m.size());
+	}
+
+	@Test
+	public void testHandlesSurviveCompaction() {
+		SlotMap<Integer> m = new SlotMap<Integer>();
+		List<Integer> items = new ArrayList<Integer>();
+		for(int i = 0; i < 100; i++) {
+			Integer item = new Integer(i);
+			items.add(item);
+			m.add(item);
+		}
+		int handle = m.getHandle(items.get(99));
+
+		for(int i = 0; i < 100; i += 2)
+			m.remove(items.get(i));
+		m.compact();
+
+		assertEquals(50, m.size());
+		assertSame(items.get(99), m.get(handle));
+		for(int i = 0; i < 100; i++)
+			assertEquals(i % 2 == 1, m.contains(items.get(i)));
+
+		int seen = 0;
+		for(Integer i : m) {
+			assertTrue(i % 2 == 1);
+			seen++;
+		}
+		assertEquals(50, seen);
+	}
+
+	@Test
+	public void testModifyWhileIterating() {
+		SlotMap<Integer> m = new SlotMap<Integer>();
+		List<Integer> items = new ArrayList<Integer>();
+		for(int i = 0; i < 10; i++) {
+			Integer item = new Integer(i);
+			items.add(item);
+			m.add(item);
+		}
+
+		int seen = 0;
+		for(Integer i : m) {
+			seen++;
+			// removing a later item means it won't be seen, adding means nothing new is seen
+			if(i == 0)
+				m.remove(items.get(9));
+			m.add(new Integer(100 + i));
+		}
+		assertEquals(9, seen);
+		assertEquals(18, m.size());
+	}
+
+	@Test
+	public void testRemovedHandleIsStale() {
+		SlotMap<String> m = new SlotMap<String>();
+		String a = "a";
+		m.add(a);
+		int handle = m.getHandle(a);
+		m.remove(a);
+		assertNull(m.get(handle));
+		m.compact();
+		assertNull(m.get(handle));
+		assertEquals(-1, m.getHandle(a));
+	}
+}
@@ -0,0 +1,118 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.jme3.math.Vector3f;
+
+import world.SpatialGrid;
+import static org.junit.Assert.*;
+
+public class SpatialGridTests {
+	private static Vector3f[] randomPoints(Random r, int n) {
+		Vector3f[] rv = new Vector3f[n];
+		for(int i = 0; i < n; i++)
+			rv[i] = new Vector3f(r.nextFloat()*1000 - 500, r.nextFloat()*20, r.nextFloat()*1000 - 500);
+		return rv;
+	}
+
+	private static SpatialGrid<Vector3f> makeGrid(Vector3f[] points) {
+		SpatialGrid<Vector3f> g = new SpatialGrid<Vector3f>(32);
+		for(Vector3f p : points)
+			g.put(p, p);
+		return g;
+	}
+
+	private static Vector3f bruteNearest(Vector3f[] points, Vector3f q) {
+		Vector3f best = null;
+		for(Vector3f p : points)
+			if(best == null || p.distanceSquared(q) < best.distanceSquared(q))
+				best = p;
+		return best;
+	}
+
+	@Test
+	public void testNearestMatchesLinearScan() {
+		Random r = new Random(1);
+		Vector3f[] points = randomPoints(r, 300);
+		SpatialGrid<Vector3f> g = makeGrid(points);
+
+		for(Vector3f q : randomPoints(r, 100))
+			assertSame(bruteNearest(points, q), g.nearest(q, null));
+
+		// points far outside the occupied area
+		assertSame(bruteNearest(points, new Vector3f(5000, 0, 5000)), g.nearest(new Vector3f(5000, 0, 5000), null));
+	}
+
+	@Test
+	public void testNearestWithFilter() {
+		Random r = new Random(2);
+		final Vector3f[] points = randomPoints(r, 200);
+		SpatialGrid<Vector3f> g = makeGrid(points);
+		final Vector3f only = points[123];
+
+		SpatialGrid.Filter<Vector3f> filter = new SpatialGrid.Filter<Vector3f>() {
+			@Override
+			public boolean accept(Vector3f item) {
+				return item == only;
+			}
+		};
+		assertSame(only, g.nearest(Vector3f.ZERO, filter));
+	}
+
+	@Test
+	public void testKNearestIsSorted() {
+		Random r = new Random(3);
+		Vector3f[] points = randomPoints(r, 300);
+		SpatialGrid<Vector3f> g = makeGrid(points);
+		Vector3f q = new Vector3f(10, 0, -20);
+
+		List<Vector3f> found = g.nearest(q, 10, null, new ArrayList<Vector3f>());
+		assertEquals(10, found.size());
+		for(int i = 1; i < found.size(); i++)
+			assertTrue(found.get(i-1).distanceSquared(q) <= found.get(i).distanceSquared(q));
+
+		int closer = 0;
+		for(Vector3f p : points)
+			if(p.distanceSquared(q) < found.get(9).distanceSquared(q))
+				closer++;
+		assertEquals(9, closer);
+	}
+
+	@Test
+	public void testInRadius() {
+		Random r = new Random(4);
+		Vector3f[] points = randomPoints(r, 300);
+		SpatialGrid<Vector3f> g = makeGrid(points);
+		Vector3f q = new Vector3f(0, 0, 0);
+
+		Set<Vector3f> found = g.inRadius(q, 100, null, new HashSet<Vector3f>());
+		for(Vector3f p : points)
+			assertEquals(p.distance(q) <= 100, found.contains(p));
+	}
+
+	@Test
+	public void testMoveAndRemove() {
+		SpatialGrid<Object> g = new SpatialGrid<Object>(10);
+		Object a = new Object(), b = new Object();
+		g.put(a, new Vector3f(0, 0, 0));
+		g.put(b, new Vector3f(100, 0, 100));
+		assertSame(a, g.nearest(new Vector3f(1, 0, 1), null));
+
+		g.put(a, new Vector3f(200, 0, 200));
+		assertSame(b, g.nearest(new Vector3f(1, 0, 1), null));
+
+		assertTrue(g.remove(b));
+		assertFalse(g.remove(b));
+		assertSame(a, g.nearest(new Vector3f(1, 0, 1), null));
+		assertEquals(1, g.size());
+
+		g.remove(a);
+		assertNull(g.nearest(Vector3f.ZERO, null));
+	}
+}
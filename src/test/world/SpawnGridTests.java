@@ -0,0 +1,117 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import world.SpawnGrid;
+
+import com.jme3.collision.CollisionResult;
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+public class SpawnGridTests {
+	/**
+	 * @return a 5x5 grid of flat ground at height 10, with cell size 2, starting at (0, 0)
+	 */
+	private SpawnGrid flatGrid() {
+		SpawnGrid g = new SpawnGrid(0, 0, 5, 5, 2);
+		for (int z = 0; z < 5; z++)
+			for (int x = 0; x < 5; x++)
+				g.set(x, z, 10, true);
+		return g;
+	}
+
+	@Test
+	public void testFlat() {
+		SpawnGrid g = flatGrid();
+		g.finish();
+
+		// only the inner cells have level neighbours on every side
+		assertEquals(9, g.countFree());
+		assertTrue(g.isFree(5, 5));
+		assertFalse(g.isFree(1, 1));
+		assertFalse(g.isFree(-1, 5));
+		assertEquals(10, g.getHeight(1, 1), 0);
+		assertTrue(Float.isNaN(g.getHeight(100, 100)));
+
+		Vector3f v = new Vector3f(5, 0, 5);
+		assertTrue(g.place(v, 3));
+		assertEquals(13, v.y, 0);
+
+		v = new Vector3f(1, 0, 1);
+		assertFalse(g.place(v, 3));
+		assertEquals(0, v.y, 0);
+	}
+
+	@Test
+	public void testWall() {
+		SpawnGrid g = flatGrid();
+		g.set(2, 2, 30, true); // a tall box in the middle
+		g.finish();
+
+		assertEquals(0, g.countFree());
+		assertFalse(g.isFree(5, 5));
+	}
+
+	@Test
+	public void testSlopeAndHoles() {
+		SpawnGrid g = flatGrid();
+		g.set(1, 1, 10, false); // too steep
+		g.set(3, 3, Float.NaN, false); // no ground
+		g.finish();
+
+		assertFalse(g.isFree(3, 3));
+		assertFalse(g.isFree(5, 5)); // next to the hole
+		assertFalse(g.isFree(7, 7));
+		assertTrue(g.isFree(3, 7));
+	}
+
+	private static CollisionResult hit(float y, float normalY) {
+		CollisionResult r = new CollisionResult(new Vector3f(0, y, 0), 100 - y);
+		r.setContactNormal(new Vector3f(0, normalY, 0));
+		return r;
+	}
+
+	@Test
+	public void testRoof() {
+		// a flat roof at height 20 over the whole grid, with the floor at 10 under it
+		List<CollisionResult> hits = new ArrayList<CollisionResult>();
+		hits.add(hit(20, 1));
+		hits.add(hit(19, -1));
+		hits.add(hit(10, 1));
+		SpawnGrid g = new SpawnGrid(0, 0, 5, 5, 2);
+		for (int z = 0; z < 5; z++)
+			for (int x = 0; x < 5; x++)
+				g.set(x, z, hits);
+		g.finish();
+
+		assertEquals(20, g.getHeight(5, 5), 0);
+		assertEquals(0, g.countFree());
+	}
+
+	@Test
+	public void testGround() {
+		SpawnGrid g = new SpawnGrid(0, 0, 5, 5, 2);
+		for (int z = 0; z < 5; z++) {
+			for (int x = 0; x < 5; x++) {
+				List<CollisionResult> hits = new ArrayList<CollisionResult>();
+				if (x == 0 && z == 0) {
+					g.set(x, z, hits); // nothing there
+					continue;
+				}
+				if (x == 2 && z == 2)
+					hits.add(hit(11, 1)); // a low step, which is still ground
+				hits.add(hit(10, 1));
+				hits.add(hit(5, -1)); // the underside of the terrain
+				g.set(x, z, hits);
+			}
+		}
+		g.finish();
+
+		assertEquals(8, g.countFree()); // (1, 1) is next to the empty cell
+		assertEquals(11, g.getHeight(5, 5), 0);
+		assertTrue(Float.isNaN(g.getHeight(1, 1)));
+	}
+}
@@ -0,0 +1,102 @@
+package test.world;
+
+import org.junit.Test;
+
+import world.TickProfiler;
+import world.TickProfiler.Phase;
+import static org.junit.Assert.*;
+
+public class TickProfilerTests {
+	@Test
+	public void testRecordPhases() {
+		TickProfiler p = new TickProfiler();
+		p.setLogIntervalSeconds(0);
+
+		long start = p.start();
+		long t = p.record(Phase.EFFECTS, start);
+		t = p.record(Phase.ENTITIES, t);
+		p.endTick(start, 5, 2, 1);
+
+		assertEquals(1, p.getTickCount());
+		assertEquals(1, p.getPhaseCount(Phase.EFFECTS));
+		assertEquals(1, p.getPhaseCount(Phase.ENTITIES));
+		assertEquals(0, p.getPhaseCount(Phase.SPAWNING));
+		assertEquals(5, p.getEntityCount());
+		assertEquals(2, p.getEffectCount());
+		assertEquals(1, p.getMobCount());
+		assertEquals(Phase.values().length, p.getPhaseStatistics().length);
+	}
+
+	@Test
+	public void testPercentileBoundedByMax() {
+		TickProfiler p = new TickProfiler();
+		for (int i = 0; i < 100; i++)
+			p.record(Phase.COMPACT, p.start());
+
+		long max = p.getPhaseMaxNanos(Phase.COMPACT);
+		long p50 = p.getPhasePercentileNanos(Phase.COMPACT, 0.5);
+		assertTrue(p50 <= max);
+		assertTrue(p.getPhasePercentileNanos(Phase.COMPACT, 0.99) >= p50);
+		assertTrue(p.getPhaseAverageNanos(Phase.COMPACT) <= max);
+	}
+
+	@Test
+	public void testEntityClassStatistics() {
+		TickProfiler p = new TickProfiler();
+		long t = p.start();
+		t = p.recordEntity(String.class, t);
+		t = p.recordEntity(String.class, t);
+		p.recordEntity(Integer.class, t);
+
+		String[] stats = p.getEntityClassStatistics();
+		assertEquals(2, stats.length);
+		for (String s : stats) {
+			if (s.startsWith("String"))
+				assertTrue(s.contains("n=2"));
+			else
+				assertTrue(s.startsWith("Integer") && s.contains("n=1"));
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		TickProfiler p = new TickProfiler();
+		p.setEnabled(false);
+		assertEquals(0, p.start());
+		assertEquals(0, p.record(Phase.EFFECTS, 0));
+		p.endTick(0, 0, 0, 0);
+		assertEquals(0, p.getTickCount());
+		assertEquals(0, p.getPhaseCount(Phase.EFFECTS));
+	}
+
+	@Test
+	public void testReset() {
+		TickProfiler p = new TickProfiler();
+		p.setLogIntervalSeconds(0);
+		long start = p.start();
+		p.record(Phase.EFFECTS, start);
+		p.endTick(start, 0, 0, 0);
+		assertEquals(1, p.getTickCount());
+
+		p.reset();
+		p.endTick(p.start(), 0, 0, 0);
+		assertEquals(0, p.getTickCount());
+		assertEquals(0, p.getPhaseCount(Phase.EFFECTS));
+	}
+
+	@Test
+	public void testSpawnQueue() {
+		TickProfiler p = new TickProfiler();
+		p.setLogIntervalSeconds(0);
+		p.recordSpawnQueue(12);
+		p.recordSpawnQueue(3);
+		assertEquals(3, p.getSpawnQueueDepth());
+		assertEquals(12, p.getMaxSpawnQueueDepth());
+		assertTrue(p.toString().contains("spawnQueue=3"));
+
+		// a reset starts the maximum again from the current depth
+		p.reset();
+		p.endTick(p.start(), 0, 0, 0);
+		assertEquals(3, p.getMaxSpawnQueueDepth());
+	}
+}
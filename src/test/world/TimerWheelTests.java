@@ -0,0 +1,94 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import world.TimerWheel;
+import static org.junit.Assert.*;
+
+public class TimerWheelTests {
+	@Test
+	public void testFiresAtDeadline() {
+		TimerWheel<String> w = new TimerWheel<String>();
+		w.schedule("a", 5);
+		w.schedule("b", 100);
+		List<String> due = new ArrayList<String>();
+
+		w.advance(4, due);
+		assertTrue(due.isEmpty());
+		w.advance(5, due);
+		assertEquals(1, due.size());
+		assertEquals("a", due.get(0));
+
+		due.clear();
+		w.advance(99, due);
+		assertTrue(due.isEmpty());
+		w.advance(100, due);
+		assertEquals(1, due.size());
+		assertEquals(0, w.size());
+	}
+
+	@Test
+	public void testPastDeadlineFiresNextTick() {
+		TimerWheel<String> w = new TimerWheel<String>(10);
+		w.schedule("a", 3);
+		List<String> due = new ArrayList<String>();
+		w.advance(11, due);
+		assertEquals(1, due.size());
+	}
+
+	@Test
+	public void testCancel() {
+		TimerWheel<String> w = new TimerWheel<String>();
+		TimerWheel.Timer<String> t = w.schedule("a", 5000);
+		assertTrue(t.isScheduled());
+		assertTrue(w.cancel(t));
+		assertFalse(w.cancel(t));
+		assertEquals(0, w.size());
+
+		List<String> due = new ArrayList<String>();
+		w.advance(10000, due);
+		assertTrue(due.isEmpty());
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		Random r = new Random(1);
+		TimerWheel<Long> w = new TimerWheel<Long>();
+		List<TimerWheel.Timer<Long>> timers = new ArrayList<TimerWheel.Timer<Long>>();
+		List<Long> due = new ArrayList<Long>();
+		long now = 0;
+
+		for (int step = 0; step < 2000; step++) {
+			// schedule timers at a mix of near and far deadlines, and cancel some
+			for (int i = 0; i < 5; i++) {
+				long delta = (long) Math.pow(2, r.nextInt(27)) + r.nextInt(100);
+				timers.add(w.schedule(now + delta, now + delta));
+			}
+			if (!timers.isEmpty() && r.nextInt(3) == 0)
+				w.cancel(timers.remove(r.nextInt(timers.size())));
+
+			now += 1 + r.nextInt(r.nextBoolean() ? 50 : 500000);
+			due.clear();
+			w.advance(now, due);
+
+			long expected = 0;
+			for (int i = timers.size() - 1; i >= 0; i--) {
+				if (timers.get(i).getDeadline() <= now) {
+					assertFalse(timers.get(i).isScheduled());
+					timers.remove(i);
+					expected++;
+				} else {
+					assertTrue(timers.get(i).isScheduled());
+				}
+			}
+			assertEquals(expected, due.size());
+			for (long d : due)
+				assertTrue(d <= now);
+			assertEquals(timers.size(), w.size());
+		}
+	}
+}
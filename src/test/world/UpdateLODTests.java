@@ -0,0 +1,182 @@
+package test.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import world.Player;
+import world.UpdateLOD;
+import world.entity.mob.Mob;
+import world.entity.mob.SlowZombie;
+
+import com.jme3.math.Vector3f;
+import static org.junit.Assert.*;
+
+public class UpdateLODTests {
+	/**
+	 * A mob with a fixed location and ID, that records whether it was frozen, without needing a World.
+	 */
+	private static class TestMob extends SlowZombie {
+		private final Vector3f location;
+		private boolean frozen;
+
+		TestMob(int id, float x) {
+			entityID = id;
+			location = new Vector3f(x, 0, 0);
+		}
+
+		@Override
+		public Vector3f getLocation() {
+			return location;
+		}
+
+		@Override
+		public void setFrozen(boolean frozen) {
+			this.frozen = frozen;
+		}
+
+		@Override
+		public boolean isFrozen() {
+			return frozen;
+		}
+	}
+
+	private static class TestPlayer extends Player {
+		private final Vector3f location = new Vector3f();
+
+		@Override
+		public Vector3f getLocation() {
+			return location;
+		}
+	}
+
+	private UpdateLOD lod = new UpdateLOD();
+	private TestPlayer player = new TestPlayer();
+	private List<Player> players = new ArrayList<Player>(Arrays.asList(player));
+
+	public UpdateLODTests() {
+		lod.setBands(10, 20, 30, 2, 4);
+	}
+
+	/**
+	 * Schedules the passed mobs for the passed number of ticks of 0.1 seconds.
+	 * @return the number of ticks each mob was updated on
+	 */
+	private int[] countUpdates(List<Mob> mobs, int ticks, boolean canFreeze) {
+		int[] updates = new int[mobs.size()];
+		for (int t = 0; t < ticks; t++) {
+			lod.schedule(mobs, players, 0.1f, canFreeze);
+			for (int i = 0; i < mobs.size(); i++)
+				if (lod.getTickTime(mobs.get(i)) >= 0)
+					updates[i]++;
+		}
+		return updates;
+	}
+
+	@Test
+	public void testBands() {
+		// the bands start at their distance: a mob exactly 10 away is in the middle band
+		List<Mob> mobs = Arrays.<Mob>asList(new TestMob(0, 9.9f), new TestMob(1, 10), new TestMob(2, 20), new TestMob(3, 30));
+		int[] updates = countUpdates(mobs, 8, true);
+
+		assertEquals(8, updates[0]);
+		assertEquals(4, updates[1]);
+		assertEquals(2, updates[2]);
+		assertEquals(0, updates[3]);
+		assertFalse(mobs.get(2).isFrozen());
+		assertTrue(mobs.get(3).isFrozen());
+	}
+
+	@Test
+	public void testStaggered() {
+		// (tick + ID) % interval, so mobs with neighbouring IDs update on alternate ticks
+		Mob a = new TestMob(0, 15), b = new TestMob(1, 15);
+		List<Mob> mobs = Arrays.asList(a, b);
+		for (int t = 1; t <= 6; t++) {
+			lod.schedule(mobs, players, 0.1f, true);
+			assertEquals(t % 2 == 0, lod.getTickTime(a) >= 0);
+			assertEquals(t % 2 == 1, lod.getTickTime(b) >= 0);
+		}
+	}
+
+	@Test
+	public void testAccumulatedTime() {
+		Mob far = new TestMob(0, 25);
+		List<Mob> mobs = Arrays.asList(far);
+
+		// the first update comes after four ticks, and is passed all four ticks' time
+		for (int t = 1; t <= 3; t++) {
+			lod.schedule(mobs, players, 0.1f, true);
+			assertTrue(lod.getTickTime(far) < 0);
+		}
+		lod.schedule(mobs, players, 0.1f, true);
+		assertEquals(0.4f, lod.getTickTime(far), 0.0001f);
+
+		for (int t = 1; t <= 3; t++)
+			lod.schedule(mobs, players, 0.2f, true);
+		lod.schedule(mobs, players, 0.1f, true);
+		assertEquals(0.7f, lod.getTickTime(far), 0.0001f);
+	}
+
+	@Test
+	public void testFreezeAndUnfreeze() {
+		TestMob mob = new TestMob(0, 50);
+		List<Mob> mobs = Arrays.<Mob>asList(mob);
+
+		lod.schedule(mobs, players, 0.1f, true);
+		assertTrue(mob.isFrozen());
+		assertTrue(lod.getTickTime(mob) < 0);
+
+		// a player coming close wakes it up
+		player.getLocation().set(45, 0, 0);
+		lod.schedule(mobs, players, 0.1f, true);
+		assertFalse(mob.isFrozen());
+		assertTrue(lod.getTickTime(mob) >= 0);
+
+		// removing a frozen mob unfreezes it, so it is ready to be reused
+		player.getLocation().set(0, 0, 0);
+		lod.schedule(mobs, players, 0.1f, true);
+		assertTrue(mob.isFrozen());
+		lod.remove(mob);
+		assertFalse(mob.isFrozen());
+		assertTrue(lod.getTickTime(mob) < 0);
+	}
+
+	@Test
+	public void testCannotFreeze() {
+		// on a client, far mobs are updated in the far band rather than frozen
+		TestMob mob = new TestMob(0, 50);
+		int[] updates = countUpdates(Arrays.<Mob>asList(mob), 8, false);
+		assertFalse(mob.isFrozen());
+		assertEquals(2, updates[0]);
+	}
+
+	@Test
+	public void testNoPlayersOrDisabled() {
+		List<Mob> mobs = Arrays.<Mob>asList(new TestMob(0, 50));
+		players.clear();
+		assertEquals(8, countUpdates(mobs, 8, true)[0]);
+		assertFalse(mobs.get(0).isFrozen());
+
+		players.add(player);
+		lod.setEnabled(false);
+		assertEquals(8, countUpdates(mobs, 8, true)[0]);
+		assertFalse(mobs.get(0).isFrozen());
+	}
+
+	@Test
+	public void testInvalidBands() {
+		try {
+			lod.setBands(20, 10, 30, 2, 4);
+			fail("should throw IAE for bands out of order");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			lod.setBands(10, 20, 30, 0, 4);
+			fail("should throw IAE for an interval of 0");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
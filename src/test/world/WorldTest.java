@@ -166,10 +166,12 @@ public class WorldTest extends GameTest {
 				es.add(new EntitySpawnData(makeTestEntity(), Vector3f.ZERO, nextID));
 				world.addEntities(es);
 				
-				// addEntity should allocate the next unused ID
+				// addEntity should allocate an unused ID
 				Entity eTest = makeTestEntity();
 				world.addEntity(eTest, Vector3f.ZERO);
-				assertTrue(eTest.getEntityID() == nextID + 1);
+				assertTrue(eTest.getEntityID() != nextID);
+				assertTrue(eTest.getEntityID() != eProbe.getEntityID());
+				assertSame(eTest, world.getEntityByID(eTest.getEntityID()));
 				
 				return null;
 			}
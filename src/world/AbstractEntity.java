@@ -25,6 +25,7 @@ public abstract class AbstractEntity implements Entity, Savable {
 	protected boolean visible;
 	protected World world;
 	protected int entityID = -1;
+	private boolean keptForReuse;
 
 	// WORLD LINK METHODS
 
@@ -45,16 +46,23 @@ public abstract class AbstractEntity implements Entity, Savable {
 		this.entityID = id;
 		this.world = world;
 
-		makeMesh(world.getAssetManager());
-		if(geometry == null)
-			throw new AssertionError("makeMesh didn't create geometry for "+this);
-		setUserDataRecursive(geometry);
-		//world.getNode().attachChild(geometry); now done per entity type
-		attachToNode ();
-		
-		makePhysics(world.getPhysicsSpace());
-		if(getPhysics() == null)
-			throw new AssertionError("makePhysics didn't create physics for "+this);
+		if (keptForReuse) {
+			// the geometry and physics from the last time this entity was linked are still there
+			keptForReuse = false;
+			attachToNode ();
+			reattachPhysics(world.getPhysicsSpace());
+		} else {
+			makeMesh(world.getAssetManager());
+			if(geometry == null)
+				throw new AssertionError("makeMesh didn't create geometry for "+this);
+			setUserDataRecursive(geometry);
+			//world.getNode().attachChild(geometry); now done per entity type
+			attachToNode ();
+			
+			makePhysics(world.getPhysicsSpace());
+			if(getPhysics() == null)
+				throw new AssertionError("makePhysics didn't create physics for "+this);
+		}
 
 		// must happen after physics creation
 		setLocation (location);
@@ -88,6 +96,24 @@ public abstract class AbstractEntity implements Entity, Savable {
 		this.world = null;
 	}
 
+	/**
+	 * Keeps this entity's geometry and physics after it has been unlinked from its World,
+	 * so that the next linkToWorld re-attaches them instead of making new ones. This is
+	 * used for pooled entities, which are linked and unlinked many times.
+	 */
+	protected void keepForReuse() {
+		if (world != null)
+			throw new IllegalStateException("still linked to world");
+		keptForReuse = geometry != null;
+	}
+
+	/**
+	 * @return true if the next linkToWorld will reuse this entity's geometry and physics
+	 */
+	protected boolean isKeptForReuse() {
+		return keptForReuse;
+	}
+
 	/**
 	 * Returns the world this entity has been linked to, or throws an IllegalStateException
 	 * is this entity has not been linked to a world.
@@ -137,6 +163,16 @@ public abstract class AbstractEntity implements Entity, Savable {
 	 */
 	protected abstract void destroyPhysics (PhysicsSpace physicsSpace);
 
+	/**
+	 * Adds the physics control kept by keepForReuse back to a physics space. Used internally,
+	 * do not call.
+	 *
+	 * @param physicsSpace the PhysicsSpace to attach to
+	 */
+	protected void reattachPhysics(PhysicsSpace physicsSpace) {
+		physicsSpace.add(getPhysics());
+	}
+
 	// LOCATION AND DIRECTION RELATED
 
 	@Override
@@ -202,6 +238,30 @@ public abstract class AbstractEntity implements Entity, Savable {
 	@Override
 	public abstract void update(float tpf);
 
+	/**
+	 * Stops this Entity being updated until wake is called. See World.sleep.
+	 */
+	protected void sleep() {
+		if (world != null)
+			world.sleep(this);
+	}
+
+	/**
+	 * Stops this Entity being updated for the passed number of seconds. See World.sleepFor.
+	 */
+	protected void sleepFor(float seconds) {
+		if (world != null)
+			world.sleepFor(this, seconds);
+	}
+
+	/**
+	 * Resumes updating this Entity, if it was put to sleep.
+	 */
+	protected void wake() {
+		if (world != null)
+			world.wake(this);
+	}
+
 	// HELPER AND SAVE/LOAD METHODS
 
 	@Override
@@ -7,7 +7,6 @@ import world.entity.item.Stat;
 
 import com.jme3.asset.AssetManager;
 import com.jme3.bullet.PhysicsSpace;
-import com.jme3.bullet.PhysicsTickListener;
 import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.collision.shapes.CapsuleCollisionShape;
 import com.jme3.bullet.collision.shapes.CollisionShape;
@@ -62,7 +61,10 @@ public abstract class Actor extends AbstractEntity {
 
 	@Override
 	public void linkToWorld(World world, Vector3f location, int id) {
-		stats = makeStats (world);
+		if (stats != null && isKeptForReuse())
+			stats.reset();
+		else
+			stats = makeStats (world);
 		super.linkToWorld(world, location, id);
 	}
 
@@ -143,24 +145,6 @@ public abstract class Actor extends AbstractEntity {
 		world.getPhysicsSpace().remove(ghost);
 	}
 
-
-	private PhysicsTickListener physicsTickListener = new PhysicsTickListener() {
-
-		@Override
-		public void prePhysicsTick(PhysicsSpace arg0, float arg1) {
-			// if an actor falls through the world, teleport it to spawn
-			if(getLocation().y < -1000){
-				if(getWorld().getWorldType() != WorldType.CLIENT || Actor.this == getWorld().getPlayer())
-					setLocation(getWorld().getSpawnPoint());
-			}
-		}
-
-		@Override
-		public void physicsTick(PhysicsSpace arg0, float arg1) {
-
-		}
-	};
-
 	@Override
 	protected void makePhysics(PhysicsSpace physicsSpace) {
 		// intialise the real physics control
@@ -183,14 +167,17 @@ public abstract class Actor extends AbstractEntity {
 
 		physicsSpace.add(ghost);
 		physicsSpace.add(physics);
+	}
 
-		physicsSpace.addTickListener(physicsTickListener);
+	@Override
+	protected void reattachPhysics(PhysicsSpace physicsSpace) {
+		physicsSpace.add(ghost);
+		physicsSpace.add(physics);
 	}
 
 	@Override
 	protected void destroyPhysics (PhysicsSpace physicsSpace) {
 		removeFromPhysicsSpace();
-		physicsSpace.removeTickListener(physicsTickListener);
 		geometry.removeControl(physics);
 		physics = null;
 	}
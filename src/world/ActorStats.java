@@ -1,8 +1,10 @@
 package world;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -20,19 +22,56 @@ import com.jme3.export.Savable;
  * ActorStats represents all (static and dynamic) statistics of an Actor, and provides methods to
  * easily modify them. The stats stored by ActorStats are defined in the Stats enum.
  *
+ * Stats are stored in a float array indexed by Stat ordinal, so reading and changing them never
+ * allocates. Observers aren't told about each change as it happens; instead, changed stats are
+ * marked dirty, and notifyObservers (called by World once per tick) tells each observer the
+ * latest value of every stat that changed since the last notification.
+ *
+ * Things that change a stat for as long as they last (equipment, temporary effects, torches,
+ * the time of day) add modifiers rather than changing the stat directly. Each modifier belongs
+ * to a source object, adds to and/or multiplies one stat, and is replaced or removed by its
+ * source; a stat's value is only recalculated when its modifiers or its unmodified value
+ * change. Modifiers aren't saved, as their sources add them again when they are loaded.
+ *
+ * Saves store each stat's unmodified value. Older saves only stored its value with modifiers
+ * (under the "cur" keys), so for stats loaded from one, the modifiers added back by their sources
+ * are taken to be included already, until the first notifyObservers after loading.
+ *
  * @author Tony 300242775
  */
 public class ActorStats implements Savable {
+	private static final Stat[] STATS = Stat.values();
+
 	/**
 	 * The core data storage of an ActorStats. This represents the current
-	 * state of this Actor's stats.
+	 * state of this Actor's stats, indexed by Stat ordinal.
 	 */
-	protected Map<Stat, Float> stats = new HashMap<Stat, Float> ();
+	protected float[] stats = new float[STATS.length];
+
+	private float[] baseline = new float[STATS.length];
+	private float[] unmodified = new float[STATS.length];
+
+	private static class Modifier {
+		final Object source;
+		final int stat;
+		float add, mult;
+
+		Modifier(Object source, int stat) {
+			this.source = source;
+			this.stat = stat;
+		}
+	}
 
-	private Map<Stat, Float> baseline;
+	private List<Modifier> modifiers = new ArrayList<Modifier>();
+	private float[] added = new float[STATS.length];
+	private float[] multiplied = new float[STATS.length];
+	{ Arrays.fill(multiplied, 1); }
+
+	private long dirty; // one bit per Stat ordinal
+	private boolean loadedModified; // read from an old save, whose values include their modifiers
 	private Set<ActorStatObserver> statObservers = new HashSet<ActorStatObserver>();
 
-	public ActorStats() {baseline = new HashMap<Stat, Float>();}
+	public ActorStats() {}
 
 	/**
 	 * Throws a NullPointerException is baseline is null.
@@ -41,7 +80,8 @@ public class ActorStats implements Savable {
 	 */
 	public ActorStats (Map<Stat, Float> baseline) {
 		if(baseline == null) throw new NullPointerException("baseline is null");
-		this.baseline = baseline;
+		for (Entry<Stat, Float> e : baseline.entrySet())
+			this.baseline[e.getKey().ordinal()] = e.getValue();
 		initialise();
 	}
 
@@ -55,10 +95,8 @@ public class ActorStats implements Savable {
 	public ActorStats(Stat[] keys, float[] values) {
 		if (keys.length != values.length) throw new IllegalArgumentException ("input arrays must be of the same size");
 
-		baseline = new HashMap<Stat, Float> ();
-
 		for (int i=0; i < keys.length; i++) {
-			baseline.put(keys[i], values[i]);
+			baseline[keys[i].ordinal()] = values[i];
 		}
 		initialise();
 	}
@@ -70,8 +108,7 @@ public class ActorStats implements Savable {
 	 * @param amount the amount to increase by
 	 */
 	public void modStat (Stat stat, float amount) {
-		float toChange = stats.get(stat) + amount;
-		setStat(stat, toChange);
+		setStat(stat, stats[stat.ordinal()] + amount);
 	}
 
 	/**
@@ -81,33 +118,50 @@ public class ActorStats implements Savable {
 	 * @param multiplier the amount to multiply by
 	 */
 	public void multStat (Stat stat, float multiplier) {
-		setStat(stat, getStat(stat) * multiplier);
+		setStat(stat, stats[stat.ordinal()] * multiplier);
 	}
 	
 	/**
-	 * Resets the passed Stat to the baseline value given at
-	 * contstruction.
+	 * Resets the unmodified value of the passed Stat to the baseline value given at
+	 * contstruction. Modifiers are still applied afterwards.
 	 * @param stat the Stat to reset
 	 */
 	public void resetStat (Stat stat) {
-		Float value = baseline.get(stat);
-		if(value == null) value = 0f;
-		stats.put(stat, value);
+		int i = stat.ordinal();
+		unmodified[i] = baseline[i];
+		recalculate(i);
 	}
 
 	/**
-	 * Sets the value of the passed Stat to the passed amount.
+	 * Sets the value of the passed Stat to the passed amount, by changing its
+	 * unmodified value so that it has that value with its current modifiers.
 	 *
 	 * @param stat the Stat to set
 	 * @param amount the value to set to
 	 */
 	public void setStat (Stat stat, float amount) {
-		stats.put(stat, amount);
-		for (ActorStatObserver obs : statObservers){
-			obs.update(stat, amount);
+		int i = stat.ordinal();
+		float mult = multiplied[i];
+		if (mult == 0) {
+			// every value is multiplied to 0, so just remember it for when the modifier goes
+			unmodified[i] = amount - added[i];
+			return;
+		}
+		unmodified[i] = mult == 1 ? amount - added[i] : amount / mult - added[i];
+		store(i, amount);
+	}
+
+	private void store(int i, float amount) {
+		if (stats[i] != amount) {
+			stats[i] = amount;
+			dirty |= 1L << i;
 		}
 	}
 
+	private void recalculate(int i) {
+		store(i, (unmodified[i] + added[i]) * multiplied[i]);
+	}
+
 	/**
 	 * Returns the value of the passed Stat.
 	 *
@@ -115,7 +169,23 @@ public class ActorStats implements Savable {
 	 * @return the value of the stat
 	 */
 	public float getStat (Stat stat) {
-		return stats.get(stat);
+		return stats[stat.ordinal()];
+	}
+
+	/**
+	 * @param stat the Stat to get the value of
+	 * @return the value of the passed Stat before modifiers are applied
+	 */
+	public float getUnmodifiedStat (Stat stat) {
+		return unmodified[stat.ordinal()];
+	}
+
+	/**
+	 * @param stat the Stat to get the baseline value of
+	 * @return the value the passed Stat is reset to by resetStat
+	 */
+	public float getBaseline (Stat stat) {
+		return baseline[stat.ordinal()];
 	}
 
 
@@ -124,55 +194,173 @@ public class ActorStats implements Savable {
 	 * at construction.
 	 */
 	public void initialise() {
-		for (Stat stat : Stat.values()) {
-			Float i = baseline.get(stat);
-			if (i == null){
-				setStat(stat,0);
-			} else {
-				setStat(stat,i);
-			}
+		for (int i = 0; i < STATS.length; i++) {
+			unmodified[i] = baseline[i];
+			recalculate(i);
+		}
+	}
+
+	/**
+	 * Removes every modifier and resets every stat to its baseline value, as if these stats
+	 * had just been made. Used when a pooled mob is reused.
+	 */
+	public void reset() {
+		modifiers.clear();
+		for (int i = 0; i < STATS.length; i++) {
+			added[i] = 0;
+			multiplied[i] = 1;
+			unmodified[i] = baseline[i];
+			recalculate(i);
 		}
 	}
 
 	/**
-	 * Equips the passed item and recalculates stats based on the
-	 * properties of that item.
+	 * Equips the passed item, adding its stats as modifiers
+	 * belonging to the item.
 	 * @param item the Item to equip
 	 */
 	public void equip(Item item){
 		for (Entry<Stat, Float> entry : item.getItemStats()){
-			modStat(entry.getKey(),entry.getValue());
+			addModifier(item, entry.getKey(), entry.getValue(), 1);
 		}
 	}
 	
 	/**
-	 * Unequips the passed item and recalculates stats based on the
-	 * properties of that item.
+	 * Unequips the passed item, removing the modifiers it added.
 	 * @param item the Item to equip
 	 */
 	public void unequip(Item item){
-		for (Entry<Stat, Float> entry : item.getItemStats()){
-			modStat(entry.getKey(),-entry.getValue());
+		removeModifiers(item);
+	}
+
+	// MODIFIERS
+
+	/**
+	 * Adds a modifier to the passed Stat, replacing any modifier the source already has on it.
+	 * The stat's value becomes (unmodified value + the sum of its modifiers' amounts) multiplied
+	 * by the product of its modifiers' multipliers.
+	 *
+	 * @param source the object the modifier belongs to, which is used to remove it
+	 * @param stat the Stat to modify
+	 * @param amount the amount to add to the stat
+	 * @param multiplier the amount to multiply the stat by
+	 */
+	public void addModifier(Object source, Stat stat, float amount, float multiplier) {
+		if (source == null) throw new NullPointerException("source is null");
+		int i = stat.ordinal();
+		Modifier m = null;
+		for (int k = 0; k < modifiers.size(); k++) {
+			Modifier o = modifiers.get(k);
+			if (o.source == source && o.stat == i) {
+				m = o;
+				break;
+			}
 		}
-		
+		if (m == null) {
+			m = new Modifier(source, i);
+			modifiers.add(m);
+		} else if (m.add == amount && m.mult == multiplier) {
+			return;
+		}
+		m.add = amount;
+		m.mult = multiplier;
+		sumModifiers(i);
+	}
+
+	/**
+	 * Adds a modifier for each stat in the passed StatModification, replacing any the source
+	 * already has on those stats.
+	 *
+	 * @param source the object the modifiers belong to
+	 * @param modification the stats to modify, and the amount to modify them by
+	 * @param multiply true to multiply the stats by the amounts, false to add the amounts
+	 */
+	public void addModifiers(Object source, StatModification modification, boolean multiply) {
+		for (Entry<Stat, Float> entry : modification) {
+			if (multiply)
+				addModifier(source, entry.getKey(), 0, entry.getValue());
+			else
+				addModifier(source, entry.getKey(), entry.getValue(), 1);
+		}
+	}
+
+	/**
+	 * Removes all the modifiers belonging to the passed source.
+	 *
+	 * @param source the object the modifiers belong to
+	 * @return true if the source had any modifiers
+	 */
+	public boolean removeModifiers(Object source) {
+		long changed = 0;
+		for (int k = modifiers.size() - 1; k >= 0; k--) {
+			Modifier m = modifiers.get(k);
+			if (m.source == source) {
+				modifiers.remove(k);
+				changed |= 1L << m.stat;
+			}
+		}
+		if (changed == 0)
+			return false;
+		for (int i = 0; i < STATS.length; i++) {
+			if ((changed & (1L << i)) != 0)
+				sumModifiers(i);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the passed source has any modifiers on these stats
+	 */
+	public boolean hasModifiers(Object source) {
+		for (int k = 0; k < modifiers.size(); k++) {
+			if (modifiers.get(k).source == source)
+				return true;
+		}
+		return false;
+	}
+
+	private void sumModifiers(int i) {
+		float add = 0, mult = 1;
+		for (int k = 0; k < modifiers.size(); k++) {
+			Modifier m = modifiers.get(k);
+			if (m.stat == i) {
+				add += m.add;
+				mult *= m.mult;
+			}
+		}
+		added[i] = add;
+		multiplied[i] = mult;
+		if (loadedModified)
+			setStat(STATS[i], stats[i]);
+		else
+			recalculate(i);
 	}
 	
 	@Override
 	public void read(JmeImporter im) throws IOException {
 		InputCapsule c = im.getCapsule(this);
-		for(Stat s : Stat.values()) {
-			baseline.put(s, c.readFloat("base"+s.name(), 0));
-			stats.put(s, c.readFloat("cur"+s.name(), 0));
+		loadedModified = false;
+		for(Stat s : STATS) {
+			baseline[s.ordinal()] = c.readFloat("base"+s.name(), 0);
+			float value = c.readFloat("unmod"+s.name(), Float.NaN);
+			if (Float.isNaN(value)) {
+				// an old save, which only has the value with modifiers
+				value = c.readFloat("cur"+s.name(), 0);
+				loadedModified = true;
+			}
+			unmodified[s.ordinal()] = stats[s.ordinal()] = value;
 		}
+		dirty = (1L << STATS.length) - 1;
 	}
 
 	@Override
 	public void write(JmeExporter ex) throws IOException {
 		OutputCapsule c = ex.getCapsule(this);
-		for(Map.Entry<Stat, Float> e : baseline.entrySet())
-			c.write(e.getValue(), "base"+e.getKey().name(), 0);
-		for(Map.Entry<Stat, Float> e : stats.entrySet())
-			c.write(e.getValue(), "cur"+e.getKey().name(), 0);
+		for(Stat s : STATS) {
+			c.write(baseline[s.ordinal()], "base"+s.name(), 0);
+			// no real default, so the key is always written and read can tell old saves apart
+			c.write(unmodified[s.ordinal()], "unmod"+s.name(), Float.NaN);
+		}
 	}
 	
 
@@ -194,4 +382,25 @@ public class ActorStats implements Savable {
 	public void removeObserver(ActorStatObserver psm) {
 		statObservers.remove(psm);
 	}
+
+	/**
+	 * Tells every observer the current value of each stat that has changed since the
+	 * last call, once per stat no matter how many times it changed.
+	 */
+	public void notifyObservers() {
+		loadedModified = false;
+		if (dirty == 0)
+			return;
+		long changed = dirty;
+		dirty = 0;
+		if (statObservers.isEmpty())
+			return;
+
+		for (int i = 0; i < STATS.length; i++) {
+			if ((changed & (1L << i)) == 0)
+				continue;
+			for (ActorStatObserver obs : statObservers)
+				obs.update(STATS[i], stats[i]);
+		}
+	}
 }
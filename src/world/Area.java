@@ -0,0 +1,154 @@
+package world;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+/**
+ * An Area is a volume of the game world that an area effect applies to. AreaEffects finds the
+ * actors in an Area by querying its spatial index with the Area's bounding sphere, and then
+ * testing each actor's position with contains.
+ *
+ * Areas can be moved with setCentre, so an area that follows an entity doesn't need to be
+ * re-created every tick.
+ */
+public abstract class Area {
+	protected Vector3f centre;
+
+	private Area(Vector3f centre) {
+		if (centre == null) throw new NullPointerException("centre is null");
+		this.centre = centre.clone();
+	}
+
+	/**
+	 * @param point the position to test
+	 * @param padding the distance the position may be outside this area by, such as the radius of an actor
+	 * @return true if the position is in this area, or within padding of it
+	 */
+	public abstract boolean contains(Vector3f point, float padding);
+
+	/**
+	 * @return the radius around getCentre that contains all of this area
+	 */
+	public abstract float getBoundingRadius();
+
+	/**
+	 * @return the centre of this area; for a cone, this is its tip
+	 */
+	public Vector3f getCentre() {
+		return centre;
+	}
+
+	/**
+	 * Moves this area so it is centred on the passed position.
+	 */
+	public void setCentre(Vector3f centre) {
+		this.centre.set(centre);
+	}
+
+	// SHAPES
+
+	/**
+	 * @param centre the centre of the sphere
+	 * @param radius the radius of the sphere
+	 * @return a spherical Area
+	 */
+	public static Area sphere(Vector3f centre, float radius) {
+		return new Sphere(centre, radius);
+	}
+
+	/**
+	 * @param centre the centre of the box
+	 * @param halfExtents half the size of the box along each axis
+	 * @return an axis-aligned box-shaped Area
+	 */
+	public static Area box(Vector3f centre, Vector3f halfExtents) {
+		return new Box(centre, halfExtents);
+	}
+
+	/**
+	 * @param tip the point the cone spreads out from
+	 * @param direction the direction the cone points in
+	 * @param length the distance from the tip to the base of the cone
+	 * @param halfAngle the angle between the direction and the side of the cone, in radians, less than pi/2
+	 * @return a cone-shaped Area
+	 */
+	public static Area cone(Vector3f tip, Vector3f direction, float length, float halfAngle) {
+		return new Cone(tip, direction, length, halfAngle);
+	}
+
+	private static class Sphere extends Area {
+		private final float radius;
+
+		Sphere(Vector3f centre, float radius) {
+			super(centre);
+			if (radius < 0) throw new IllegalArgumentException("radius cannot be negative");
+			this.radius = radius;
+		}
+
+		@Override
+		public boolean contains(Vector3f point, float padding) {
+			float r = radius + padding;
+			return point.distanceSquared(centre) <= r * r;
+		}
+
+		@Override
+		public float getBoundingRadius() {
+			return radius;
+		}
+	}
+
+	private static class Box extends Area {
+		private final Vector3f halfExtents;
+
+		Box(Vector3f centre, Vector3f halfExtents) {
+			super(centre);
+			if (halfExtents.x < 0 || halfExtents.y < 0 || halfExtents.z < 0) throw new IllegalArgumentException("extents cannot be negative");
+			this.halfExtents = halfExtents.clone();
+		}
+
+		@Override
+		public boolean contains(Vector3f point, float padding) {
+			return Math.abs(point.x - centre.x) <= halfExtents.x + padding
+				&& Math.abs(point.y - centre.y) <= halfExtents.y + padding
+				&& Math.abs(point.z - centre.z) <= halfExtents.z + padding;
+		}
+
+		@Override
+		public float getBoundingRadius() {
+			return halfExtents.length();
+		}
+	}
+
+	private static class Cone extends Area {
+		private final Vector3f direction;
+		private final float length;
+		private final float tan;
+
+		Cone(Vector3f tip, Vector3f direction, float length, float halfAngle) {
+			super(tip);
+			if (length < 0) throw new IllegalArgumentException("length cannot be negative");
+			if (!(halfAngle >= 0 && halfAngle < FastMath.HALF_PI)) throw new IllegalArgumentException("angle must be from 0 to pi/2");
+			this.direction = direction.normalize();
+			this.length = length;
+			this.tan = FastMath.tan(halfAngle);
+		}
+
+		@Override
+		public boolean contains(Vector3f point, float padding) {
+			float dx = point.x - centre.x, dy = point.y - centre.y, dz = point.z - centre.z;
+			float along = dx * direction.x + dy * direction.y + dz * direction.z;
+			if (along < -padding || along > length + padding)
+				return false;
+
+			float perpSq = dx * dx + dy * dy + dz * dz - along * along;
+			float allowed = Math.max(0, Math.min(along, length)) * tan + padding;
+			return perpSq <= allowed * allowed;
+		}
+
+		@Override
+		public float getBoundingRadius() {
+			// the furthest points from the tip are on the rim of the base
+			return length * FastMath.sqrt(1 + tan * tan);
+		}
+	}
+}
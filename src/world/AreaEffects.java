@@ -0,0 +1,219 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * AreaEffects finds the actors in an Area, for effects that apply to everything in a radius,
+ * box or cone. It queries the World's SpatialGrid of entities, which World updates once per
+ * tick, so queries only look at entities near the area rather than at every entity or at the
+ * scenegraph's geometry.
+ *
+ * There are two kinds of area effect:
+ *  - bursts, which apply once to the actors in an area at that moment, use query.
+ *  - continuous areas, like a torch's slow, are added with add, and their Listener is told
+ *    whenever an actor enters or leaves the area. World checks them once per tick, and an area's
+ *    actors are told they have left when it is removed or they are removed from the World.
+ *
+ * An actor is in an area if its position is within its radius (Actor.getRadius) of the area.
+ */
+public class AreaEffects {
+	/**
+	 * A Listener is told when actors enter and leave a continuous area.
+	 */
+	public interface Listener {
+		/**
+		 * Called when an actor comes into the area, or is in it when it is added.
+		 */
+		public void onEnter(Actor actor);
+
+		/**
+		 * Called when an actor leaves the area, the area is removed, or the actor is removed from the World.
+		 */
+		public void onExit(Actor actor);
+	}
+
+	/**
+	 * A continuous area, returned by add so it can be moved and removed.
+	 */
+	public static final class Region {
+		private final Area area;
+		private final SpatialGrid.Filter<Entity> filter;
+		private final Listener listener;
+		private Set<Actor> inside = newActorSet();
+		private Set<Actor> found = newActorSet();
+
+		private Region(Area area, Class<? extends Actor> clazz, Listener listener) {
+			this.area = area;
+			this.filter = SpatialGrid.<Entity>classFilter(clazz, null);
+			this.listener = listener;
+		}
+
+		/**
+		 * @return the area, which can be moved with setCentre
+		 */
+		public Area getArea() {
+			return area;
+		}
+
+		/**
+		 * @return true if the passed actor was in this area when it was last checked
+		 */
+		public boolean isInside(Actor actor) {
+			return inside.contains(actor);
+		}
+	}
+
+	private final SpatialGrid<Entity> entities;
+	private final SlotMap<Region> regions = new SlotMap<Region>();
+	private final List<Entity> candidates = new ArrayList<Entity>();
+	private final List<Actor> changed = new ArrayList<Actor>();
+	private float maxActorRadius;
+
+	/**
+	 * @param entities the World's index of entity positions
+	 */
+	public AreaEffects(SpatialGrid<Entity> entities) {
+		this.entities = entities;
+	}
+
+	// BURSTS
+
+	/**
+	 * Finds the actors of the passed class in the passed area.
+	 *
+	 * @param area the area to search
+	 * @param clazz the class of actor to find
+	 * @param out the list to add found actors to
+	 * @return out
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Actor> List<T> query(Area area, Class<T> clazz, List<T> out) {
+		List<Entity> found = entities.inRadius(area.getCentre(), area.getBoundingRadius() + maxActorRadius,
+				SpatialGrid.<Entity>classFilter(clazz, null), new ArrayList<Entity>());
+		for (int i = 0; i < found.size(); i++) {
+			Actor a = (Actor) found.get(i);
+			if (area.contains(a.getLocation(), a.getRadius()))
+				out.add((T) a);
+		}
+		return out;
+	}
+
+	/**
+	 * Finds the actors of the passed class in the passed area.
+	 */
+	public <T extends Actor> List<T> query(Area area, Class<T> clazz) {
+		return query(area, clazz, new ArrayList<T>());
+	}
+
+	// CONTINUOUS AREAS
+
+	/**
+	 * Adds a continuous area. The listener is first told about the actors in it on the next tick.
+	 *
+	 * @param area the area
+	 * @param clazz the class of actor the area affects
+	 * @param listener the Listener to tell when actors enter and leave the area
+	 * @return the Region, to pass to remove
+	 */
+	public Region add(Area area, Class<? extends Actor> clazz, Listener listener) {
+		if (listener == null) throw new NullPointerException("listener is null");
+		Region r = new Region(area, clazz, listener);
+		regions.add(r);
+		return r;
+	}
+
+	/**
+	 * Removes a continuous area, telling its listener that every actor in it has left.
+	 *
+	 * @return true if the area had been added
+	 */
+	public boolean remove(Region region) {
+		if (region == null || !regions.remove(region))
+			return false;
+		List<Actor> left = new ArrayList<Actor>(region.inside);
+		region.inside.clear();
+		for (int i = 0; i < left.size(); i++)
+			region.listener.onExit(left.get(i));
+		return true;
+	}
+
+	/**
+	 * @return the number of continuous areas
+	 */
+	public int size() {
+		return regions.size();
+	}
+
+	// ACTORS
+
+	/**
+	 * Notes the radius of an actor added to the World, so queries reach far enough to find it.
+	 * Called by World.
+	 */
+	void add(Actor actor) {
+		float r = actor.getRadius();
+		if (r > maxActorRadius)
+			maxActorRadius = r;
+	}
+
+	/**
+	 * Removes an actor from every continuous area it is in. Called by World.
+	 */
+	void remove(Actor actor) {
+		for (Region r : regions) {
+			if (r.inside.remove(actor))
+				r.listener.onExit(actor);
+		}
+	}
+
+	/**
+	 * Checks every continuous area for actors that have entered or left it since the last tick.
+	 * World calls this once per tick, after updating its index.
+	 */
+	void update() {
+		for (Region r : regions) {
+			candidates.clear();
+			entities.inRadius(r.area.getCentre(), r.area.getBoundingRadius() + maxActorRadius,
+					r.filter, candidates);
+			for (int i = 0; i < candidates.size(); i++) {
+				Actor a = (Actor) candidates.get(i);
+				if (r.area.contains(a.getLocation(), a.getRadius()))
+					r.found.add(a);
+			}
+
+			// swap before telling the listener, so it sees the area as it is now
+			Set<Actor> before = r.inside;
+			r.inside = r.found;
+			r.found = before;
+
+			changed.clear();
+			for (Actor a : before) {
+				if (!r.inside.contains(a))
+					changed.add(a);
+			}
+			for (int i = 0; i < changed.size(); i++)
+				r.listener.onExit(changed.get(i));
+
+			changed.clear();
+			for (Actor a : r.inside) {
+				if (!before.contains(a))
+					changed.add(a);
+			}
+			before.clear();
+			for (int i = 0; i < changed.size(); i++) {
+				// an earlier listener call may have removed the area or the actor
+				if (r.inside.contains(changed.get(i)))
+					r.listener.onEnter(changed.get(i));
+			}
+		}
+		regions.compact();
+	}
+
+	private static Set<Actor> newActorSet() {
+		return Collections.newSetFromMap(new IdentityHashMap<Actor, Boolean>());
+	}
+}
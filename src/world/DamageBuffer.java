@@ -0,0 +1,73 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * DamageBuffer adds up the damage dealt to each entity during a tick, so that World can apply
+ * it (and tell observers about it) once per target rather than once per hit.
+ *
+ * Targets and amounts are kept in parallel primitive arrays, in the order each target was first
+ * hit. Adding a hit searches the targets from the most recently added, since repeated hits in a
+ * tick (like shotgun pellets) usually come together; there are rarely more than a few targets
+ * in a tick.
+ */
+public class DamageBuffer {
+	private int[] targets = new int[16];
+	private float[] amounts = new float[16];
+	private int size;
+
+	/**
+	 * Adds damage to the passed target's total for this tick.
+	 *
+	 * @param target the entity ID of the target
+	 * @param amount the damage to add
+	 */
+	public void add(int target, float amount) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (targets[i] == target) {
+				amounts[i] += amount;
+				return;
+			}
+		}
+
+		if (size == targets.length) {
+			targets = Arrays.copyOf(targets, size * 2);
+			amounts = Arrays.copyOf(amounts, size * 2);
+		}
+		targets[size] = target;
+		amounts[size] = amount;
+		size++;
+	}
+
+	/**
+	 * @return the number of targets damaged since the last clear
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index from 0 to size()-1
+	 * @return the entity ID of the target at the passed index
+	 */
+	public int getTarget(int index) {
+		if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+		return targets[index];
+	}
+
+	/**
+	 * @param index from 0 to size()-1
+	 * @return the total damage dealt to the target at the passed index
+	 */
+	public float getAmount(int index) {
+		if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+		return amounts[index];
+	}
+
+	/**
+	 * Forgets all targets, keeping the arrays for the next tick.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,153 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * EntityIDAllocator hands out entity IDs for a World. IDs of removed entities are reused,
+ * but each ID carries a generation number that is incremented every time its slot is
+ * reused, so an ID held onto after its entity was removed (eg. in a late network packet)
+ * will never match the entity that replaced it.
+ *
+ * An ID is (generation &lt;&lt; INDEX_BITS) | index, which is always non-negative.
+ */
+public class EntityIDAllocator {
+	/**
+	 * The number of low bits of an ID that store the slot index.
+	 */
+	public static final int INDEX_BITS = 20;
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+	private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+	private int[] generations = new int[64];
+	private boolean[] used = new boolean[64];
+	private int nextIndex;
+
+	// FIFO queue of free indices, so a slot is reused as late as possible
+	private int[] free = new int[64];
+	private int freeHead, freeSize;
+
+	/**
+	 * @return a new ID that isn't in use
+	 * @throws IllegalStateException if every ID is in use
+	 */
+	public int allocate() {
+		int index;
+		do {
+			if (freeSize > 0) {
+				index = free[freeHead];
+				freeHead = (freeHead + 1) % free.length;
+				freeSize--;
+			} else {
+				if (nextIndex > INDEX_MASK)
+					throw new IllegalStateException("out of entity IDs");
+				index = nextIndex++;
+				ensureCapacity(index);
+			}
+		} while (used[index]); // the queue can contain indices that have since been reserved
+
+		used[index] = true;
+		return makeID(index, generations[index]);
+	}
+
+	/**
+	 * Marks a specific ID as in use, eg. when it was allocated by a server or loaded from a save.
+	 *
+	 * @param id the ID to reserve
+	 * @throws IllegalStateException if the ID's slot is already in use
+	 */
+	public void reserve(int id) {
+		if (id < 0) throw new IllegalArgumentException("id cannot be negative");
+		int index = getIndex(id);
+		ensureCapacity(index);
+		if (used[index])
+			throw new IllegalStateException("entity ID already in use");
+
+		used[index] = true;
+		generations[index] = getGeneration(id);
+
+		// any indices skipped over are free
+		while (nextIndex < index)
+			enqueueFree(nextIndex++);
+		if (nextIndex == index)
+			nextIndex++;
+	}
+
+	/**
+	 * Frees the passed ID, so its slot can be reused with the next generation.
+	 * Does nothing if the ID isn't currently in use.
+	 *
+	 * @param id the ID to free
+	 */
+	public void release(int id) {
+		if (!isInUse(id))
+			return;
+		int index = getIndex(id);
+		used[index] = false;
+		generations[index] = (generations[index] + 1) & GENERATION_MASK;
+		enqueueFree(index);
+	}
+
+	/**
+	 * @param id the ID to check
+	 * @return true if the passed ID, including its generation, is currently in use
+	 */
+	public boolean isInUse(int id) {
+		if (id < 0)
+			return false;
+		int index = getIndex(id);
+		return index < nextIndex && used[index] && generations[index] == getGeneration(id);
+	}
+
+	/**
+	 * @param id the ID to check
+	 * @return true if the passed ID's slot is in use by any generation, so the ID cannot be reserved
+	 */
+	public boolean isSlotInUse(int id) {
+		if (id < 0)
+			return false;
+		int index = getIndex(id);
+		return index < nextIndex && used[index];
+	}
+
+	/**
+	 * @param id an entity ID
+	 * @return the slot index part of the ID
+	 */
+	public static int getIndex(int id) {
+		return id & INDEX_MASK;
+	}
+
+	/**
+	 * @param id an entity ID
+	 * @return the generation part of the ID
+	 */
+	public static int getGeneration(int id) {
+		return (id >>> INDEX_BITS) & GENERATION_MASK;
+	}
+
+	private static int makeID(int index, int generation) {
+		return (generation << INDEX_BITS) | index;
+	}
+
+	private void enqueueFree(int index) {
+		if (freeSize == free.length) {
+			int[] bigger = new int[free.length * 2];
+			for (int i = 0; i < freeSize; i++)
+				bigger[i] = free[(freeHead + i) % free.length];
+			free = bigger;
+			freeHead = 0;
+		}
+		free[(freeHead + freeSize) % free.length] = index;
+		freeSize++;
+	}
+
+	private void ensureCapacity(int index) {
+		if (index < used.length)
+			return;
+		int capacity = used.length;
+		while (capacity <= index)
+			capacity *= 2;
+		used = Arrays.copyOf(used, capacity);
+		generations = Arrays.copyOf(generations, capacity);
+	}
+}
@@ -0,0 +1,78 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EntityRegistry partitions the entities of a World by type. It maintains an EntityView
+ * for each class or interface that has been asked for, and updates them incrementally as
+ * entities are added and removed.
+ *
+ * Views are created on first request, which costs a single scan of the world. After that
+ * they cost only a few instanceof checks per added or removed entity.
+ */
+class EntityRegistry {
+	private final Collection<Entity> entities;
+	private final Map<Class<?>, EntityView<?>> views = new HashMap<Class<?>, EntityView<?>>();
+
+	// the views each concrete entity class belongs to, so adding doesn't test every view
+	private final Map<Class<?>, List<EntityView<?>>> viewsByClass = new HashMap<Class<?>, List<EntityView<?>>>();
+
+	/**
+	 * @param entities all the entities in the World, used to populate new views
+	 */
+	EntityRegistry(Collection<Entity> entities) {
+		this.entities = entities;
+	}
+
+	/**
+	 * Returns the live view of all entities that are instances of the passed class,
+	 * creating it if necessary.
+	 *
+	 * @param clazz the class or interface to get the view of
+	 * @return the view
+	 */
+	@SuppressWarnings("unchecked")
+	<T> EntityView<T> getView(Class<T> clazz) {
+		EntityView<T> view = (EntityView<T>) views.get(clazz);
+		if (view == null) {
+			view = new EntityView<T>(clazz);
+			for (Entity e : entities)
+				view.track(e);
+			views.put(clazz, view);
+			viewsByClass.clear();
+		}
+		return view;
+	}
+
+	/**
+	 * Adds the passed Entity to every view it belongs in.
+	 */
+	void add(Entity e) {
+		for (EntityView<?> view : viewsFor(e))
+			view.track(e);
+	}
+
+	/**
+	 * Removes the passed Entity from every view it is in.
+	 */
+	void remove(Entity e) {
+		for (EntityView<?> view : viewsFor(e))
+			view.untrack(e);
+	}
+
+	private List<EntityView<?>> viewsFor(Entity e) {
+		List<EntityView<?>> rv = viewsByClass.get(e.getClass());
+		if (rv == null) {
+			rv = new ArrayList<EntityView<?>>();
+			for (EntityView<?> view : views.values())
+				if (view.getType().isInstance(e))
+					rv.add(view);
+			viewsByClass.put(e.getClass(), rv);
+		}
+		return rv;
+	}
+}
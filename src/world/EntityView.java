@@ -0,0 +1,75 @@
+package world;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An EntityView is a live, read-only list of every Entity in a World that is an instance
+ * of a particular class or interface. It is kept up to date by the World's EntityRegistry
+ * as entities are added and removed, so reading it never scans the whole world.
+ *
+ * Iterating with get(int) and size() does not allocate. Order is not meaningful, and
+ * changes when entities are removed, so don't add or remove entities while iterating.
+ *
+ * @param <T> the type of Entity in this view
+ */
+public class EntityView<T> extends AbstractList<T> implements RandomAccess {
+	private final Class<T> type;
+	private final ArrayList<T> members = new ArrayList<T>();
+	private final Map<Object, Integer> indices = new IdentityHashMap<Object, Integer>();
+
+	EntityView(Class<T> type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return the class or interface that all members of this view are instances of
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	public T get(int index) {
+		return members.get(index);
+	}
+
+	@Override
+	public int size() {
+		return members.size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indices.containsKey(o);
+	}
+
+	/**
+	 * Adds the passed Entity to this view, if it is of the right type.
+	 */
+	void track(Entity e) {
+		if (!type.isInstance(e) || indices.containsKey(e))
+			return;
+		indices.put(e, members.size());
+		members.add(type.cast(e));
+	}
+
+	/**
+	 * Removes the passed Entity from this view, if it is in it.
+	 */
+	void untrack(Entity e) {
+		Integer index = indices.remove(e);
+		if (index == null)
+			return;
+
+		// swap the last member into the removed one's place so removal is O(1)
+		T last = members.remove(members.size() - 1);
+		if (last != e) {
+			members.set(index, last);
+			indices.put(last, index);
+		}
+	}
+}
@@ -12,26 +12,34 @@ import world.ai.AI;
  * This class allocates ticks to expensive operations, to spread out lag spikes. 
  * 
  * It maintains both a queue of AIs that are waiting, and a set of waiting AIs
- * (so that no AI gets more than one queue slot)
+ * (so that no AI gets more than one queue slot). Each tick, up to OPS_PER_TICK AIs may run,
+ * starting with the ones at the front of the queue.
+ * 
+ * Path searches are done by PathRequestService on other threads, so an AI's operation is
+ * mostly line of sight checks, and several can run each tick.
+ * 
+ * canRun may be called from several threads at once, when AIs think in parallel.
  * 
  * @author Alex Campbell 300252131
  */
 public class ExpensiveOperationManager {
+	/**
+	 * The number of expensive operations that may run each tick.
+	 */
+	public static int OPS_PER_TICK = 4;
 	
 	private Set<AI> queuedSet = new HashSet<AI>();
 	private Queue<AI> queue = new LinkedList<AI>();
+	// AIs taken from the front of the queue, that may run this tick
+	private Set<AI> scheduled = new HashSet<AI>();
 	
-	private int nLeftThisTick = 1;
-	private boolean hasDequeuedThisTick = false;
+	private int nLeftThisTick = OPS_PER_TICK;
 	
-	public boolean canRun(AI ai) {
-		if(queue.peek() == ai) {
-			queuedSet.remove(ai);
+	public synchronized boolean canRun(AI ai) {
+		if(scheduled.remove(ai))
 			return true;
-		}
-		if(queue.peek() == null && nLeftThisTick > 0) {
+		if(queue.isEmpty() && nLeftThisTick > 0) {
 			nLeftThisTick--;
-			hasDequeuedThisTick = true;
 			return true;
 		}
 		if(queuedSet.add(ai))
@@ -39,12 +47,15 @@ public class ExpensiveOperationManager {
 		return false;
 	}
 
-	public void update(float tpf) {
-		if(!hasDequeuedThisTick) {
-			queue.poll(); // AI that was scheduled didn't show up that tick
+	public synchronized void update(float tpf) {
+		scheduled.clear(); // AIs that were scheduled didn't show up that tick
+		nLeftThisTick = OPS_PER_TICK;
+		while(nLeftThisTick > 0 && !queue.isEmpty()) {
+			AI ai = queue.poll();
+			queuedSet.remove(ai);
+			scheduled.add(ai);
+			nLeftThisTick--;
 		}
-		nLeftThisTick = 1;
-		hasDequeuedThisTick = false;
 	}
 
 }
@@ -0,0 +1,98 @@
+package world;
+
+/**
+ * A FlowField holds, for every node of a PathGraph, the distance to one target node and the
+ * neighbour to go to next (the "downhill" neighbour), so that any number of mobs heading for
+ * the same node can follow it without searching.
+ *
+ * A field takes 6 bytes per node of the graph, and doesn't change after it is made, so it can
+ * be read from several threads at once. route builds a new linked list each time by walking the
+ * next hops, rather than caching one per starting node, which could grow to a list per node for
+ * each of the up to PathTable.MAX_NODES fields in a PathTable.
+ */
+public class FlowField {
+	private final PathGraph graph;
+	private final int target;
+	private final float[] distance;
+	private final short[] next;
+
+	/**
+	 * Makes the field leading to the passed node.
+	 *
+	 * @param graph the graph to search
+	 * @param target the index of the node the field leads to
+	 */
+	public FlowField(PathGraph graph, int target) {
+		if (target < 0 || target >= graph.size()) throw new IndexOutOfBoundsException(target + " is not a node of the graph");
+		this.graph = graph;
+		this.target = target;
+		int n = graph.size();
+		distance = new float[n];
+		next = new short[n];
+		graph.searchTo(target, distance, next);
+	}
+
+	/**
+	 * @return the graph this field was made from
+	 */
+	public PathGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the node this field leads to
+	 */
+	public PathNode getTarget() {
+		return graph.getNode(target);
+	}
+
+	/**
+	 * @return true if the passed node is in this field's graph
+	 */
+	public boolean contains(PathNode node) {
+		return graph.indexOf(node) >= 0;
+	}
+
+	/**
+	 * @return the length of the shortest path from the passed node to the target, or Float.POSITIVE_INFINITY
+	 * if there is none or the node is not in the graph
+	 */
+	public float getDistance(PathNode from) {
+		int f = graph.indexOf(from);
+		return f < 0 ? Float.POSITIVE_INFINITY : distance[f];
+	}
+
+	/**
+	 * @return the neighbour to go to from the passed node to reach the target (the target itself, if from is
+	 * the target), or null if there is no path or the node is not in the graph
+	 */
+	public PathNode getNextHop(PathNode from) {
+		int f = graph.indexOf(from);
+		if (f < 0 || next[f] < 0)
+			return null;
+		return graph.getNode(next[f]);
+	}
+
+	/**
+	 * Follows the field from a node to the target.
+	 *
+	 * @param from the node to start at
+	 * @return a new linked list of the positions of the nodes on the path, including both ends, or null if
+	 * there is no path or the node is not in the graph. The positions are the nodes' own, and must not be
+	 * modified.
+	 */
+	public world.ai.PathNode route(PathNode from) {
+		int f = graph.indexOf(from);
+		if (f < 0 || next[f] < 0)
+			return null;
+
+		world.ai.PathNode head = new world.ai.PathNode();
+		head.loc = graph.getNode(f).position;
+		for (world.ai.PathNode tail = head; f != target; tail = tail.next) {
+			f = next[f];
+			tail.next = new world.ai.PathNode();
+			tail.next.loc = graph.getNode(f).position;
+		}
+		return head;
+	}
+}
@@ -0,0 +1,114 @@
+package world;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * FlowFieldManager keeps a FlowField leading to each player, so that every mob pursuing a player
+ * follows one shared field instead of finding its own path.
+ *
+ * World calls update once per tick, before mobs think. A player's nearest PathNode is only looked
+ * up again once they have moved RENODE_DISTANCE since the last lookup, and their field is only
+ * replaced when that node changes. Players on the same node share a field. If the World has a
+ * PathTable, its field for the node is used and no search is needed; otherwise the field is made
+ * by searching the graph once, so the cost of pathfinding grows with the number of players rather
+ * than the number of mobs.
+ */
+public class FlowFieldManager {
+	/**
+	 * How far a player must move before their nearest PathNode is looked up again.
+	 */
+	public static float RENODE_DISTANCE = 5;
+
+	private static class Tracker {
+		final Vector3f checkedAt = new Vector3f();
+		boolean checked;
+		FlowField field;
+	}
+
+	private final World world;
+	private final Map<Player, Tracker> trackers = new IdentityHashMap<Player, Tracker>();
+	private PathGraph graph;
+	private int searches;
+
+	/**
+	 * @param world the World whose players and path graph this uses
+	 */
+	public FlowFieldManager(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Updates the field of each player that has moved to a different PathNode.
+	 *
+	 * @param players the players in the World
+	 */
+	public void update(List<Player> players) {
+		PathGraph current = world.getPathGraph();
+		if (current != graph) {
+			trackers.clear();
+			graph = current;
+		}
+		if (graph == null)
+			return;
+		trackers.keySet().retainAll(players);
+
+		float renodeSq = RENODE_DISTANCE * RENODE_DISTANCE;
+		for (int i = 0; i < players.size(); i++) {
+			Player p = players.get(i);
+			if (p.isRemovedFromWorld())
+				continue;
+			Tracker t = trackers.get(p);
+			if (t == null) {
+				t = new Tracker();
+				trackers.put(p, t);
+			}
+
+			Vector3f loc = p.getLocation();
+			if (t.checked && t.checkedAt.distanceSquared(loc) < renodeSq)
+				continue;
+			t.checked = true;
+			t.checkedAt.set(loc);
+
+			PathNode node = world.getClosestPathNode(loc);
+			if (node == null || (t.field != null && t.field.getTarget() == node))
+				continue; // keep following the old field
+			t.field = fieldTo(node);
+		}
+	}
+
+	private FlowField fieldTo(PathNode node) {
+		PathTable table = world.getPathTable();
+		if (table != null && table.getGraph() == graph)
+			return table.getField(node);
+
+		for (Tracker t : trackers.values()) {
+			if (t.field != null && t.field.getTarget() == node)
+				return t.field;
+		}
+
+		int i = graph.indexOf(node);
+		if (i < 0)
+			return null;
+		searches++;
+		return new FlowField(graph, i);
+	}
+
+	/**
+	 * @return the field leading to the passed player, or null if there is none
+	 */
+	public FlowField getField(Player player) {
+		Tracker t = trackers.get(player);
+		return t == null ? null : t.field;
+	}
+
+	/**
+	 * @return the number of times the graph has been searched to make a field
+	 */
+	public int getSearchCount() {
+		return searches;
+	}
+}
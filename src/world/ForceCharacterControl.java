@@ -286,26 +286,29 @@ public class ForceCharacterControl extends CharacterControl implements PhysicsTi
 	/**
 	 * Set the {@link PhysicsSpace} of this.
 	 *
-	 * Overriden to add/remove this as a PhysicsTickListener.
+	 * This is not added as a PhysicsTickListener; the World's
+	 * PhysicsTickDispatcher calls prePhysicsTick on every control, and
+	 * physicsTick on the controls that have a force (see hasForce), so Bullet
+	 * calls one listener rather than one per character.
 	 *
 	 * @param physicsSpace
 	 *            The PhysicsSpace which this will be located in.
 	 */
 	@Override
 	public void setPhysicsSpace(PhysicsSpace physicsSpace) {
-
-		if (physicsSpace == null) {
-			if (this.getPhysicsSpace() != null) {
-				this.getPhysicsSpace().removeTickListener(this);
-			}
-		} else {
-			if (this.getPhysicsSpace() == physicsSpace) { return; }
-			physicsSpace.addTickListener(this);
-		}
+		if (physicsSpace != null && this.getPhysicsSpace() == physicsSpace) { return; }
 
 		super.setPhysicsSpace(physicsSpace);
 	}
 
+	/**
+	 * @return true if a force is being applied to this, so physicsTick has
+	 *         something to do
+	 */
+	public boolean hasForce() {
+		return forceDirection.lengthSquared() > 0;
+	}
+
 	/**
 	 * Method wich applies a given velocity to this Control, which degrades on
 	 * ground.
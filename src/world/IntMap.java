@@ -0,0 +1,140 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * IntMap is an open-addressing hash map from primitive ints to objects. Unlike a
+ * HashMap&lt;Integer, V&gt;, looking up, adding and removing never box the key, so
+ * lookups are allocation-free. It is used by World to find entities by ID.
+ *
+ * Null values are not allowed.
+ *
+ * @param <V> the type of value stored
+ */
+public class IntMap<V> {
+	private static final int INITIAL_CAPACITY = 64; // must be a power of two
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[] keys = new int[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY]; // null means the slot is empty
+	private int mask = INITIAL_CAPACITY - 1;
+	private int size;
+
+	/**
+	 * @param key the key to look up
+	 * @return the value mapped to the passed key, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		for (int i = slot(key); values[i] != null; i = (i + 1) & mask)
+			if (keys[i] == key)
+				return (V) values[i];
+		return null;
+	}
+
+	/**
+	 * @param key the key to look up
+	 * @return true if the passed key is mapped to a value
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps the passed key to the passed value, replacing any existing mapping.
+	 *
+	 * @param key the key
+	 * @param value the value, which must not be null
+	 * @return the value previously mapped to the key, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) throw new NullPointerException("value is null");
+
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if (++size > keys.length * LOAD_FACTOR)
+			resize(keys.length * 2);
+		return null;
+	}
+
+	/**
+	 * Removes the mapping for the passed key.
+	 *
+	 * @param key the key to remove
+	 * @return the value that was mapped to the key, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask)
+			if (keys[i] == key)
+				break;
+		if (values[i] == null)
+			return null;
+
+		V old = (V) values[i];
+		values[i] = null;
+		size--;
+
+		// shift later entries in the same probe run back, so lookups don't stop at the gap
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			boolean movable = (i <= j) ? (home <= i || home > j) : (home <= i && home > j);
+			if (movable) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+		return old;
+	}
+
+	/**
+	 * @return the number of mappings in this map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all mappings.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	private int slot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] == null)
+				continue;
+			int j = slot(oldKeys[i]);
+			while (values[j] != null)
+				j = (j + 1) & mask;
+			keys[j] = oldKeys[i];
+			values[j] = oldValues[i];
+		}
+	}
+}
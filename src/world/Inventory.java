@@ -9,8 +9,6 @@ import java.util.Set;
 
 import world.entity.item.Item;
 
-import com.jme3.bullet.PhysicsSpace;
-import com.jme3.bullet.PhysicsTickListener;
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
@@ -26,7 +24,7 @@ import com.jme3.math.Vector3f;
  *
  * @author Tony 300242775
  */
-public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
+public class Inventory implements Iterable<Item>, Savable {
 	private static final float DROP_FORCE = 2000;
 	private static final float DROP_DISTANCE = 20;
 	private static final Vector3f ITEM_GRAVITY = new Vector3f(0,-100,0);
@@ -96,6 +94,12 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 			add(item);
 		}
 		
+		// the owner must be known before items are added, so the World can see who holds them
+		if(loadedOwnerID != -1) {
+			owner = world.getEntityByID(loadedOwnerID);
+			loadedOwnerID = -1;
+		}
+
 		if(loadedItemIDs != null) {
 			for(int i : loadedItemIDs) {
 				Item item = (Item)world.getEntityByID(i);
@@ -103,11 +107,6 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 			}
 			loadedItemIDs = null;
 		}
-
-		if(loadedOwnerID != -1) {
-			owner = world.getEntityByID(loadedOwnerID);
-			loadedOwnerID = -1;
-		}
 	}
 
 	/**
@@ -125,7 +124,7 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 		if(!items.remove(item))
 			throw new IllegalArgumentException("Item is not in this inventory");
 
-		item.setInventory(null);
+		setItemInventory(item, null);
 
 		item.attachToNode();
 		item.addToPhysicsSpace();
@@ -134,6 +133,7 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 		Vector3f loc = owner.getLocation().add(owner.getDirection().mult(DROP_DISTANCE).add(EXTRA_HEIGHT));
 		item.setLocation(loc);
 		dropped = item;
+		world.getPhysicsTickDispatcher().addPendingDrop(this);
 		//addToWorld(item, owner.getLocation(), owner.getDirection());
 	}
 
@@ -166,7 +166,7 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 		// If we are not linked to a world yet, then just add it to the items list and do nothing else.
 		// We'll add it properly later (in linkToWorld).
 		if(world != null) {
-			item.setInventory(this);
+			setItemInventory(item, this);
 			item.removeFromNode();
 			item.removeFromPhysicsSpace();
 		}
@@ -205,7 +205,7 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 
 		// add the item to the Inventory
 		items.add(item);
-		item.setInventory(this);
+		setItemInventory(item, this);
 		// remove the item from the world
 		item.removeFromNode();
 		item.removeFromPhysicsSpace();
@@ -228,7 +228,7 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 		if(item.getInventory() != null)
 			throw new IllegalArgumentException("Item already in an inventory: "+item.getInventory().getOwner());
 		items.add(item);
-		item.setInventory(this);
+		setItemInventory(item, this);
 		if(world.getPhysicsSpace().getRigidBodyList().contains(item.getPhysics())){
 			item.removeFromNode();
 			item.removeFromPhysicsSpace();
@@ -259,7 +259,15 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 			throw new IllegalArgumentException("item "+item+" not in this inventory (owner: "+owner+")");
 
 		items.remove(item);
-		item.setInventory(null);
+		setItemInventory(item, null);
+	}
+
+	/**
+	 * Sets the inventory of the passed item, and tells the World so it can track who holds what.
+	 */
+	private void setItemInventory(Item item, Inventory inventory) {
+		item.setInventory(inventory);
+		world.itemInventoryChanged(item);
 	}
 
 	@Override
@@ -298,12 +306,11 @@ public class Inventory implements Iterable<Item>, Savable, PhysicsTickListener {
 		oc.write(itemIDs, "items", null);
 	}
 
-	@Override
-	public void physicsTick(PhysicsSpace arg0, float arg1) {
-	}
-
-	@Override
-	public void prePhysicsTick(PhysicsSpace physicsSpace, float tpf) {
+	/**
+	 * Pushes the item most recently dropped away from the owner, if it hasn't been pushed yet.
+	 * Called by the World's PhysicsTickDispatcher before the physics substep after the drop.
+	 */
+	public void applyPendingDrop() {
 		if (dropped == null) return;
 		Vector3f dir = owner.getDirection().normalize();
 		// not perfect
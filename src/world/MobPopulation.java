@@ -0,0 +1,194 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import world.entity.mob.Mob;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * MobPopulation keeps the number of mobs in a World bounded, however long the game goes on.
+ *
+ * Before a mob is spawned, MobSpawnController asks canSpawn, which refuses if there are already
+ * globalBudget mobs in the World, playerBudget mobs targeting the mob's target, or regionCap mobs
+ * within regionRadius of the spawn point (counted with the World's spatial index).
+ *
+ * World calls update once per tick, which counts the mobs and times how long each mob has been
+ * further than despawnDistance from every player. Mobs that have been out of range for
+ * despawnTimeout seconds are returned, for World to remove (and the spawner to recycle).
+ */
+public class MobPopulation {
+	public static int DEFAULT_PLAYER_BUDGET = 40;
+	public static float DEFAULT_REGION_RADIUS = 60;
+	public static int DEFAULT_REGION_CAP = 15;
+	public static float DEFAULT_DESPAWN_DISTANCE = 700;
+	public static float DEFAULT_DESPAWN_TIMEOUT = 30;
+
+	private int globalBudget = World.MAX_MOBS;
+	private int playerBudget = DEFAULT_PLAYER_BUDGET;
+	private float regionRadius = DEFAULT_REGION_RADIUS;
+	private int regionCap = DEFAULT_REGION_CAP;
+	private float despawnDistance = DEFAULT_DESPAWN_DISTANCE;
+	private float despawnTimeout = DEFAULT_DESPAWN_TIMEOUT;
+
+	private static class State {
+		float outOfRange;
+	}
+
+	private final SpatialGrid<Entity> grid;
+	private final SpatialGrid.Filter<Entity> mobFilter = SpatialGrid.<Entity>classFilter(Mob.class, null);
+	private final Map<Mob, State> states = new IdentityHashMap<Mob, State>();
+	private final List<Entity> nearby = new ArrayList<Entity>();
+
+	private int mobCount;
+	private final List<Player> players = new ArrayList<Player>();
+	private int[] playerCounts = new int[4];
+
+	/**
+	 * @param grid the spatial index of the World's entities, used to count the mobs near a spawn point
+	 */
+	public MobPopulation(SpatialGrid<Entity> grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Counts the passed mobs, and finds the ones that have been out of range of every player for too long.
+	 *
+	 * @param mobs all the mobs in the World
+	 * @param players the players in the World
+	 * @param tpf the length of this tick
+	 * @param despawn the list to add mobs that should be removed to
+	 * @return despawn
+	 */
+	public List<Mob> update(List<? extends Mob> mobs, List<Player> players, float tpf, List<Mob> despawn) {
+		this.players.clear();
+		this.players.addAll(players);
+		if (playerCounts.length < players.size())
+			playerCounts = new int[players.size() * 2];
+		for (int i = 0; i < players.size(); i++)
+			playerCounts[i] = 0;
+		mobCount = mobs.size();
+
+		float despawnSq = despawnDistance * despawnDistance;
+		for (int i = 0; i < mobs.size(); i++) {
+			Mob mob = mobs.get(i);
+			int p = this.players.indexOf(mob.getTarget());
+			if (p >= 0)
+				playerCounts[p]++;
+
+			State state = states.get(mob);
+			if (state == null) {
+				state = new State();
+				states.put(mob, state);
+			}
+
+			if (inRange(mob.getLocation(), despawnSq)) {
+				state.outOfRange = 0;
+			} else {
+				state.outOfRange += tpf;
+				if (state.outOfRange >= despawnTimeout)
+					despawn.add(mob);
+			}
+		}
+		return despawn;
+	}
+
+	/**
+	 * Decides whether a mob may be spawned, and if so counts it as spawned.
+	 *
+	 * @param target the player the mob will target, or null
+	 * @param location where the mob will be spawned
+	 * @return true if the mob is within every budget
+	 */
+	public boolean canSpawn(Player target, Vector3f location) {
+		if (mobCount >= globalBudget)
+			return false;
+
+		int p = players.indexOf(target);
+		if (p >= 0 && playerCounts[p] >= playerBudget)
+			return false;
+
+		nearby.clear();
+		if (grid.inRadius(location, regionRadius, mobFilter, nearby).size() >= regionCap)
+			return false;
+
+		mobCount++;
+		if (p >= 0)
+			playerCounts[p]++;
+		return true;
+	}
+
+	/**
+	 * Forgets a mob that has been removed from the World.
+	 */
+	public void remove(Mob mob) {
+		states.remove(mob);
+	}
+
+	private boolean inRange(Vector3f loc, float rangeSq) {
+		for (int i = 0; i < players.size(); i++) {
+			if (players.get(i).getLocation().distanceSquared(loc) <= rangeSq)
+				return true;
+		}
+		return false;
+	}
+
+	// GETTERS AND SETTERS
+
+	/**
+	 * @return the number of mobs counted by the last update, plus those allowed to spawn since
+	 */
+	public int getMobCount() {
+		return mobCount;
+	}
+
+	/**
+	 * Sets the most mobs there can be in the World, the most that can target each player, and
+	 * the most that can be within regionRadius of a spawn point.
+	 */
+	public void setBudgets(int global, int perPlayer, float regionRadius, int regionCap) {
+		if (global < 0 || perPlayer < 0 || regionCap < 0) throw new IllegalArgumentException("budgets cannot be negative");
+		if (regionRadius < 0) throw new IllegalArgumentException("radius cannot be negative");
+		this.globalBudget = global;
+		this.playerBudget = perPlayer;
+		this.regionRadius = regionRadius;
+		this.regionCap = regionCap;
+	}
+
+	/**
+	 * Sets how far from every player, for how many seconds, a mob must be before it is despawned.
+	 * Pass Float.POSITIVE_INFINITY as distance to never despawn mobs.
+	 */
+	public void setDespawn(float distance, float timeout) {
+		if (distance < 0 || timeout < 0) throw new IllegalArgumentException("distance and timeout cannot be negative");
+		this.despawnDistance = distance;
+		this.despawnTimeout = timeout;
+	}
+
+	public int getGlobalBudget() {
+		return globalBudget;
+	}
+
+	public int getPlayerBudget() {
+		return playerBudget;
+	}
+
+	public float getRegionRadius() {
+		return regionRadius;
+	}
+
+	public int getRegionCap() {
+		return regionCap;
+	}
+
+	public float getDespawnDistance() {
+		return despawnDistance;
+	}
+
+	public float getDespawnTimeout() {
+		return despawnTimeout;
+	}
+}
@@ -1,10 +1,18 @@
 package world;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import world.TimeManager.Stage;
 import world.entity.mob.Mob;
 import world.entity.mob.MobFactory;
 
+import com.jme3.asset.AssetManager;
 import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
 
 /**
  * An MobSpawnController is responsible for controlling the logic of when, and where, computer-
@@ -12,9 +20,25 @@ import com.jme3.math.Vector3f;
  *
  * The spawnTick method is its publicly exposed handle.
  *
+ * Deciding to spawn a wave of mobs only queues spawn requests; the requests are turned into
+ * mobs a few at a time, spending at most SPAWN_BUDGET_NANOS per tick (but always at least one
+ * mob), so a night-time horde is spread over several ticks rather than causing a hitch.
+ * Requests are queued one group per player at a time, so every player's mobs start arriving
+ * straight away. The mob models are loaded one per tick from the first tick, and kept (the
+ * asset cache only holds models weakly), so the mobs of dusk don't have to load them. Mobs
+ * removed from the World are given back through recycle, and spawned again instead of
+ * making new ones. A queued mob is only spawned if the World's MobPopulation allows it.
+ *
+ * Mobs are placed on the ground, away from buildings, using the World's SpawnGrid.
+ *
  * @author Tony 300242775
  */
 public class MobSpawnController {
+	/**
+	 * The longest time spawnTick may spend adding queued mobs to the World, in nanoseconds.
+	 */
+	public static long SPAWN_BUDGET_NANOS = 2000000;
+
 	private static final float TIME_BETWEEN_SPAWNS = 10f;
 	
 	private static final float SPAWN_VARIATION = 20f;
@@ -25,11 +49,19 @@ public class MobSpawnController {
 	private static final float HALF_SPAWN_RADIUS = SPAWN_RADIUS / 2;
 	private static final float EDGE_SPAWN_RADIUS = HALF_SPAWN_RADIUS - SPAWN_EDGES;
 
+	private static final int PLACEMENT_TRIES = 4;
+	private static final float SPAWN_HEIGHT = 5f;
+
 	private World world;
 	private MobFactory mobFactory;
 
 	private float timeSinceLastSpawn = TIME_BETWEEN_SPAWNS;
 
+	private final ArrayDeque<SpawnRequest> queue = new ArrayDeque<SpawnRequest>();
+
+	private List<String> prefetch;
+	private final List<Spatial> prefetched = new ArrayList<Spatial>();
+
 	/**
 	 * @param world the World to spawn mobs in
 	 */
@@ -45,40 +77,140 @@ public class MobSpawnController {
 	 * @param tpf the time per frame
 	 */
 	public void spawnTick (float tpf) {
-		timeSinceLastSpawn += tpf;
-		if (timeSinceLastSpawn < TIME_BETWEEN_SPAWNS && tpf >= 0)
-			return;
-
-		timeSinceLastSpawn = 0;
+		// from the first tick, whatever the time of day, since a game can be started or loaded at night
+		prefetchTick();
 
 		Stage stage = world.getTimeManager().getStage();
-		
-		if (stage == Stage.DAWN) {
-			makeMobs (0, 0);
-		} else if (stage == Stage.DAY) {
-			if (Math.random() > 0.5) makeMobs (1, 1);
-		} else if (stage == Stage.DUSK) {
-			makeMobs (2, 2);
-		} else if (stage == Stage.NIGHT) {
-			makeMobs (4, 3);
+
+		timeSinceLastSpawn += tpf;
+		if (timeSinceLastSpawn >= TIME_BETWEEN_SPAWNS || tpf < 0) {
+			timeSinceLastSpawn = 0;
+
+			if (stage == Stage.DAWN) {
+				makeMobs (0, 0);
+			} else if (stage == Stage.DAY) {
+				if (Math.random() > 0.5) makeMobs (1, 1);
+			} else if (stage == Stage.DUSK) {
+				makeMobs (2, 2);
+			} else if (stage == Stage.NIGHT) {
+				makeMobs (4, 3);
+			}
 		}
+
+		drainQueue();
+	}
+
+	/**
+	 * @return the number of mobs waiting to be spawned
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Keeps a mob that has been removed from the World, to be spawned again later.
+	 * 
+	 * @param mob the removed Mob
+	 */
+	public void recycle (Mob mob) {
+		mobFactory.recycle(mob);
+	}
+
+	/**
+	 * Forgets all mobs waiting to be spawned.
+	 */
+	public void clearQueue() {
+		queue.clear();
 	}
 	
 	private void makeMobs (int numPerGroup, int groupsPerPlayer) {
-		for (Player p : world.getPlayers()) { // for each player
-			for (int i=0; i < groupsPerPlayer; i++) { // make some groups of mobs
-				
-				float z = p.getLocation().z + (float) (Math.random() * 500 - 250);
-				//float x = p.getLocation().x + (float) (Math.random() * 500 - 250);
-				float x = p.getLocation().x + ((z > EDGE_SPAWN_RADIUS || z < -EDGE_SPAWN_RADIUS) ? (float) (Math.random() * SPAWN_RADIUS - HALF_SPAWN_RADIUS) : (float) ((Math.random() > 0.5 ? -HALF_SPAWN_RADIUS : HALF_SPAWN_RADIUS - SPAWN_EDGES) + Math.random()*SPAWN_EDGES));
-				Vector3f spawn = new Vector3f(x,p.getLocation().getY(),z);
+		SpawnGrid grid = world.getSpawnGrid();
+		for (int i=0; i < groupsPerPlayer; i++) { // make some groups of mobs
+			for (Player p : world.getPlayers()) { // for each player
+				Vector3f spawn = pickGroupSpawn(p, grid);
+				if (spawn == null)
+					continue; // nowhere free was found near the player this time
 				
-				for (int j=0; j < numPerGroup; j++) { // actually spawn the mobs
-					Mob mob = mobFactory.getMobInstance();
-					mob.setTarget(p); // set their target as the player
-					world.addEntity(mob, spawn.add((float)(Math.random() * SPAWN_VARIATION - HALF_SPAWN_VARIATION),0,(float)(Math.random() * SPAWN_VARIATION - HALF_SPAWN_VARIATION)));
+				for (int j=0; j < numPerGroup; j++) { // queue the mobs to be spawned
+					Vector3f location = spawn.add((float)(Math.random() * SPAWN_VARIATION - HALF_SPAWN_VARIATION),0,(float)(Math.random() * SPAWN_VARIATION - HALF_SPAWN_VARIATION));
+					if (grid != null && !grid.place(location, SPAWN_HEIGHT))
+						location = spawn.clone(); // the group's spawn point is known to be free
+					queue.add(new SpawnRequest(p, location));
 				}
 			}
 		}
 	}
+
+	/**
+	 * Picks a point around the passed player to spawn a group of mobs at. With a SpawnGrid, the
+	 * point is on free ground, and up to PLACEMENT_TRIES points are tried; without one, the
+	 * point is at the player's height.
+	 * 
+	 * @return the point, or null if no free point was found
+	 */
+	private Vector3f pickGroupSpawn (Player p, SpawnGrid grid) {
+		int tries = grid == null ? 1 : PLACEMENT_TRIES;
+		for (int t = 0; t < tries; t++) {
+			float z = p.getLocation().z + (float) (Math.random() * 500 - 250);
+			//float x = p.getLocation().x + (float) (Math.random() * 500 - 250);
+			float x = p.getLocation().x + ((z > EDGE_SPAWN_RADIUS || z < -EDGE_SPAWN_RADIUS) ? (float) (Math.random() * SPAWN_RADIUS - HALF_SPAWN_RADIUS) : (float) ((Math.random() > 0.5 ? -HALF_SPAWN_RADIUS : HALF_SPAWN_RADIUS - SPAWN_EDGES) + Math.random()*SPAWN_EDGES));
+			Vector3f spawn = new Vector3f(x,p.getLocation().getY(),z);
+			
+			if (grid == null || grid.place(spawn, SPAWN_HEIGHT))
+				return spawn;
+		}
+		return null;
+	}
+
+	/**
+	 * Spawns queued mobs until the queue is empty or the tick's budget is spent.
+	 */
+	private void drainQueue () {
+		long start = System.nanoTime();
+		while (!queue.isEmpty()) {
+			SpawnRequest r = queue.poll();
+			if (r.target.isRemovedFromWorld())
+				continue; // the player left before their mobs arrived
+			if (!world.getMobPopulation().canSpawn(r.target, r.location))
+				continue; // there are enough mobs already
+
+			Mob mob = mobFactory.getMobInstance();
+			mob.setTarget(r.target); // set their target as the player
+			world.addEntity(mob, r.location);
+
+			if (System.nanoTime() - start >= SPAWN_BUDGET_NANOS)
+				break;
+		}
+	}
+
+	/**
+	 * Loads the next mob model that hasn't been loaded yet, if any.
+	 */
+	private void prefetchTick () {
+		AssetManager assetManager = world.getAssetManager();
+		if (assetManager == null)
+			return;
+
+		if (prefetch == null) {
+			Set<String> assets = new HashSet<String>();
+			mobFactory.getPreloadAssets(assets);
+			prefetch = new ArrayList<String>(assets);
+		}
+
+		if (!prefetch.isEmpty())
+			prefetched.add(assetManager.loadModel(prefetch.remove(prefetch.size() - 1)));
+	}
+
+	/**
+	 * A mob waiting to be spawned.
+	 */
+	private static class SpawnRequest {
+		final Player target;
+		final Vector3f location;
+
+		SpawnRequest(Player target, Vector3f location) {
+			this.target = target;
+			this.location = location;
+		}
+	}
 }
@@ -0,0 +1,225 @@
+package world;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.export.Savable;
+import com.jme3.export.binary.BinaryExporter;
+import com.jme3.export.binary.BinaryImporter;
+
+/**
+ * NavigationBake is what World takes from a map's models when it loads the map: the linked graph of
+ * PathNodes, the TriggerZones (with their spawners) and the SpawnGrid. Finding these means loading
+ * every model a second time, linking the nodes with O(N^2) line of sight checks and raycasting down
+ * through every cell of the grid, so the result is saved to a binary file, and loaded instead the
+ * next time the same map is loaded.
+ *
+ * The file is keyed by a hash of the map file, the models it uses and FORMAT_VERSION. If any of them
+ * change, the key won't match, and the map is baked again.
+ */
+public class NavigationBake implements Savable {
+	private static final Logger log = Logger.getLogger(NavigationBake.class.getName());
+
+	/**
+	 * Increased whenever what is baked, or how it is found, changes, so old files are rebaked.
+	 */
+	public static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The directory baked files are kept in.
+	 */
+	public static String CACHE_DIR = "savestates";
+
+	private byte[] key;
+	private ArrayList<PathNode> pathNodes;
+	private ArrayList<EntitySpawnData> triggers;
+	private SpawnGrid spawnGrid;
+
+	public NavigationBake() {}
+
+	/**
+	 * @param key the key of the map that was baked; see computeKey
+	 * @param pathNodes the linked path nodes
+	 * @param triggers the trigger zones, which must already be in a World
+	 * @param spawnGrid the grid of where mobs can be spawned, or null if there is none
+	 */
+	public NavigationBake(byte[] key, Collection<PathNode> pathNodes, Collection<? extends Entity> triggers, SpawnGrid spawnGrid) {
+		this.key = key;
+		this.spawnGrid = spawnGrid;
+		this.pathNodes = new ArrayList<PathNode>(pathNodes);
+		this.triggers = new ArrayList<EntitySpawnData>(triggers.size());
+		for (Entity e : triggers)
+			this.triggers.add(new EntitySpawnData(e));
+	}
+
+	/**
+	 * Hashes everything that affects a map's bake.
+	 *
+	 * @param mapFile the name of the map file
+	 * @param assets the names of the models the map's special nodes are taken from
+	 * @param assetManager used to find the models
+	 * @param usePathNodes whether path nodes are being loaded
+	 * @return the key
+	 * @throws IOException if the map file cannot be read
+	 */
+	public static byte[] computeKey(String mapFile, Collection<String> assets, AssetManager assetManager, boolean usePathNodes) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e); // every Java platform has SHA-1
+		}
+		digest.update((byte) FORMAT_VERSION);
+		digest.update((byte) (usePathNodes ? 1 : 0));
+		hash(new FileInputStream(mapFile), digest);
+
+		// sorted, so the key doesn't depend on the order of the map file
+		for (String asset : new TreeSet<String>(assets)) {
+			digest.update(asset.getBytes("UTF-8"));
+			AssetInfo info = assetManager.locateAsset(new ModelKey(asset));
+			if (info != null)
+				hash(info.openStream(), digest);
+		}
+		return digest.digest();
+	}
+
+	private static void hash(InputStream in, MessageDigest digest) throws IOException {
+		byte[] buffer = new byte[8192];
+		DigestInputStream din = new DigestInputStream(in, digest);
+		try {
+			while (din.read(buffer) >= 0)
+				;
+		} finally {
+			din.close();
+		}
+	}
+
+	/**
+	 * Bakes with and without path nodes are kept in different files, so switching between them
+	 * doesn't rebake the map every time.
+	 *
+	 * @param mapFile the name of the map file
+	 * @param usePathNodes whether path nodes are being loaded
+	 * @return the file the bake of the passed map is kept in
+	 */
+	public static File getCacheFile(String mapFile, boolean usePathNodes) {
+		return new File(CACHE_DIR, new File(mapFile).getName() + (usePathNodes ? ".nodes.nav" : ".nav"));
+	}
+
+	/**
+	 * Loads a baked map, if there is one for the passed key.
+	 *
+	 * @param file the file to load from
+	 * @param key the key of the map being loaded
+	 * @param assetManager used to load anything the trigger zones refer to
+	 * @return the bake, or null if the file is missing, unreadable or for a different key
+	 */
+	public static NavigationBake load(File file, byte[] key, AssetManager assetManager) {
+		if (!file.isFile())
+			return null;
+		try {
+			byte[] bytes = new byte[(int) file.length()];
+			DataInputStream in = new DataInputStream(new FileInputStream(file));
+			try {
+				in.readFully(bytes);
+			} finally {
+				in.close();
+			}
+
+			BinaryImporter im = BinaryImporter.getInstance();
+			im.setAssetManager(assetManager);
+			NavigationBake bake = (NavigationBake) im.load(bytes);
+			if (!Arrays.equals(bake.key, key)) {
+				log.info(file + " is for a different version of the map");
+				return null;
+			}
+			return bake;
+		} catch (Exception e) {
+			log.log(Level.WARNING, "could not load " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Saves this bake. Failure is logged, not thrown, since the map can always be baked again.
+	 *
+	 * @param file the file to save to
+	 */
+	public void save(File file) {
+		try {
+			File dir = file.getAbsoluteFile().getParentFile();
+			if (dir != null)
+				dir.mkdirs();
+			OutputStream out = new FileOutputStream(file);
+			try {
+				BinaryExporter.getInstance().save(this, out);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "could not save " + file, e);
+		}
+	}
+
+	/**
+	 * @return the linked path nodes
+	 */
+	public List<PathNode> getPathNodes() {
+		return pathNodes;
+	}
+
+	/**
+	 * @return the trigger zones and their locations
+	 */
+	public List<EntitySpawnData> getTriggers() {
+		return triggers;
+	}
+
+	/**
+	 * @return the grid of where mobs can be spawned, or null if there is none
+	 */
+	public SpawnGrid getSpawnGrid() {
+		return spawnGrid;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void read(JmeImporter im) throws IOException {
+		InputCapsule ic = im.getCapsule(this);
+		key = ic.readByteArray("key", null);
+		pathNodes = ic.readSavableArrayList("pathNodes", new ArrayList<PathNode>());
+		triggers = ic.readSavableArrayList("triggers", new ArrayList<EntitySpawnData>());
+		spawnGrid = (SpawnGrid) ic.readSavable("spawnGrid", null);
+	}
+
+	@Override
+	public void write(JmeExporter ex) throws IOException {
+		OutputCapsule oc = ex.getCapsule(this);
+		oc.write(key, "key", null);
+		oc.writeSavableArrayList(pathNodes, "pathNodes", null);
+		oc.writeSavableArrayList(triggers, "triggers", null);
+		oc.write(spawnGrid, "spawnGrid", null);
+	}
+}
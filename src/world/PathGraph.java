@@ -0,0 +1,258 @@
+package world;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * PathGraph is a snapshot of the links between a set of PathNodes, numbering the nodes from 0 to
+ * size()-1 and keeping each node's incoming and outgoing links and their lengths in flat arrays.
+ * It does not change after it is made, so it can be searched from several threads at once.
+ *
+ * searchTo runs Dijkstra's algorithm backwards from a node, which gives the distance to that node
+ * from every other node and the next hop on the way; FlowField and PathTable are built from it.
+ * findPath runs A* between two nodes, for graphs without a PathTable.
+ */
+public class PathGraph {
+	/**
+	 * The most nodes a PathGraph can hold, so that node indices fit in a short.
+	 */
+	public static final int MAX_NODES = Short.MAX_VALUE;
+
+	private final PathNode[] nodes;
+	private final Map<PathNode, Integer> indices = new IdentityHashMap<PathNode, Integer>();
+
+	// incoming[i] are the nodes that link to node i, and incomingCost[i] the lengths of those links
+	private final int[][] incoming;
+	private final float[][] incomingCost;
+	// outgoing[i] are the nodes node i links to, and outgoingCost[i] the lengths of those links
+	private final int[][] outgoing;
+	private final float[][] outgoingCost;
+
+	/**
+	 * Takes a snapshot of the passed nodes, whose neighbours must already be linked.
+	 * Neighbours that are not among the passed nodes are ignored.
+	 *
+	 * @param graph the nodes of the graph
+	 */
+	public PathGraph(Collection<PathNode> graph) {
+		if (graph.size() > MAX_NODES) throw new IllegalArgumentException(graph.size() + " nodes is more than " + MAX_NODES);
+		int n = graph.size();
+		nodes = graph.toArray(new PathNode[n]);
+		for (int i = 0; i < n; i++)
+			indices.put(nodes[i], i);
+
+		int[] counts = new int[n];
+		int[] outCounts = new int[n];
+		for (int i = 0; i < n; i++)
+			for (PathNode o : nodes[i].neighbours)
+				if (indices.containsKey(o)) {
+					counts[indices.get(o)]++;
+					outCounts[i]++;
+				}
+
+		incoming = new int[n][];
+		incomingCost = new float[n][];
+		outgoing = new int[n][];
+		outgoingCost = new float[n][];
+		for (int i = 0; i < n; i++) {
+			incoming[i] = new int[counts[i]];
+			incomingCost[i] = new float[counts[i]];
+			outgoing[i] = new int[outCounts[i]];
+			outgoingCost[i] = new float[outCounts[i]];
+		}
+		Arrays.fill(counts, 0);
+		Arrays.fill(outCounts, 0);
+		for (int i = 0; i < n; i++)
+			for (PathNode o : nodes[i].neighbours) {
+				Integer j = indices.get(o);
+				if (j == null)
+					continue;
+				float cost = nodes[i].position.distance(o.position);
+				incoming[j][counts[j]] = i;
+				incomingCost[j][counts[j]++] = cost;
+				outgoing[i][outCounts[i]] = j;
+				outgoingCost[i][outCounts[i]++] = cost;
+			}
+	}
+
+	/**
+	 * @return the number of nodes in the graph
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @return the index of the passed node, or -1 if it is not in the graph
+	 */
+	public int indexOf(PathNode node) {
+		Integer i = indices.get(node);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * @return the node with the passed index
+	 */
+	public PathNode getNode(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * Finds the shortest path to the passed node from every node, using Dijkstra's algorithm on the
+	 * reversed graph.
+	 *
+	 * @param to the index of the node to find paths to
+	 * @param distance filled with the length of the shortest path from each node, or Float.POSITIVE_INFINITY if there is none
+	 * @param next filled with the index of the node after each node on its shortest path (to itself, for to), or -1 if there is none
+	 */
+	public void searchTo(int to, float[] distance, short[] next) {
+		int n = nodes.length;
+		Arrays.fill(distance, 0, n, Float.POSITIVE_INFINITY);
+		Arrays.fill(next, 0, n, (short) -1);
+		int[] heap = new int[n];
+		int[] heapPos = new int[n];
+		Arrays.fill(heapPos, -1);
+		int size = 0;
+
+		distance[to] = 0;
+		next[to] = (short) to;
+		heap[size] = to;
+		heapPos[to] = size++;
+
+		while (size > 0) {
+			int v = heap[0];
+			heapPos[v] = -2; // settled
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				heapPos[heap[0]] = 0;
+				siftDown(heap, heapPos, size, 0, distance);
+			}
+
+			int[] in = incoming[v];
+			float[] cost = incomingCost[v];
+			for (int k = 0; k < in.length; k++) {
+				int u = in[k];
+				if (heapPos[u] == -2)
+					continue;
+				float du = distance[v] + cost[k];
+				if (du < distance[u]) {
+					distance[u] = du;
+					next[u] = (short) v;
+					if (heapPos[u] == -1) {
+						heap[size] = u;
+						heapPos[u] = size++;
+					}
+					siftUp(heap, heapPos, heapPos[u], distance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the shortest path between two nodes with A*, using the straight line distance to the
+	 * destination as the heuristic.
+	 *
+	 * @param from the index of the node to start at
+	 * @param to the index of the node to finish at
+	 * @return a new linked list of the positions of the nodes on the path, including both ends, or null if there is none
+	 */
+	public world.ai.PathNode findPath(int from, int to) {
+		int n = nodes.length;
+		float[] cost = new float[n]; // the length of the shortest path found from from
+		float[] estimate = new float[n]; // cost plus the heuristic, which orders the heap
+		int[] parent = new int[n];
+		int[] heap = new int[n];
+		int[] heapPos = new int[n];
+		Arrays.fill(cost, Float.POSITIVE_INFINITY);
+		Arrays.fill(heapPos, -1);
+		Vector3f goal = nodes[to].position;
+		int size = 0;
+
+		cost[from] = 0;
+		estimate[from] = nodes[from].position.distance(goal);
+		parent[from] = from;
+		heap[size] = from;
+		heapPos[from] = size++;
+
+		while (size > 0) {
+			int v = heap[0];
+			if (v == to) {
+				world.ai.PathNode path = null;
+				for (int i = to; ; i = parent[i]) {
+					world.ai.PathNode pn = new world.ai.PathNode();
+					pn.loc = nodes[i].position;
+					pn.next = path;
+					path = pn;
+					if (i == from)
+						return path;
+				}
+			}
+			heapPos[v] = -2; // settled; the heuristic is consistent, so it is never reopened
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				heapPos[heap[0]] = 0;
+				siftDown(heap, heapPos, size, 0, estimate);
+			}
+
+			int[] out = outgoing[v];
+			float[] length = outgoingCost[v];
+			for (int k = 0; k < out.length; k++) {
+				int u = out[k];
+				if (heapPos[u] == -2)
+					continue;
+				float cu = cost[v] + length[k];
+				if (cu < cost[u]) {
+					cost[u] = cu;
+					estimate[u] = cu + nodes[u].position.distance(goal);
+					parent[u] = v;
+					if (heapPos[u] == -1) {
+						heap[size] = u;
+						heapPos[u] = size++;
+					}
+					siftUp(heap, heapPos, heapPos[u], estimate);
+				}
+			}
+		}
+		return null;
+	}
+
+	private static void siftUp(int[] heap, int[] heapPos, int i, float[] distance) {
+		int v = heap[i];
+		float d = distance[v];
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (distance[heap[parent]] <= d)
+				break;
+			heap[i] = heap[parent];
+			heapPos[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		heapPos[v] = i;
+	}
+
+	private static void siftDown(int[] heap, int[] heapPos, int size, int i, float[] distance) {
+		int v = heap[i];
+		float d = distance[v];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && distance[heap[child + 1]] < distance[heap[child]])
+				child++;
+			if (distance[heap[child]] >= d)
+				break;
+			heap[i] = heap[child];
+			heapPos[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = v;
+		heapPos[v] = i;
+	}
+}
@@ -27,9 +27,6 @@ public class PathNode implements Savable {
 	public Vector3f position;
 	public Collection<PathNode> neighbours = new HashSet<PathNode>();
 	
-	// used temporarily when pathfinding
-	public PathNode from;
-	
 	public PathNode() {}
 	
 	private World world;
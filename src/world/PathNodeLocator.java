@@ -0,0 +1,276 @@
+package world;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * PathNodeLocator finds the closest PathNode that can be seen from a point, for World.getClosestPathNode,
+ * usually with a single line of sight check.
+ *
+ * The nodes are kept in a KD-tree, which is built once (the nodes do not move). Space is divided into
+ * cubic cells of CELL_SIZE, and the first query in each cell finds the CANDIDATES nodes nearest the
+ * centre of the cell and remembers which of those can be seen from there. Later queries in that cell
+ * pick the remembered node nearest to the query point, without a raycast. If the tree has no node nearer
+ * to the point than that one, it is the answer as long as it really can be seen from the point (a wall
+ * might cut through the cell). Otherwise the nodes are searched nearest-first, checking each one's line
+ * of sight, like an uncached query.
+ *
+ * Line of sight only depends on immovable entities, so the remembered visibility stays valid. Queries
+ * may come from several threads at once.
+ */
+public class PathNodeLocator {
+	/**
+	 * The width of the cells visibility is remembered for.
+	 */
+	public static float CELL_SIZE = 4;
+
+	/**
+	 * The number of nodes nearest a cell whose visibility is checked.
+	 */
+	public static int CANDIDATES = 8;
+
+	/**
+	 * The most cells visibility is remembered for; when there are more, all are forgotten.
+	 */
+	public static int MAX_CACHED_CELLS = 65536;
+
+	/**
+	 * Decides whether one point can be seen from another.
+	 */
+	public interface LineOfSight {
+		public boolean check(Vector3f from, Vector3f to);
+	}
+
+	private static class Cell {
+		final int cx, cy, cz;
+		final int[] visible; // indices of the nodes that can be seen from the centre of the cell
+
+		Cell(int cx, int cy, int cz, int[] visible) {
+			this.cx = cx;
+			this.cy = cy;
+			this.cz = cz;
+			this.visible = visible;
+		}
+	}
+
+	private final PathNode[] nodes;
+	private final float[] xs, ys, zs;
+	private final LineOfSight lineOfSight;
+
+	// the KD-tree: each subrange of tree is split at its middle element, along axis[middle]
+	private final int[] tree;
+	private final byte[] axis;
+
+	private final IntMap<Cell> cells = new IntMap<Cell>();
+
+	/**
+	 * @param nodes the nodes to find
+	 * @param lineOfSight decides whether a node can be seen from a point
+	 */
+	public PathNodeLocator(Collection<PathNode> nodes, LineOfSight lineOfSight) {
+		this.nodes = nodes.toArray(new PathNode[nodes.size()]);
+		this.lineOfSight = lineOfSight;
+		int n = this.nodes.length;
+		xs = new float[n];
+		ys = new float[n];
+		zs = new float[n];
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			Vector3f p = this.nodes[i].position;
+			xs[i] = p.x;
+			ys[i] = p.y;
+			zs[i] = p.z;
+			order[i] = i;
+		}
+
+		tree = new int[n];
+		axis = new byte[n];
+		build(order, 0, n);
+		for (int i = 0; i < n; i++)
+			tree[i] = order[i];
+	}
+
+	// BUILDING
+
+	private void build(Integer[] order, int lo, int hi) {
+		if (hi - lo <= 0)
+			return;
+
+		// split along the axis the nodes are most spread out on
+		float[] min = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+		float[] max = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+		for (int i = lo; i < hi; i++) {
+			for (int a = 0; a < 3; a++) {
+				float c = coord(order[i], a);
+				min[a] = Math.min(min[a], c);
+				max[a] = Math.max(max[a], c);
+			}
+		}
+		int split = 0;
+		for (int a = 1; a < 3; a++)
+			if (max[a] - min[a] > max[split] - min[split])
+				split = a;
+
+		final int sa = split;
+		Arrays.sort(order, lo, hi, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Float.compare(coord(i1, sa), coord(i2, sa));
+			}
+		});
+		int mid = (lo + hi) >>> 1;
+		axis[mid] = (byte) split;
+		build(order, lo, mid);
+		build(order, mid + 1, hi);
+	}
+
+	private float coord(int node, int a) {
+		return a == 0 ? xs[node] : a == 1 ? ys[node] : zs[node];
+	}
+
+	private float distSq(int node, float x, float y, float z) {
+		float dx = xs[node] - x, dy = ys[node] - y, dz = zs[node] - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	// QUERIES
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * Finds the (at most) k nodes nearest to a point.
+	 *
+	 * @param point the point to search around
+	 * @param k the most nodes to find
+	 * @param out filled with the indices of the nodes found, nearest first; must have room for k
+	 * @return the number of nodes found
+	 */
+	int nearest(Vector3f point, int k, int[] out) {
+		float[] dist = new float[k];
+		return nearest(0, nodes.length, point.x, point.y, point.z, k, out, dist, 0);
+	}
+
+	private int nearest(int lo, int hi, float x, float y, float z, int k, int[] out, float[] dist, int found) {
+		if (hi - lo <= 0)
+			return found;
+		int mid = (lo + hi) >>> 1;
+		int node = tree[mid];
+
+		// insert this node into the sorted results, if it's near enough
+		float d = distSq(node, x, y, z);
+		if (found < k || d < dist[found - 1]) {
+			int i = found < k ? found++ : found - 1;
+			for (; i > 0 && dist[i - 1] > d; i--) {
+				dist[i] = dist[i - 1];
+				out[i] = out[i - 1];
+			}
+			dist[i] = d;
+			out[i] = node;
+		}
+
+		float diff = (axis[mid] == 0 ? x : axis[mid] == 1 ? y : z) - coord(node, axis[mid]);
+		if (diff < 0) {
+			found = nearest(lo, mid, x, y, z, k, out, dist, found);
+			if (found < k || diff * diff < dist[found - 1])
+				found = nearest(mid + 1, hi, x, y, z, k, out, dist, found);
+		} else {
+			found = nearest(mid + 1, hi, x, y, z, k, out, dist, found);
+			if (found < k || diff * diff < dist[found - 1])
+				found = nearest(lo, mid, x, y, z, k, out, dist, found);
+		}
+		return found;
+	}
+
+	/**
+	 * @param point the point to search from
+	 * @return the closest node that can be seen from the passed point, or null if there is none
+	 */
+	public PathNode nearestVisible(Vector3f point) {
+		if (nodes.length == 0)
+			return null;
+
+		// the remembered node nearest the point usually needs one check
+		int[] visible = getCell(point).visible;
+		int best = -1;
+		float bestDist = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < visible.length; i++) {
+			float d = distSq(visible[i], point.x, point.y, point.z);
+			if (d < bestDist) {
+				best = visible[i];
+				bestDist = d;
+			}
+		}
+		// but only if no node that wasn't remembered is nearer, as it might be visible from the point
+		int hidden = -1;
+		if (best >= 0) {
+			int[] nearest = new int[1];
+			nearest(point, 1, nearest);
+			if (distSq(nearest[0], point.x, point.y, point.z) >= bestDist) {
+				if (lineOfSight.check(point, nodes[best].position))
+					return nodes[best];
+				hidden = best;
+			}
+		}
+
+		// otherwise, check nodes nearest-first, finding twice as many each time none of them can be seen
+		int checked = 0;
+		for (int k = Math.min(CANDIDATES, nodes.length); ; k = Math.min(k * 2, nodes.length)) {
+			int[] order = new int[k];
+			int n = nearest(point, k, order);
+			for (int i = checked; i < n; i++)
+				if (order[i] != hidden && lineOfSight.check(point, nodes[order[i]].position))
+					return nodes[order[i]];
+			checked = n;
+			if (k == nodes.length)
+				return null;
+		}
+	}
+
+	private Cell getCell(Vector3f point) {
+		int cx = (int) Math.floor(point.x / CELL_SIZE);
+		int cy = (int) Math.floor(point.y / CELL_SIZE);
+		int cz = (int) Math.floor(point.z / CELL_SIZE);
+		int key = (cx * 73856093) ^ (cy * 19349663) ^ (cz * 83492791);
+
+		Cell cell;
+		synchronized (cells) {
+			cell = cells.get(key);
+		}
+		if (cell != null && cell.cx == cx && cell.cy == cy && cell.cz == cz)
+			return cell;
+
+		// first query in this cell (or another cell with the same key); another thread might do the same, which is harmless
+		Vector3f centre = new Vector3f((cx + 0.5f) * CELL_SIZE, (cy + 0.5f) * CELL_SIZE, (cz + 0.5f) * CELL_SIZE);
+		int[] near = new int[Math.min(CANDIDATES, nodes.length)];
+		int n = nearest(centre, near.length, near);
+		int seen = 0;
+		for (int i = 0; i < n; i++)
+			if (lineOfSight.check(centre, nodes[near[i]].position))
+				near[seen++] = near[i];
+		cell = new Cell(cx, cy, cz, Arrays.copyOf(near, seen));
+
+		synchronized (cells) {
+			if (cells.size() >= MAX_CACHED_CELLS)
+				cells.clear();
+			cells.put(key, cell);
+		}
+		return cell;
+	}
+
+	/**
+	 * @return the number of cells whose visibility is remembered
+	 */
+	public int getCachedCellCount() {
+		synchronized (cells) {
+			return cells.size();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import world.ai.PathRequest;
+
+/**
+ * PathRequestService finds paths through a PathGraph on a pool of worker threads, so that searching
+ * never holds up a tick, and the number of paths found per second grows with the number of cores.
+ *
+ * PathGraphs do not change, so the workers can search them while the World changes. Finding the
+ * nodes to search between needs line of sight checks against the scene, which is only safe while
+ * mobs think, so that is still done by the Pathfinder before submitting a request.
+ *
+ * World calls update at the start of each tick, which makes the requests whose paths have been found
+ * since the last tick done.
+ */
+public class PathRequestService {
+	/**
+	 * The number of worker threads.
+	 */
+	public static int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private ExecutorService pool;
+	private final List<PathRequest> pending = new ArrayList<PathRequest>();
+
+	/**
+	 * Starts finding a path. May be called from several threads at once.
+	 *
+	 * @param graph the graph to search
+	 * @param from the index of the node to start at
+	 * @param to the index of the node to finish at
+	 * @return the request, which will become done at the start of a later tick
+	 */
+	public PathRequest submit(final PathGraph graph, final int from, final int to) {
+		PathRequest request;
+		synchronized (pending) {
+			if (pool == null)
+				pool = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "Pathfinding thread");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			request = new PathRequest(pool.submit(new Callable<world.ai.PathNode>() {
+				@Override
+				public world.ai.PathNode call() {
+					return graph.findPath(from, to);
+				}
+			}));
+			pending.add(request);
+		}
+		return request;
+	}
+
+	/**
+	 * Makes every request whose path has been found (or that was cancelled) done.
+	 */
+	public void update() {
+		synchronized (pending) {
+			for (int i = pending.size() - 1; i >= 0; i--) {
+				if (pending.get(i).poll()) {
+					// order doesn't matter, so fill the hole with the last request
+					pending.set(i, pending.get(pending.size() - 1));
+					pending.remove(pending.size() - 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of requests that are not done yet
+	 */
+	public int getPendingCount() {
+		synchronized (pending) {
+			return pending.size();
+		}
+	}
+
+	/**
+	 * Stops the worker threads. Requests that are not done yet never will be.
+	 */
+	public void shutdown() {
+		synchronized (pending) {
+			if (pool != null) {
+				pool.shutdownNow();
+				pool = null;
+			}
+			pending.clear();
+		}
+	}
+}
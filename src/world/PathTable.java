@@ -0,0 +1,110 @@
+package world;
+
+import java.util.Collection;
+
+/**
+ * PathTable holds the shortest distance and the next hop between every pair of PathNodes, so that
+ * a path can be found by walking the table instead of searching the graph.
+ *
+ * It is baked once, after the path graph has been linked (the graph does not change after that),
+ * as a FlowField leading to each node. Baking runs Dijkstra's algorithm backwards from each node,
+ * so it takes O(N * E log N) time, and the table takes O(N^2) space; World only bakes one for
+ * graphs of up to MAX_NODES nodes.
+ *
+ * route walks the table into a new linked list for each query, so nothing is kept per pair of
+ * nodes beyond the distance and next hop.
+ */
+public class PathTable {
+	/**
+	 * The most nodes a PathTable can hold.
+	 */
+	public static final int MAX_NODES = 2048;
+
+	private final PathGraph graph;
+
+	// fields[to] leads to the node with index to
+	private final FlowField[] fields;
+
+	/**
+	 * Bakes the table for the passed nodes, whose neighbours must already be linked.
+	 * Neighbours that are not among the passed nodes are ignored.
+	 *
+	 * @param graph the nodes of the graph
+	 */
+	public PathTable(Collection<PathNode> graph) {
+		this(new PathGraph(graph));
+	}
+
+	/**
+	 * Bakes the table for the passed graph.
+	 */
+	public PathTable(PathGraph graph) {
+		if (graph.size() > MAX_NODES) throw new IllegalArgumentException(graph.size() + " nodes is more than " + MAX_NODES);
+		this.graph = graph;
+		fields = new FlowField[graph.size()];
+		for (int to = 0; to < fields.length; to++)
+			fields[to] = new FlowField(graph, to);
+	}
+
+	// QUERIES
+
+	/**
+	 * @return the number of nodes in the table
+	 */
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * @return true if the passed node was in the graph the table was baked from
+	 */
+	public boolean contains(PathNode node) {
+		return graph.indexOf(node) >= 0;
+	}
+
+	/**
+	 * @return the graph the table was baked from
+	 */
+	public PathGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the field leading to the passed node, or null if it is not in the table
+	 */
+	public FlowField getField(PathNode to) {
+		int t = graph.indexOf(to);
+		return t < 0 ? null : fields[t];
+	}
+
+	/**
+	 * @return the length of the shortest path between the passed nodes, or Float.POSITIVE_INFINITY if
+	 * there is none or either node is not in the table
+	 */
+	public float getDistance(PathNode from, PathNode to) {
+		FlowField field = getField(to);
+		return field == null ? Float.POSITIVE_INFINITY : field.getDistance(from);
+	}
+
+	/**
+	 * @return the node after from on the shortest path to to (to itself, if from is to), or null if there
+	 * is no path or either node is not in the table
+	 */
+	public PathNode getNextHop(PathNode from, PathNode to) {
+		FlowField field = getField(to);
+		return field == null ? null : field.getNextHop(from);
+	}
+
+	/**
+	 * Finds the shortest path between two nodes.
+	 *
+	 * @param from the node to start at
+	 * @param to the node to finish at
+	 * @return a new linked list of the positions of the nodes on the path, including both ends, or null if
+	 * there is no path or either node is not in the table. The positions must not be modified.
+	 */
+	public world.ai.PathNode route(PathNode from, PathNode to) {
+		FlowField field = getField(to);
+		return field == null ? null : field.route(from);
+	}
+}
@@ -0,0 +1,80 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jme3.bullet.PhysicsSpace;
+import com.jme3.bullet.PhysicsTickListener;
+import com.jme3.math.Vector3f;
+
+/**
+ * PhysicsTickDispatcher is the World's only listener for physics ticks, doing the per-substep work
+ * that actors, their physics controls and inventories used to do with a listener each.
+ *
+ * Before each physics substep it checks every actor's position in one pass, and moves any actor
+ * that has fallen through the world back to the spawn point. In the same pass it calls each actor's
+ * ForceCharacterControl, which applies its walk direction (plus any force), and afterwards calls
+ * physicsTick only on the controls that still have a force, which are usually few. It also pushes items
+ * that were dropped since the last substep, calling only the inventories that have a drop
+ * pending (see Inventory.dropItem).
+ */
+public class PhysicsTickDispatcher implements PhysicsTickListener {
+	/**
+	 * The height below which an actor has fallen out of the world.
+	 */
+	public static float FALL_LIMIT = -1000;
+
+	private final World world;
+	private final List<Inventory> pendingDrops = new ArrayList<Inventory>();
+	private final Vector3f location = new Vector3f();
+	private final List<ForceCharacterControl> forced = new ArrayList<ForceCharacterControl>();
+
+	/**
+	 * @param world the World whose actors and inventories this handles
+	 */
+	public PhysicsTickDispatcher(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Makes the passed inventory apply its pending drop before the next physics substep.
+	 */
+	public void addPendingDrop(Inventory inventory) {
+		if (!pendingDrops.contains(inventory))
+			pendingDrops.add(inventory);
+	}
+
+	@Override
+	public void prePhysicsTick(PhysicsSpace space, float tpf) {
+		// if an actor falls through the world, teleport it to spawn
+		EntityView<Actor> actors = world.getEntityView(Actor.class);
+		boolean client = world.getWorldType() == WorldType.CLIENT;
+		forced.clear();
+		for (int i = 0; i < actors.size(); i++) {
+			Actor a = actors.get(i);
+			ForceCharacterControl physics = a.physics;
+			if (physics == null)
+				continue;
+			physics.getPhysicsLocation(location);
+			if (location.y < FALL_LIMIT && (!client || a == world.getPlayer()))
+				a.setLocation(world.getSpawnPoint());
+
+			// every control needs this, since it is what passes the walk direction on to Bullet
+			if (physics.getPhysicsSpace() == space) {
+				physics.prePhysicsTick(space, tpf);
+				if (physics.hasForce())
+					forced.add(physics);
+			}
+		}
+
+		for (int i = 0; i < pendingDrops.size(); i++)
+			pendingDrops.get(i).applyPendingDrop();
+		pendingDrops.clear();
+	}
+
+	@Override
+	public void physicsTick(PhysicsSpace space, float tpf) {
+		for (int i = 0; i < forced.size(); i++)
+			forced.get(i).physicsTick(space, tpf);
+	}
+}
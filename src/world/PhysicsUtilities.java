@@ -1,14 +1,19 @@
 package world;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import com.jme3.collision.CollisionResult;
 import com.jme3.collision.CollisionResults;
 import com.jme3.math.Ray;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
 
 /**
  * PhysicsUtilities is a utility class with many static methods for observing geometry-based world
@@ -18,10 +23,62 @@ import com.jme3.scene.Node;
  * as that would have unexpected side-effects depending on when in the physics-render cycle
  * these methods were called.
  * 
+ * Raycasts are safe to call from several threads at once (as World does when mob AI thinks in
+ * parallel), as long as nothing changes the scene graph meanwhile. JMonkey's own collideWith
+ * updates cached transforms and builds collision data as it goes, so raycasts here walk the scene
+ * graph themselves and only read it. That needs the work JMonkey would have done lazily to be done
+ * beforehand on the game thread: World calls updateGeometricState on its root before mobs think,
+ * and prepareCollision on each entity's spatial when it is added.
+ * 
  * @author Tony 300242775
  */
 public class PhysicsUtilities {
 
+	// meshes whose collision data has been built; weak, so meshes that are no longer used can be collected
+	private static final Set<Mesh> preparedMeshes = Collections.newSetFromMap(new WeakHashMap<Mesh, Boolean>());
+
+	/**
+	 * Builds the collision data of every mesh under the passed Spatial that doesn't have it yet,
+	 * so that raycasts don't build it while other threads are reading it. Must be called on the
+	 * game thread.
+	 *
+	 * @param spatial the Spatial that has been added to the scene graph
+	 */
+	public static void prepareCollision (Spatial spatial) {
+		if (spatial instanceof Node) {
+			for (Spatial child : ((Node) spatial).getChildren())
+				prepareCollision(child);
+		} else if (spatial instanceof Geometry) {
+			Mesh mesh = ((Geometry) spatial).getMesh();
+			synchronized (preparedMeshes) {
+				if (mesh != null && mesh.getVertexCount() > 0 && preparedMeshes.add(mesh))
+					mesh.createCollisionData();
+			}
+		}
+	}
+
+	/**
+	 * Collides the passed Ray with everything under the passed Spatial. Unlike Spatial.collideWith,
+	 * this only reads the scene graph, using the world transforms and bounds from the last
+	 * updateGeometricState, so it can be called from several threads at once.
+	 */
+	private static void collide(Spatial spatial, Ray ray, CollisionResults results) {
+		if (spatial instanceof Node) {
+			List<Spatial> children = ((Node) spatial).getChildren();
+			for (int i = 0; i < children.size(); i++)
+				collide(children.get(i), ray, results);
+		} else if (spatial instanceof Geometry) {
+			Geometry geometry = (Geometry) spatial;
+			Mesh mesh = geometry.getMesh();
+			if (mesh == null || mesh.getVertexCount() == 0)
+				return;
+			int before = results.size();
+			mesh.collideWith(ray, geometry.getWorldMatrix(), geometry.getWorldBound(), results);
+			for (int i = before; i < results.size(); i++)
+				results.getCollisionDirect(i).setGeometry(geometry);
+		}
+	}
+
 	/**
 	 * Performs a raycast from the given vector in the given direction in the geometry space
 	 * of the given Node. Returns true if the first collision is with the given target Entity,
@@ -36,7 +93,7 @@ public class PhysicsUtilities {
 	public static boolean raycast(Vector3f from, Vector3f direction, Entity target, Node root) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(from, direction);
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 
 		if (results.size() > 0) {
 			CollisionResult closest = results.getClosestCollision();
@@ -67,7 +124,7 @@ public class PhysicsUtilities {
 	public static float nearest (Vector3f from, Vector3f direction, Node root) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(from, direction);
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 
 		for (CollisionResult result : results) {
 			if (result.getGeometry().getUserData("entity") instanceof RigidEntity)
@@ -77,6 +134,27 @@ public class PhysicsUtilities {
 		return -1;
 	}
 	
+	/**
+	 * Performs a raycast straight down from the given vector in the geometry space of the given
+	 * Node, and adds every collision with an immovable entity, such as the terrain or a building,
+	 * to the passed list, nearest (highest) first.
+	 * 
+	 * @param from the position to start the ray
+	 * @param root the Node containing all Geometries to be considered
+	 * @param out the list to add the collisions to
+	 */
+	public static void immovableBelow (Vector3f from, Node root, List<CollisionResult> out) {
+		CollisionResults results = new CollisionResults();
+		Ray ray = new Ray(from, new Vector3f(0, -1, 0));
+		collide(root, ray, results);
+
+		for (CollisionResult result : results) {
+			Entity entity = result.getGeometry().getUserData("entity");
+			if (entity != null && entity.isImmovableEntity())
+				out.add(result);
+		}
+	}
+	
 	/**
 	 * Performs a raycast between two vectors, and determines if there is line-of-sight between them.
 	 * This is done by determining if there are any line-of-sight blocking objects that intersect the
@@ -91,7 +169,7 @@ public class PhysicsUtilities {
 	public static boolean checkLineOfSight(Vector3f from, Vector3f to, Node root, boolean ignoreMovableEntities) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(from, to.subtract(from).normalizeLocal());
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 		
 		float maxDistSq = to.distanceSquared(from);
 
@@ -121,7 +199,7 @@ public class PhysicsUtilities {
 	public static List<Entity> raycast(Vector3f from, Vector3f direction, Node root) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(from, direction);
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 		
 		List<Entity> hit = new ArrayList<Entity> ();
 
@@ -152,7 +230,7 @@ public class PhysicsUtilities {
 	public static List<EntityHitResult> raycastHitResult (Vector3f from, Vector3f direction, Node root) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(from, direction);
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 		
 		List<EntityHitResult> hit = new ArrayList<EntityHitResult> ();
 
@@ -208,7 +286,7 @@ public class PhysicsUtilities {
 	public static boolean canSeePlayer(Vector3f location, Actor player, Node root) {
 		CollisionResults results = new CollisionResults();
 		Ray ray = new Ray(location, player.getLocation().subtract(location));
-		root.collideWith(ray, results);
+		collide(root, ray, results);
 
 		for (CollisionResult result : results) {
 			Entity e = result.getGeometry().getUserData("entity");
@@ -547,7 +547,6 @@ public class Player extends Actor implements AnimEventListener, Container {
 	@Override
 	public void linkToWorld(World world, Vector3f location, int id) {
 		equipment.linkToWorld(world);
-		world.getPhysicsSpace().addTickListener(inventory);
 		super.linkToWorld(world, location, id);
 	}
 
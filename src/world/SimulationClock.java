@@ -0,0 +1,166 @@
+package world;
+
+/**
+ * SimulationClock converts the variable frame times handed over by JMonkey into a whole
+ * number of fixed-length simulation steps, so that game logic (AI, spawning, time of day)
+ * runs at the same rate regardless of frame rate.
+ *
+ * Leftover frame time is carried over in an accumulator. If a slow frame would need more
+ * than the maximum number of catch-up steps, the excess time is dropped rather than making
+ * the next frames slower still. The fraction of a step left in the accumulator is available
+ * from getAlpha, for interpolating between steps; nothing renders with it yet, as Bullet moves
+ * the spatials of physics objects every frame itself.
+ *
+ * SimulationClock also records how long each step takes to run, so tick cost can be monitored.
+ */
+public class SimulationClock {
+	/**
+	 * The default number of simulation steps per second.
+	 */
+	public static float DEFAULT_TICK_RATE = 30;
+
+	/**
+	 * The default maximum number of simulation steps run in a single frame.
+	 */
+	public static int DEFAULT_MAX_CATCHUP_STEPS = 5;
+
+	private float stepLength;
+	private int maxCatchUpSteps;
+	private float accumulator;
+	private float alpha;
+
+	private float droppedTime;
+	private long stepCount;
+	private long lastStepNanos;
+	private long maxStepNanos;
+	private long totalStepNanos;
+
+	public SimulationClock() {
+		this(DEFAULT_TICK_RATE, DEFAULT_MAX_CATCHUP_STEPS);
+	}
+
+	/**
+	 * @param tickRate the number of simulation steps per second
+	 * @param maxCatchUpSteps the maximum number of steps to run in a single frame
+	 */
+	public SimulationClock(float tickRate, int maxCatchUpSteps) {
+		setTickRate(tickRate);
+		setMaxCatchUpSteps(maxCatchUpSteps);
+	}
+
+	/**
+	 * Adds the passed frame time to the accumulator and returns the number of fixed
+	 * steps that should now be run.
+	 *
+	 * @param frameTime the real time since the last frame, in seconds
+	 * @return the number of steps of getStepLength() seconds to run
+	 */
+	public int advance(float frameTime) {
+		if (frameTime > 0)
+			accumulator += frameTime;
+
+		int steps = (int) (accumulator / stepLength);
+		if (steps > maxCatchUpSteps) {
+			droppedTime += (steps - maxCatchUpSteps) * stepLength;
+			steps = maxCatchUpSteps;
+		}
+		accumulator -= (int) (accumulator / stepLength) * stepLength;
+		alpha = accumulator / stepLength;
+		return steps;
+	}
+
+	/**
+	 * Records how long a single step took to run.
+	 *
+	 * @param nanos the duration of the step in nanoseconds
+	 */
+	public void recordStep(long nanos) {
+		stepCount++;
+		lastStepNanos = nanos;
+		totalStepNanos += nanos;
+		if (nanos > maxStepNanos)
+			maxStepNanos = nanos;
+	}
+
+	/**
+	 * Resets the step duration statistics.
+	 */
+	public void resetStatistics() {
+		stepCount = lastStepNanos = maxStepNanos = totalStepNanos = 0;
+		droppedTime = 0;
+	}
+
+	// GETTERS AND SETTERS
+
+	/**
+	 * @return the length of one simulation step, in seconds
+	 */
+	public float getStepLength() {
+		return stepLength;
+	}
+
+	/**
+	 * @return the number of simulation steps per second
+	 */
+	public float getTickRate() {
+		return 1 / stepLength;
+	}
+
+	/**
+	 * @param tickRate the number of simulation steps per second
+	 */
+	public void setTickRate(float tickRate) {
+		if (!(tickRate > 0)) throw new IllegalArgumentException("tick rate must be positive");
+		this.stepLength = 1 / tickRate;
+	}
+
+	/**
+	 * @param maxCatchUpSteps the maximum number of steps to run in a single frame
+	 */
+	public void setMaxCatchUpSteps(int maxCatchUpSteps) {
+		if (maxCatchUpSteps < 1) throw new IllegalArgumentException("must allow at least one step per frame");
+		this.maxCatchUpSteps = maxCatchUpSteps;
+	}
+
+	/**
+	 * @return how far between the last step and the next one the current frame is, from 0 to 1
+	 */
+	public float getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * @return the total simulation time, in seconds, dropped because frames were too slow
+	 */
+	public float getDroppedTime() {
+		return droppedTime;
+	}
+
+	/**
+	 * @return the number of steps recorded
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * @return the duration of the last step, in nanoseconds
+	 */
+	public long getLastStepNanos() {
+		return lastStepNanos;
+	}
+
+	/**
+	 * @return the duration of the longest step, in nanoseconds
+	 */
+	public long getMaxStepNanos() {
+		return maxStepNanos;
+	}
+
+	/**
+	 * @return the mean duration of a step, in nanoseconds
+	 */
+	public long getAverageStepNanos() {
+		return stepCount == 0 ? 0 : totalStepNanos / stepCount;
+	}
+}
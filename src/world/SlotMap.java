@@ -0,0 +1,207 @@
+package world;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * SlotMap is a dense, array-backed collection used by World to store entities and effects.
+ * Adding and removing are O(1) and never copy the backing array (except to grow it), unlike
+ * the CopyOnWriteArraySets it replaces.
+ *
+ * Every object in a SlotMap has a stable int handle that can be used to look it up. Removing
+ * an object leaves a hole that is skipped by iteration; holes are only filled in by compact(),
+ * which World calls once per tick when nothing is iterating. Until then, objects keep their
+ * position in the backing array.
+ *
+ * Iterators are weakly consistent: they never throw ConcurrentModificationException, they do
+ * not return objects removed after the iterator was created, and they do not return objects
+ * added after the iterator was created. This makes it safe to add and remove objects while
+ * iterating, as World.gameTick does, as long as compact() isn't called in the meantime.
+ *
+ * @param <T> the type of object stored
+ */
+public class SlotMap<T> extends AbstractCollection<T> {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Object[] items = new Object[INITIAL_CAPACITY];
+	private int[] handleAt = new int[INITIAL_CAPACITY]; // dense index -> handle
+	private int end; // one past the last used dense index
+	private int count; // number of objects, not counting holes
+
+	private int[] denseOf = new int[INITIAL_CAPACITY]; // handle -> dense index
+	private int[] freeHandles = new int[INITIAL_CAPACITY];
+	private int numFreeHandles;
+	private int nextHandle;
+
+	private final Map<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+
+	// MODIFICATION
+
+	/**
+	 * Adds the passed object, if it isn't already present.
+	 *
+	 * @return true if the object was added
+	 */
+	@Override
+	public boolean add(T item) {
+		if (item == null) throw new NullPointerException("item is null");
+		if (handles.containsKey(item))
+			return false;
+
+		int handle = numFreeHandles > 0 ? freeHandles[--numFreeHandles] : nextHandle++;
+		if (handle >= denseOf.length)
+			denseOf = Arrays.copyOf(denseOf, denseOf.length * 2);
+
+		if (end == items.length) {
+			items = Arrays.copyOf(items, items.length * 2);
+			handleAt = Arrays.copyOf(handleAt, handleAt.length * 2);
+		}
+
+		items[end] = item;
+		handleAt[end] = handle;
+		denseOf[handle] = end;
+		end++;
+		count++;
+		handles.put(item, handle);
+		return true;
+	}
+
+	/**
+	 * Removes the passed object, leaving a hole until the next compact().
+	 *
+	 * @return true if the object was present
+	 */
+	@Override
+	public boolean remove(Object item) {
+		Integer handle = handles.remove(item);
+		if (handle == null)
+			return false;
+
+		int dense = denseOf[handle];
+		items[dense] = null;
+		handleAt[dense] = -1;
+		count--;
+
+		if (numFreeHandles == freeHandles.length)
+			freeHandles = Arrays.copyOf(freeHandles, freeHandles.length * 2);
+		freeHandles[numFreeHandles++] = handle;
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(items, 0, end, null);
+		Arrays.fill(handleAt, 0, end, -1);
+		handles.clear();
+		end = count = numFreeHandles = nextHandle = 0;
+	}
+
+	/**
+	 * Fills in the holes left by removed objects by moving objects from the end of the
+	 * backing array. This changes iteration order, so must not be called while anything
+	 * is iterating over this SlotMap.
+	 */
+	public void compact() {
+		if (count == end)
+			return;
+
+		int hole = 0;
+		while (true) {
+			// drop trailing holes, then find the first hole
+			while (end > 0 && items[end - 1] == null)
+				end--;
+			while (hole < end && items[hole] != null)
+				hole++;
+			if (hole >= end)
+				break;
+
+			// move the last live object into the hole
+			items[hole] = items[end - 1];
+			handleAt[hole] = handleAt[end - 1];
+			denseOf[handleAt[hole]] = hole;
+			items[end - 1] = null;
+			handleAt[end - 1] = -1;
+			end--;
+		}
+	}
+
+	// ACCESS
+
+	/**
+	 * @param item the object to get the handle of
+	 * @return the passed object's handle, or -1 if it isn't in this SlotMap
+	 */
+	public int getHandle(Object item) {
+		Integer handle = handles.get(item);
+		return handle == null ? -1 : handle;
+	}
+
+	/**
+	 * Handles of removed objects are reused, so this may return a different object to the
+	 * one the handle was obtained from if that object has since been removed.
+	 *
+	 * @param handle the handle of the object to get
+	 * @return the object with the passed handle, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int handle) {
+		if (handle < 0 || handle >= nextHandle)
+			return null;
+		int dense = denseOf[handle];
+		if (handleAt[dense] != handle)
+			return null;
+		return (T) items[dense];
+	}
+
+	@Override
+	public boolean contains(Object item) {
+		return handles.containsKey(item);
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private final int limit = end;
+			private int next = advance(0);
+			private T last;
+
+			private int advance(int from) {
+				while (from < limit && items[from] == null)
+					from++;
+				return from;
+			}
+
+			@Override
+			public boolean hasNext() {
+				next = advance(next);
+				return next < limit;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public T next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				last = (T) items[next++];
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException();
+				SlotMap.this.remove(last);
+				last = null;
+			}
+		};
+	}
+}
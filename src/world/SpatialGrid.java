@@ -0,0 +1,343 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * SpatialGrid is a uniform-grid spatial hash used by World to answer proximity queries
+ * (nearest, k-nearest and radius) without scanning every object in the world.
+ *
+ * Objects are bucketed by the column of the x/z plane they occupy. The y coordinate is
+ * ignored for bucketing, since the game world has little y-variation, but it is still
+ * included in all distance calculations.
+ *
+ * Nearest queries visit cells in rings of increasing distance and apply the Filter to
+ * candidates in nearest-first order, so an expensive Filter (eg. a line of sight check)
+ * is only run on as many candidates as necessary.
+ *
+ * @param <T> the type of object stored in this grid
+ */
+public class SpatialGrid<T> {
+
+	/**
+	 * A Filter decides whether an object should be considered by a query.
+	 */
+	public interface Filter<T> {
+		/**
+		 * @param item the object to test
+		 * @return true if the object should be considered by the query
+		 */
+		public boolean accept(T item);
+	}
+
+	private static class Slot<T> {
+		T item;
+		float x, y, z;
+		int cx, cz;
+		int index;
+	}
+
+	private static class Candidate<T> implements Comparable<Candidate<T>> {
+		final Slot<T> slot;
+		final float distSq;
+
+		Candidate(Slot<T> slot, float distSq) {
+			this.slot = slot;
+			this.distSq = distSq;
+		}
+
+		@Override
+		public int compareTo(Candidate<T> o) {
+			return Float.compare(distSq, o.distSq);
+		}
+	}
+
+	private final float cellSize;
+	private final Map<Long, List<Slot<T>>> cells = new HashMap<Long, List<Slot<T>>>();
+	private final Map<T, Slot<T>> slots = new IdentityHashMap<T, Slot<T>>();
+
+	// bounds of every cell that has ever been occupied, used to stop searches early
+	private int minCX = Integer.MAX_VALUE, minCZ = Integer.MAX_VALUE;
+	private int maxCX = Integer.MIN_VALUE, maxCZ = Integer.MIN_VALUE;
+
+	/**
+	 * @param cellSize the width of each (square) grid cell
+	 */
+	public SpatialGrid(float cellSize) {
+		if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+		this.cellSize = cellSize;
+	}
+
+	// UPDATING
+
+	/**
+	 * Adds the passed object to this grid at the passed position, or moves it
+	 * there if it is already in the grid.
+	 *
+	 * @param item the object to add or move
+	 * @param position the object's current position
+	 */
+	public void put(T item, Vector3f position) {
+		if (item == null) throw new NullPointerException("item is null");
+		if (position == null) throw new NullPointerException("position is null");
+
+		Slot<T> s = slots.get(item);
+		int cx = cellOf(position.x), cz = cellOf(position.z);
+
+		if (s == null) {
+			s = new Slot<T>();
+			s.item = item;
+			slots.put(item, s);
+		} else if (s.cx != cx || s.cz != cz) {
+			removeFromCell(s);
+		} else {
+			s.x = position.x; s.y = position.y; s.z = position.z;
+			return;
+		}
+
+		s.x = position.x; s.y = position.y; s.z = position.z;
+		s.cx = cx; s.cz = cz;
+		addToCell(s);
+	}
+
+	/**
+	 * Removes the passed object from this grid.
+	 *
+	 * @param item the object to remove
+	 * @return true if the object was in this grid
+	 */
+	public boolean remove(T item) {
+		Slot<T> s = slots.remove(item);
+		if (s == null)
+			return false;
+		removeFromCell(s);
+		return true;
+	}
+
+	/**
+	 * @param item the object to look for
+	 * @return true if the passed object is in this grid
+	 */
+	public boolean contains(T item) {
+		return slots.containsKey(item);
+	}
+
+	/**
+	 * @return the number of objects in this grid
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * Removes every object from this grid.
+	 */
+	public void clear() {
+		slots.clear();
+		cells.clear();
+		minCX = minCZ = Integer.MAX_VALUE;
+		maxCX = maxCZ = Integer.MIN_VALUE;
+	}
+
+	// QUERIES
+
+	/**
+	 * Returns the object closest to the passed point that is accepted by the passed Filter.
+	 * The Filter is applied in nearest-first order, and not applied to any object further
+	 * away than the returned one.
+	 *
+	 * @param point the point to search around
+	 * @param filter the Filter objects must pass, or null to accept everything
+	 * @return the closest accepted object, or null if there is none
+	 */
+	public T nearest(Vector3f point, Filter<? super T> filter) {
+		List<T> out = new ArrayList<T>(1);
+		nearest(point, 1, filter, out);
+		return out.isEmpty() ? null : out.get(0);
+	}
+
+	/**
+	 * Adds the (at most) k objects closest to the passed point that are accepted by the
+	 * passed Filter to out, in nearest-first order.
+	 *
+	 * @param point the point to search around
+	 * @param k the maximum number of objects to find
+	 * @param filter the Filter objects must pass, or null to accept everything
+	 * @param out the Collection to add found objects to
+	 * @return out
+	 */
+	public <C extends Collection<? super T>> C nearest(Vector3f point, int k, Filter<? super T> filter, C out) {
+		if (k <= 0 || slots.isEmpty())
+			return out;
+
+		int cx = cellOf(point.x), cz = cellOf(point.z);
+		int maxRing = Math.max(Math.max(cx - minCX, maxCX - cx), Math.max(cz - minCZ, maxCZ - cz));
+		PriorityQueue<Candidate<T>> pending = new PriorityQueue<Candidate<T>>();
+
+		int found = 0;
+		int visited = 0;
+		for (int r = 0; ; r++) {
+			float bound;
+			if (r > maxRing) {
+				bound = Float.POSITIVE_INFINITY; // every cell has been seen
+			} else if (visited > slots.size()) {
+				// the grid is sparse around this point, so it's cheaper to look at everything left
+				for (Slot<T> s : slots.values())
+					if (Math.max(Math.abs(s.cx - cx), Math.abs(s.cz - cz)) >= r)
+						pending.add(new Candidate<T>(s, distSq(s, point)));
+				bound = Float.POSITIVE_INFINITY;
+			} else {
+				visited += visitRing(cx, cz, r, point, pending);
+				// any cell not yet visited is at least this far away
+				bound = r * cellSize;
+			}
+
+			float boundSq = bound * bound;
+			while (!pending.isEmpty() && pending.peek().distSq <= boundSq) {
+				Slot<T> s = pending.poll().slot;
+				if (filter == null || filter.accept(s.item)) {
+					out.add(s.item);
+					if (++found == k)
+						return out;
+				}
+			}
+
+			if (bound == Float.POSITIVE_INFINITY)
+				return out;
+		}
+	}
+
+	/**
+	 * Adds all objects within the passed radius of the passed point that are accepted
+	 * by the passed Filter to out, in no particular order.
+	 *
+	 * @param centre the centre of the area to search
+	 * @param radius the radius around the centre to search
+	 * @param filter the Filter objects must pass, or null to accept everything
+	 * @param out the Collection to add found objects to
+	 * @return out
+	 */
+	public <C extends Collection<? super T>> C inRadius(Vector3f centre, float radius, Filter<? super T> filter, C out) {
+		if (slots.isEmpty())
+			return out;
+
+		float radiusSq = radius * radius;
+		int x0 = Math.max(cellOf(centre.x - radius), minCX), x1 = Math.min(cellOf(centre.x + radius), maxCX);
+		int z0 = Math.max(cellOf(centre.z - radius), minCZ), z1 = Math.min(cellOf(centre.z + radius), maxCZ);
+
+		if ((long)(x1 - x0 + 1) * (z1 - z0 + 1) > slots.size()) {
+			for (Slot<T> s : slots.values())
+				if (distSq(s, centre) <= radiusSq && (filter == null || filter.accept(s.item)))
+					out.add(s.item);
+			return out;
+		}
+
+		for (int x = x0; x <= x1; x++) {
+			for (int z = z0; z <= z1; z++) {
+				List<Slot<T>> cell = cells.get(key(x, z));
+				if (cell == null)
+					continue;
+				for (int i = 0; i < cell.size(); i++) {
+					Slot<T> s = cell.get(i);
+					if (distSq(s, centre) <= radiusSq && (filter == null || filter.accept(s.item)))
+						out.add(s.item);
+				}
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns a Filter that accepts instances of the passed class, except for the passed object.
+	 *
+	 * @param clazz the class objects must be instances of
+	 * @param exclude an object that is never accepted, or null
+	 * @return the Filter
+	 */
+	public static <T> Filter<T> classFilter(final Class<?> clazz, final Object exclude) {
+		return new Filter<T>() {
+			@Override
+			public boolean accept(T item) {
+				return item != exclude && clazz.isInstance(item);
+			}
+		};
+	}
+
+	// HELPERS
+
+	private int visitRing(int cx, int cz, int r, Vector3f point, PriorityQueue<Candidate<T>> pending) {
+		if (r == 0)
+			return visitCell(cx, cz, point, pending);
+
+		int n = 0;
+		for (int i = -r; i <= r; i++) {
+			n += visitCell(cx + i, cz - r, point, pending);
+			n += visitCell(cx + i, cz + r, point, pending);
+		}
+		for (int i = -r + 1; i <= r - 1; i++) {
+			n += visitCell(cx - r, cz + i, point, pending);
+			n += visitCell(cx + r, cz + i, point, pending);
+		}
+		return n;
+	}
+
+	private int visitCell(int x, int z, Vector3f point, PriorityQueue<Candidate<T>> pending) {
+		if (x < minCX || x > maxCX || z < minCZ || z > maxCZ)
+			return 0;
+		List<Slot<T>> cell = cells.get(key(x, z));
+		if (cell != null)
+			for (int i = 0; i < cell.size(); i++)
+				pending.add(new Candidate<T>(cell.get(i), distSq(cell.get(i), point)));
+		return 1;
+	}
+
+	private void addToCell(Slot<T> s) {
+		Long k = key(s.cx, s.cz);
+		List<Slot<T>> cell = cells.get(k);
+		if (cell == null) {
+			cell = new ArrayList<Slot<T>>(4);
+			cells.put(k, cell);
+		}
+		s.index = cell.size();
+		cell.add(s);
+
+		if (s.cx < minCX) minCX = s.cx;
+		if (s.cx > maxCX) maxCX = s.cx;
+		if (s.cz < minCZ) minCZ = s.cz;
+		if (s.cz > maxCZ) maxCZ = s.cz;
+	}
+
+	private void removeFromCell(Slot<T> s) {
+		Long k = key(s.cx, s.cz);
+		List<Slot<T>> cell = cells.get(k);
+
+		// swap the last slot into this one's place so removal is O(1)
+		Slot<T> last = cell.remove(cell.size() - 1);
+		if (last != s) {
+			cell.set(s.index, last);
+			last.index = s.index;
+		}
+		if (cell.isEmpty())
+			cells.remove(k);
+	}
+
+	private int cellOf(float v) {
+		return (int) Math.floor(v / cellSize);
+	}
+
+	private static long key(int cx, int cz) {
+		return ((long) cx << 32) | (cz & 0xffffffffL);
+	}
+
+	private static float distSq(Slot<?> s, Vector3f p) {
+		float dx = s.x - p.x, dy = s.y - p.y, dz = s.z - p.z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+}
@@ -0,0 +1,295 @@
+package world;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.collision.CollisionResult;
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.export.Savable;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+
+/**
+ * SpawnGrid records, for each square cell of the x/z plane, the height of the ground and whether
+ * a mob can be spawned there, so MobSpawnController can place mobs on the ground and outside
+ * buildings in constant time, without raycasting.
+ *
+ * It is baked when the map is first loaded, by casting a ray down through the centre of each
+ * cell, and saved with the map's NavigationBake. A cell's height is that of the first surface of
+ * an immovable entity the ray hits. The cell is walkable if the lowest surface the ray hits that
+ * faces up (is no steeper than MAX_SLOPE_NORMAL_Y) is within MAX_STEP of that height, so the
+ * ground under a roof or inside a building isn't walkable, and nor is the roof. A cell is free
+ * if it is walkable and the height of each of its eight neighbours is within MAX_STEP of it,
+ * which keeps spawns away from walls and the edges of cliffs.
+ */
+public class SpawnGrid implements Savable {
+	/**
+	 * The default cell size used when baking.
+	 */
+	public static float DEFAULT_CELL_SIZE = 4;
+
+	/**
+	 * The most cells a baked grid has along each axis; the cell size is increased to fit.
+	 */
+	public static int MAX_CELLS_PER_AXIS = 256;
+
+	/**
+	 * The smallest y component of the normal of a surface a mob can be spawned on.
+	 */
+	public static float MAX_SLOPE_NORMAL_Y = 0.7f;
+
+	/**
+	 * The largest difference in ground height between a free cell and its neighbours.
+	 */
+	public static float MAX_STEP = 2;
+
+	private float minX, minZ, cellSize;
+	private int width, depth;
+	private float[] heights;
+	private boolean[] walkable;
+	private boolean[] free;
+
+	public SpawnGrid() {}
+
+	/**
+	 * Makes a grid with no ground; set each cell and then call finish.
+	 *
+	 * @param minX the x coordinate of the edge of the first column of cells
+	 * @param minZ the z coordinate of the edge of the first row of cells
+	 * @param width the number of cells along the x axis
+	 * @param depth the number of cells along the z axis
+	 * @param cellSize the width of each (square) cell
+	 */
+	public SpawnGrid(float minX, float minZ, int width, int depth, float cellSize) {
+		if (width <= 0 || depth <= 0) throw new IllegalArgumentException("grid must have at least one cell");
+		if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+		this.minX = minX;
+		this.minZ = minZ;
+		this.width = width;
+		this.depth = depth;
+		this.cellSize = cellSize;
+		heights = new float[width * depth];
+		walkable = new boolean[width * depth];
+		free = new boolean[width * depth];
+		Arrays.fill(heights, Float.NaN);
+	}
+
+	// BAKING
+
+	/**
+	 * Bakes a grid covering the passed Node, by raycasting down through each cell.
+	 *
+	 * @param root the Node containing the map's geometry
+	 * @param cellSize the width of each cell, which is increased if the map is too large for MAX_CELLS_PER_AXIS
+	 * @return the baked SpawnGrid, or null if the Node has no bounds
+	 */
+	public static SpawnGrid bake(Node root, float cellSize) {
+		BoundingVolume bv = root.getWorldBound();
+		if (!(bv instanceof BoundingBox))
+			return null;
+		BoundingBox bounds = (BoundingBox) bv;
+		Vector3f min = bounds.getMin(null), max = bounds.getMax(null);
+
+		float extent = Math.max(max.x - min.x, max.z - min.z);
+		cellSize = Math.max(cellSize, extent / MAX_CELLS_PER_AXIS);
+		int width = Math.max(1, (int) Math.ceil((max.x - min.x) / cellSize));
+		int depth = Math.max(1, (int) Math.ceil((max.z - min.z) / cellSize));
+		SpawnGrid grid = new SpawnGrid(min.x, min.z, width, depth, cellSize);
+
+		Vector3f from = new Vector3f();
+		List<CollisionResult> hits = new ArrayList<CollisionResult>();
+		for (int cz = 0; cz < depth; cz++) {
+			for (int cx = 0; cx < width; cx++) {
+				from.set(grid.centreX(cx), max.y + 1, grid.centreZ(cz));
+				hits.clear();
+				PhysicsUtilities.immovableBelow(from, root, hits);
+				grid.set(cx, cz, hits);
+			}
+		}
+		grid.finish();
+		return grid;
+	}
+
+	/**
+	 * Sets the ground of a cell.
+	 *
+	 * @param cx the column of the cell, from 0 to getWidth()-1
+	 * @param cz the row of the cell, from 0 to getDepth()-1
+	 * @param height the height of the ground
+	 * @param walkable whether the ground is flat enough to spawn on
+	 */
+	public void set(int cx, int cz, float height, boolean walkable) {
+		int i = index(cx, cz);
+		heights[i] = height;
+		this.walkable[i] = walkable;
+	}
+
+	/**
+	 * Sets the ground of a cell from the surfaces a ray cast down through it hit.
+	 *
+	 * @param cx the column of the cell, from 0 to getWidth()-1
+	 * @param cz the row of the cell, from 0 to getDepth()-1
+	 * @param hits the surfaces of immovable entities the ray hit, highest first
+	 */
+	public void set(int cx, int cz, List<CollisionResult> hits) {
+		if (hits.isEmpty())
+			return;
+
+		// the ground is the lowest surface that faces up; anything more than a step above it
+		// is a roof or part of a building
+		float top = hits.get(0).getContactPoint().y;
+		boolean walkable = false;
+		for (int i = hits.size() - 1; i >= 0; i--) {
+			CollisionResult hit = hits.get(i);
+			if (hit.getContactNormal().y >= MAX_SLOPE_NORMAL_Y) {
+				walkable = top - hit.getContactPoint().y <= MAX_STEP;
+				break;
+			}
+		}
+		set(cx, cz, top, walkable);
+	}
+
+	/**
+	 * Works out which cells are free, after every cell's ground has been set.
+	 */
+	public void finish() {
+		for (int cz = 0; cz < depth; cz++) {
+			for (int cx = 0; cx < width; cx++) {
+				int i = index(cx, cz);
+				free[i] = walkable[i] && neighboursLevel(cx, cz, heights[i]);
+			}
+		}
+	}
+
+	private boolean neighboursLevel(int cx, int cz, float h) {
+		for (int dz = -1; dz <= 1; dz++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				int x = cx + dx, z = cz + dz;
+				if (x < 0 || z < 0 || x >= width || z >= depth)
+					return false; // the edge of the map
+				float n = heights[index(x, z)];
+				if (!(Math.abs(n - h) <= MAX_STEP))
+					return false; // also false for cells with no ground
+			}
+		}
+		return true;
+	}
+
+	// SAMPLING
+
+	/**
+	 * @return true if a mob can be spawned at the passed x/z position
+	 */
+	public boolean isFree(float x, float z) {
+		int i = indexAt(x, z);
+		return i >= 0 && free[i];
+	}
+
+	/**
+	 * @return the height of the ground at the passed x/z position, or NaN if there is none
+	 */
+	public float getHeight(float x, float z) {
+		int i = indexAt(x, z);
+		return i < 0 ? Float.NaN : heights[i];
+	}
+
+	/**
+	 * Moves the passed position onto the ground, if a mob can be spawned there.
+	 *
+	 * @param position the position to place; its y coordinate is changed to the ground height plus above
+	 * @param above the height above the ground to place the position at
+	 * @return true if the position was free and has been placed, false if it is unchanged
+	 */
+	public boolean place(Vector3f position, float above) {
+		int i = indexAt(position.x, position.z);
+		if (i < 0 || !free[i])
+			return false;
+		position.y = heights[i] + above;
+		return true;
+	}
+
+	/**
+	 * @return the number of free cells
+	 */
+	public int countFree() {
+		int n = 0;
+		for (int i = 0; i < free.length; i++)
+			if (free[i])
+				n++;
+		return n;
+	}
+
+	// HELPERS
+
+	private int indexAt(float x, float z) {
+		int cx = (int) Math.floor((x - minX) / cellSize);
+		int cz = (int) Math.floor((z - minZ) / cellSize);
+		if (cx < 0 || cz < 0 || cx >= width || cz >= depth)
+			return -1;
+		return cz * width + cx;
+	}
+
+	private int index(int cx, int cz) {
+		if (cx < 0 || cz < 0 || cx >= width || cz >= depth) throw new IndexOutOfBoundsException("(" + cx + ", " + cz + ") is outside the grid");
+		return cz * width + cx;
+	}
+
+	private float centreX(int cx) {
+		return minX + (cx + 0.5f) * cellSize;
+	}
+
+	private float centreZ(int cz) {
+		return minZ + (cz + 0.5f) * cellSize;
+	}
+
+	// GETTERS
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	// SAVING
+
+	@Override
+	public void read(JmeImporter im) throws IOException {
+		InputCapsule ic = im.getCapsule(this);
+		minX = ic.readFloat("minX", 0);
+		minZ = ic.readFloat("minZ", 0);
+		cellSize = ic.readFloat("cellSize", 1);
+		width = ic.readInt("width", 0);
+		depth = ic.readInt("depth", 0);
+		heights = ic.readFloatArray("heights", null);
+		walkable = ic.readBooleanArray("walkable", null);
+		free = ic.readBooleanArray("free", null);
+		if (heights == null || walkable == null || free == null || heights.length != width * depth)
+			throw new IOException("SpawnGrid is missing cells");
+	}
+
+	@Override
+	public void write(JmeExporter ex) throws IOException {
+		OutputCapsule oc = ex.getCapsule(this);
+		oc.write(minX, "minX", 0);
+		oc.write(minZ, "minZ", 0);
+		oc.write(cellSize, "cellSize", 1);
+		oc.write(width, "width", 0);
+		oc.write(depth, "depth", 0);
+		oc.write(heights, "heights", null);
+		oc.write(walkable, "walkable", null);
+		oc.write(free, "free", null);
+	}
+}
@@ -0,0 +1,389 @@
+package world;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * TickProfiler records how long each phase of a World's simulation tick takes, how long
+ * updating each class of entity takes, and how many entities and effects there are, so tick
+ * regressions can be found on a running server without attaching a profiler.
+ *
+ * Durations are kept in histograms with power-of-two buckets, so recording is allocation-free
+ * and percentiles are approximate (rounded up to the next power of two, capped at the maximum).
+ * The statistics are readable through JMX (see register) and are written to the
+ * "world.TickProfiler" logger at INFO level every getLogIntervalSeconds() seconds.
+ *
+ * Timing is done on the game thread only; the JMX getters may see slightly stale values.
+ */
+public class TickProfiler implements TickProfilerMBean {
+	/**
+	 * The parts of a tick that are timed separately.
+	 */
+	public static enum Phase {
+		/** Updating the local player, once per frame */
+		PLAYER,
+		/** Re-bucketing moved entities in the spatial index */
+		SPATIAL_INDEX,
+		/** PathRequestService, ExpensiveOperationManager and TimeManager */
+		MANAGERS,
+		/** Updating effects */
+		EFFECTS,
+		/** The read-only part of mob AI */
+		AI_THINK,
+		/** Updating updatable entities, including mob AI */
+		ENTITIES,
+		/** Applying the damage dealt during the tick */
+		DAMAGE,
+		/** Spawning mobs */
+		SPAWNING,
+		/** Checking whether the game has been won */
+		WIN_CHECK,
+		/** Compacting the entity and effect collections */
+		COMPACT
+	}
+
+	/**
+	 * The default number of seconds between log lines.
+	 */
+	public static int DEFAULT_LOG_INTERVAL = 60;
+
+	private static final Logger log = Logger.getLogger(TickProfiler.class.getName());
+
+	private volatile boolean enabled = true;
+	private volatile boolean resetRequested;
+	private volatile int logIntervalSeconds = DEFAULT_LOG_INTERVAL;
+	private long lastLog = System.nanoTime();
+
+	private final Histogram tick = new Histogram();
+	private final Histogram[] phases = new Histogram[Phase.values().length];
+	private final Map<Class<?>, ClassStats> entityClasses = new ConcurrentHashMap<Class<?>, ClassStats>();
+
+	private volatile int entityCount, effectCount, mobCount;
+	private volatile int spawnQueueDepth, maxSpawnQueueDepth;
+
+	public TickProfiler() {
+		for (int i = 0; i < phases.length; i++)
+			phases[i] = new Histogram();
+	}
+
+	// RECORDING
+
+	/**
+	 * @return a timestamp to pass to record, or 0 if profiling is disabled
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a phase as having run from the passed timestamp until now.
+	 *
+	 * @param phase the phase that just finished
+	 * @param since the timestamp the phase started at, from start or a previous record
+	 * @return the current timestamp, to pass as the start of the next phase, or 0 if profiling is disabled
+	 */
+	public long record(Phase phase, long since) {
+		if (!enabled)
+			return 0;
+		long now = System.nanoTime();
+		if (since != 0)
+			phases[phase.ordinal()].record(now - since);
+		return now;
+	}
+
+	/**
+	 * Records an update of an entity of the passed class as having run from the passed timestamp until now.
+	 *
+	 * @param clazz the class of the entity that was just updated
+	 * @param since the timestamp the update started at
+	 * @return the current timestamp, or 0 if profiling is disabled
+	 */
+	public long recordEntity(Class<?> clazz, long since) {
+		if (!enabled)
+			return 0;
+		long now = System.nanoTime();
+		if (since != 0) {
+			ClassStats stats = entityClasses.get(clazz);
+			if (stats == null) {
+				stats = new ClassStats();
+				entityClasses.put(clazz, stats);
+			}
+			stats.count++;
+			stats.totalNanos += now - since;
+		}
+		return now;
+	}
+
+	/**
+	 * Records the end of a tick, and writes a log line if one is due.
+	 *
+	 * @param since the timestamp the tick started at, from start
+	 * @param entities the number of entities in the World
+	 * @param effects the number of effects in the World
+	 * @param mobs the number of mobs in the World
+	 */
+	public void endTick(long since, int entities, int effects, int mobs) {
+		if (resetRequested) {
+			clear();
+			resetRequested = false;
+			return;
+		}
+		entityCount = entities;
+		effectCount = effects;
+		mobCount = mobs;
+		if (!enabled)
+			return;
+
+		long now = System.nanoTime();
+		if (since != 0)
+			tick.record(now - since);
+
+		int interval = logIntervalSeconds;
+		if (interval > 0 && now - lastLog >= interval * 1000000000L) {
+			lastLog = now;
+			if (log.isLoggable(Level.INFO))
+				log.info(toString());
+		}
+	}
+
+	/**
+	 * Records the number of mobs waiting to be spawned at the end of the spawning phase.
+	 *
+	 * @param depth the length of the spawn queue
+	 */
+	public void recordSpawnQueue(int depth) {
+		spawnQueueDepth = depth;
+		if (depth > maxSpawnQueueDepth)
+			maxSpawnQueueDepth = depth;
+	}
+
+	private void clear() {
+		tick.clear();
+		maxSpawnQueueDepth = spawnQueueDepth;
+		for (Histogram h : phases)
+			h.clear();
+		entityClasses.clear();
+	}
+
+	// JMX
+
+	/**
+	 * Registers this profiler with the platform MBean server under the name
+	 * "world:type=TickProfiler", replacing any profiler already registered there.
+	 */
+	public void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("world:type=TickProfiler");
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+			server.registerMBean(this, name);
+		} catch (JMException e) {
+			log.log(Level.WARNING, "could not register tick profiler", e);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public int getLogIntervalSeconds() {
+		return logIntervalSeconds;
+	}
+
+	@Override
+	public void setLogIntervalSeconds(int seconds) {
+		if (seconds < 0) throw new IllegalArgumentException("interval cannot be negative");
+		logIntervalSeconds = seconds;
+	}
+
+	@Override
+	public long getTickCount() {
+		return tick.count;
+	}
+
+	@Override
+	public long getAverageTickMicros() {
+		return tick.average() / 1000;
+	}
+
+	@Override
+	public long getP99TickMicros() {
+		return tick.percentile(0.99) / 1000;
+	}
+
+	@Override
+	public long getMaxTickMicros() {
+		return tick.max / 1000;
+	}
+
+	@Override
+	public int getEntityCount() {
+		return entityCount;
+	}
+
+	@Override
+	public int getEffectCount() {
+		return effectCount;
+	}
+
+	@Override
+	public int getMobCount() {
+		return mobCount;
+	}
+
+	@Override
+	public int getSpawnQueueDepth() {
+		return spawnQueueDepth;
+	}
+
+	@Override
+	public int getMaxSpawnQueueDepth() {
+		return maxSpawnQueueDepth;
+	}
+
+	@Override
+	public String[] getPhaseStatistics() {
+		String[] rv = new String[phases.length];
+		for (Phase p : Phase.values()) {
+			Histogram h = phases[p.ordinal()];
+			rv[p.ordinal()] = p + ": n=" + h.count + " avg=" + h.average() / 1000 + "us p99=" + h.percentile(0.99) / 1000 + "us max=" + h.max / 1000 + "us";
+		}
+		return rv;
+	}
+
+	@Override
+	public String[] getEntityClassStatistics() {
+		List<String> rv = new ArrayList<String>();
+		for (Map.Entry<Class<?>, ClassStats> e : entityClasses.entrySet()) {
+			ClassStats s = e.getValue();
+			long count = s.count;
+			rv.add(e.getKey().getSimpleName() + ": n=" + count + " avg=" + (count == 0 ? 0 : s.totalNanos / count / 1000) + "us total=" + s.totalNanos / 1000 + "us");
+		}
+		return rv.toArray(new String[rv.size()]);
+	}
+
+	@Override
+	public void reset() {
+		resetRequested = true;
+	}
+
+	// PER-PHASE ACCESS
+
+	/**
+	 * @return the number of times the passed phase has been recorded
+	 */
+	public long getPhaseCount(Phase phase) {
+		return phases[phase.ordinal()].count;
+	}
+
+	/**
+	 * @return the mean duration of the passed phase, in nanoseconds
+	 */
+	public long getPhaseAverageNanos(Phase phase) {
+		return phases[phase.ordinal()].average();
+	}
+
+	/**
+	 * @param fraction the percentile to get, from 0 to 1
+	 * @return the approximate duration of the passed phase at the passed percentile, in nanoseconds
+	 */
+	public long getPhasePercentileNanos(Phase phase, double fraction) {
+		return phases[phase.ordinal()].percentile(fraction);
+	}
+
+	/**
+	 * @return the longest duration of the passed phase, in nanoseconds
+	 */
+	public long getPhaseMaxNanos(Phase phase) {
+		return phases[phase.ordinal()].max;
+	}
+
+	/**
+	 * @return a one-line summary of the statistics
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ticks=").append(tick.count)
+			.append(" avg=").append(getAverageTickMicros()).append("us")
+			.append(" p99=").append(getP99TickMicros()).append("us")
+			.append(" max=").append(getMaxTickMicros()).append("us")
+			.append(" entities=").append(entityCount)
+			.append(" effects=").append(effectCount)
+			.append(" mobs=").append(mobCount)
+			.append(" spawnQueue=").append(spawnQueueDepth)
+			.append(" maxSpawnQueue=").append(maxSpawnQueueDepth);
+		for (Phase p : Phase.values()) {
+			Histogram h = phases[p.ordinal()];
+			sb.append(' ').append(p.name().toLowerCase()).append('=').append(h.average() / 1000).append("us");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A histogram of durations in nanoseconds, with one bucket per power of two.
+	 */
+	private static class Histogram {
+		private final long[] buckets = new long[64];
+		private volatile long count;
+		private long total;
+		private volatile long max;
+
+		void record(long nanos) {
+			if (nanos < 0)
+				nanos = 0;
+			buckets[63 - Long.numberOfLeadingZeros(nanos | 1)]++;
+			total += nanos;
+			if (nanos > max)
+				max = nanos;
+			count++;
+		}
+
+		long average() {
+			long n = count;
+			return n == 0 ? 0 : total / n;
+		}
+
+		long percentile(double fraction) {
+			long n = count;
+			if (n == 0)
+				return 0;
+			long rank = (long) Math.ceil(fraction * n);
+			long seen = 0;
+			for (int b = 0; b < buckets.length; b++) {
+				seen += buckets[b];
+				if (seen >= rank)
+					return b >= 62 ? max : Math.min(max, (2L << b) - 1);
+			}
+			return max;
+		}
+
+		void clear() {
+			for (int i = 0; i < buckets.length; i++)
+				buckets[i] = 0;
+			count = total = max = 0;
+		}
+	}
+
+	private static class ClassStats {
+		volatile long count;
+		volatile long totalNanos;
+	}
+}
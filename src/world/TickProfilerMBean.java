@@ -0,0 +1,86 @@
+package world;
+
+/**
+ * The JMX management interface of TickProfiler. All times are in microseconds.
+ */
+public interface TickProfilerMBean {
+	/**
+	 * @return whether ticks are being timed
+	 */
+	public boolean isEnabled();
+
+	/**
+	 * @param enabled whether to time ticks
+	 */
+	public void setEnabled(boolean enabled);
+
+	/**
+	 * @return the number of seconds between log lines, or 0 if logging is off
+	 */
+	public int getLogIntervalSeconds();
+
+	/**
+	 * @param seconds the number of seconds between log lines, or 0 to turn logging off
+	 */
+	public void setLogIntervalSeconds(int seconds);
+
+	/**
+	 * @return the number of ticks timed since the last reset
+	 */
+	public long getTickCount();
+
+	/**
+	 * @return the mean duration of a tick
+	 */
+	public long getAverageTickMicros();
+
+	/**
+	 * @return the approximate 99th percentile duration of a tick
+	 */
+	public long getP99TickMicros();
+
+	/**
+	 * @return the longest duration of a tick
+	 */
+	public long getMaxTickMicros();
+
+	/**
+	 * @return the number of entities in the World at the end of the last tick
+	 */
+	public int getEntityCount();
+
+	/**
+	 * @return the number of effects in the World at the end of the last tick
+	 */
+	public int getEffectCount();
+
+	/**
+	 * @return the number of mobs in the World at the end of the last tick
+	 */
+	public int getMobCount();
+
+	/**
+	 * @return the number of mobs waiting to be spawned at the end of the last tick
+	 */
+	public int getSpawnQueueDepth();
+
+	/**
+	 * @return the most mobs that have been waiting to be spawned since the last reset
+	 */
+	public int getMaxSpawnQueueDepth();
+
+	/**
+	 * @return one line per tick phase, giving its call count and average, 99th percentile and longest duration
+	 */
+	public String[] getPhaseStatistics();
+
+	/**
+	 * @return one line per entity class, giving its update count and average and total update duration
+	 */
+	public String[] getEntityClassStatistics();
+
+	/**
+	 * Clears all recorded statistics.
+	 */
+	public void reset();
+}
@@ -0,0 +1,214 @@
+package world;
+
+import java.util.Collection;
+
+/**
+ * TimerWheel is a hierarchical timing wheel: a set of timers, each of which becomes due at
+ * a deadline measured in whole ticks. Scheduling and cancelling are O(1), and advancing the
+ * wheel costs time proportional to the number of timers that become due (plus an occasional
+ * cascade of timers from a coarser level to a finer one), not to the number of timers waiting.
+ *
+ * It has four levels of 64 slots. Level 0 holds timers due in the next 64 ticks, one slot per
+ * tick; each higher level holds timers 64 times further away, and its slots are moved down a
+ * level when the wheel reaches them. Timers further away than 64^4 ticks are kept in the top
+ * level and re-filed each time it wraps.
+ *
+ * World uses a TimerWheel to expire effects and wake sleeping entities.
+ *
+ * @param <T> the type of object a timer carries
+ */
+public class TimerWheel<T> {
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/**
+	 * A scheduled timer, which can be used to cancel it.
+	 */
+	public static final class Timer<T> {
+		private final T item;
+		private final long deadline;
+		private Timer<T> prev, next;
+		private int level = -1, slot;
+
+		private Timer(T item, long deadline) {
+			this.item = item;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @return the object passed to schedule
+		 */
+		public T getItem() {
+			return item;
+		}
+
+		/**
+		 * @return the tick this timer is due at
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+
+		/**
+		 * @return true if this timer has neither become due nor been cancelled
+		 */
+		public boolean isScheduled() {
+			return level >= 0;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private final Timer<T>[][] slots = new Timer[LEVELS][SLOTS];
+	private final int[] levelSizes = new int[LEVELS];
+	private long now;
+	private int size;
+
+	/**
+	 * @param start the tick the wheel starts at
+	 */
+	public TimerWheel(long start) {
+		now = start;
+	}
+
+	public TimerWheel() {
+		this(0);
+	}
+
+	/**
+	 * Schedules a timer. A deadline that is not after the current tick is treated as the next tick.
+	 *
+	 * @param item the object to return from advance when the timer is due
+	 * @param deadline the tick the timer is due at
+	 * @return the timer, which can be passed to cancel
+	 */
+	public Timer<T> schedule(T item, long deadline) {
+		Timer<T> t = new Timer<T>(item, Math.max(deadline, now + 1));
+		file(t);
+		size++;
+		return t;
+	}
+
+	/**
+	 * Cancels a timer, so it will never be returned by advance.
+	 *
+	 * @param t the timer to cancel
+	 * @return true if the timer was scheduled
+	 */
+	public boolean cancel(Timer<T> t) {
+		if (t == null || !t.isScheduled())
+			return false;
+		unlink(t);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Moves the wheel forward to the passed tick, adding the items of all timers that become due to the passed collection.
+	 * The timers are no longer scheduled afterwards.
+	 *
+	 * @param to the tick to advance to
+	 * @param due the collection to add due items to
+	 */
+	public void advance(long to, Collection<? super T> due) {
+		while (now < to) {
+			if (size == 0) {
+				now = to;
+				return;
+			}
+
+			// skip straight to the next slot boundary of the lowest non-empty level
+			int empty = 0;
+			while (empty < LEVELS && levelSizes[empty] == 0)
+				empty++;
+			if (empty > 0) {
+				long skip = now | ((1L << (empty * SLOT_BITS)) - 1);
+				if (skip >= to) {
+					now = to;
+					return;
+				}
+				now = skip;
+			}
+			now++;
+
+			// move timers down from any coarser level that has reached a new slot
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((now & ((1L << (level * SLOT_BITS)) - 1)) == 0)
+					cascade(level, (int) (now >>> (level * SLOT_BITS)) & SLOT_MASK);
+			}
+
+			int slot = (int) now & SLOT_MASK;
+			Timer<T> t = slots[0][slot];
+			slots[0][slot] = null;
+			while (t != null) {
+				Timer<T> next = t.next;
+				t.prev = t.next = null;
+				t.level = -1;
+				size--;
+				levelSizes[0]--;
+				due.add(t.item);
+				t = next;
+			}
+		}
+	}
+
+	/**
+	 * @return the current tick
+	 */
+	public long getTime() {
+		return now;
+	}
+
+	/**
+	 * @return the number of scheduled timers
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void cascade(int level, int slot) {
+		Timer<T> t = slots[level][slot];
+		slots[level][slot] = null;
+		while (t != null) {
+			Timer<T> next = t.next;
+			t.prev = t.next = null;
+			levelSizes[level]--;
+			file(t);
+			t = next;
+		}
+	}
+
+	private void file(Timer<T> t) {
+		long delta = t.deadline - now;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << ((level + 1) * SLOT_BITS))
+			level++;
+
+		long when = t.deadline;
+		if (delta >= 1L << (LEVELS * SLOT_BITS)) // too far away; re-filed when the top level wraps
+			when = now + (1L << (LEVELS * SLOT_BITS)) - 1;
+
+		int slot = (int) (when >>> (level * SLOT_BITS)) & SLOT_MASK;
+		t.level = level;
+		t.slot = slot;
+		levelSizes[level]++;
+		t.prev = null;
+		t.next = slots[level][slot];
+		if (t.next != null)
+			t.next.prev = t;
+		slots[level][slot] = t;
+	}
+
+	private void unlink(Timer<T> t) {
+		if (t.prev != null)
+			t.prev.next = t.next;
+		else
+			slots[t.level][t.slot] = t.next;
+		if (t.next != null)
+			t.next.prev = t.prev;
+		levelSizes[t.level]--;
+		t.prev = t.next = null;
+		t.level = -1;
+	}
+}
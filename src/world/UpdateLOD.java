@@ -0,0 +1,167 @@
+package world;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import world.entity.mob.Mob;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * UpdateLOD decides how often each Mob is updated, based on its distance to the nearest player.
+ *
+ * Mobs within the near distance of a player are updated every tick. Mobs further away are
+ * updated every midInterval or farInterval ticks, and are passed the time accumulated since
+ * they were last updated. Updates are staggered by entity ID, so the skipped mobs don't all
+ * update on the same tick. Mobs beyond the freeze distance are not updated at all, and their
+ * physics is disabled until a player comes back within range.
+ *
+ * World calls schedule once per tick, before any mob thinks or updates, and then asks for
+ * each mob's tick time with getTickTime.
+ */
+public class UpdateLOD {
+	public static float DEFAULT_NEAR_DISTANCE = 300;
+	public static float DEFAULT_MID_DISTANCE = 800;
+	public static float DEFAULT_FREEZE_DISTANCE = 2000;
+	public static int DEFAULT_MID_INTERVAL = 2;
+	public static int DEFAULT_FAR_INTERVAL = 8;
+
+	private float nearDistance = DEFAULT_NEAR_DISTANCE;
+	private float midDistance = DEFAULT_MID_DISTANCE;
+	private float freezeDistance = DEFAULT_FREEZE_DISTANCE;
+	private int midInterval = DEFAULT_MID_INTERVAL;
+	private int farInterval = DEFAULT_FAR_INTERVAL;
+	private boolean enabled = true;
+
+	private static class State {
+		float accumulated;
+		float tickTime;
+	}
+
+	private final Map<Mob, State> states = new IdentityHashMap<Mob, State>();
+	private long tick;
+
+	/**
+	 * Decides which of the passed mobs are updated this tick.
+	 *
+	 * @param mobs all the mobs in the World
+	 * @param players the players mobs are kept active near; if there are none, every mob is updated
+	 * @param tpf the length of this tick
+	 * @param canFreeze whether far mobs may have their physics disabled
+	 */
+	public void schedule(List<? extends Mob> mobs, List<Player> players, float tpf, boolean canFreeze) {
+		tick++;
+		boolean active = enabled && players != null && !players.isEmpty();
+		float nearSq = nearDistance * nearDistance;
+		float midSq = midDistance * midDistance;
+		float freezeSq = freezeDistance * freezeDistance;
+
+		for (int i = 0; i < mobs.size(); i++) {
+			Mob mob = mobs.get(i);
+			State state = states.get(mob);
+			if (state == null) {
+				state = new State();
+				states.put(mob, state);
+			}
+
+			float distSq = active ? nearestDistanceSquared(mob.getLocation(), players) : 0;
+			boolean freeze = canFreeze && distSq >= freezeSq;
+			if (mob.isFrozen() != freeze)
+				mob.setFrozen(freeze);
+
+			if (freeze) {
+				state.accumulated = 0;
+				state.tickTime = -1;
+				continue;
+			}
+
+			int interval = distSq < nearSq ? 1 : distSq < midSq ? midInterval : farInterval;
+			state.accumulated += tpf;
+			if (interval <= 1 || (tick + mob.getEntityID()) % interval == 0) {
+				state.tickTime = state.accumulated;
+				state.accumulated = 0;
+			} else {
+				state.tickTime = -1;
+			}
+		}
+	}
+
+	/**
+	 * @param mob a mob passed to the last call to schedule
+	 * @return the time the mob should be updated with this tick, or a negative number if it shouldn't be updated
+	 */
+	public float getTickTime(Mob mob) {
+		State state = states.get(mob);
+		return state == null ? -1 : state.tickTime;
+	}
+
+	/**
+	 * Forgets a mob that has been removed from the World, unfreezing it if necessary.
+	 */
+	public void remove(Mob mob) {
+		if (states.remove(mob) != null && mob.isFrozen())
+			mob.setFrozen(false);
+	}
+
+	private static float nearestDistanceSquared(Vector3f loc, List<Player> players) {
+		float best = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < players.size(); i++) {
+			float d = players.get(i).getLocation().distanceSquared(loc);
+			if (d < best)
+				best = d;
+		}
+		return best;
+	}
+
+	// GETTERS AND SETTERS
+
+	/**
+	 * @return whether mobs far from players are updated less often
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled whether mobs far from players are updated less often
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Sets the distance bands. Mobs closer than near are updated every tick, closer than mid
+	 * every midInterval ticks, closer than freeze every farInterval ticks, and frozen beyond that.
+	 * Pass Float.POSITIVE_INFINITY as freeze to never freeze mobs.
+	 */
+	public void setBands(float near, float mid, float freeze, int midInterval, int farInterval) {
+		if (!(near <= mid && mid <= freeze)) throw new IllegalArgumentException("distances must be in increasing order");
+		if (midInterval < 1 || farInterval < 1) throw new IllegalArgumentException("intervals must be at least 1");
+		this.nearDistance = near;
+		this.midDistance = mid;
+		this.freezeDistance = freeze;
+		this.midInterval = midInterval;
+		this.farInterval = farInterval;
+	}
+
+	public float getNearDistance() {
+		return nearDistance;
+	}
+
+	public float getMidDistance() {
+		return midDistance;
+	}
+
+	public float getFreezeDistance() {
+		return freezeDistance;
+	}
+
+	public int getMidInterval() {
+		return midInterval;
+	}
+
+	public int getFarInterval() {
+		return farInterval;
+	}
+}
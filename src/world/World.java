@@ -1,16 +1,23 @@
 package world;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import network.interfaces.WorldObserver;
 import renderer.Sun;
@@ -18,13 +25,16 @@ import renderer.VisualEffectsManager;
 import world.PhysicsUtilities.EntityHitResult;
 import world.audio.AudioTimeEvent;
 import world.effects.Effect;
+import world.effects.SimpleDamage;
 import world.entity.item.Item;
+import world.entity.item.Stat;
 import world.entity.item.miscellaneous.Treasure;
 import world.entity.mob.Mob;
 import world.entity.staticentity.OutpostGate;
 import world.entity.staticentity.SimpleContainer;
 import world.entity.staticentity.WorldObject;
 import world.entity.trigger.TriggerCollisionListener;
+import world.entity.trigger.TriggerZone;
 import GUI.Managers.ScreenManager;
 
 import com.jme3.app.state.AppStateManager;
@@ -74,9 +84,43 @@ public class World implements Savable{
     public static String MAPFILE = "maps/OutpostMap.txt";
 
     /**
-     * The maximum number of mobs that can be in the game world at once.
+     * Whether the path graph and trigger zones found in the map's models are saved, and loaded instead of being found again
+     * the next time the same map is loaded. See NavigationBake.
      */
-    public static int MAX_MOBS = Integer.MAX_VALUE;
+    public static boolean CACHE_NAVIGATION = true;
+
+    /**
+     * The maximum number of mobs that can be in the game world at once. This is the default global
+     * budget of each World's MobPopulation.
+     */
+    public static int MAX_MOBS = 200;
+
+    /**
+     * The cell size of the spatial index over entities.
+     */
+    private static final float ENTITY_CELL_SIZE = 32;
+
+    /**
+     * The cell size of the spatial index over path nodes.
+     */
+    private static final float PATHNODE_CELL_SIZE = 64;
+
+    /**
+     * The length of a tick of the timer wheel used for effect durations and sleeping entities, in seconds.
+     */
+    private static final double TIMER_RESOLUTION = 1.0 / 32;
+
+    /**
+     * Whether mob AIs think on several threads at once. See AI.think.
+     */
+    public static boolean PARALLEL_AI = true;
+
+    /**
+     * The number of mobs each AI thread thinks for at a time, and the number of mobs
+     * below which it isn't worth using more than one thread.
+     */
+    private static final int AI_BATCH_SIZE = 16;
+    private static final int AI_PARALLEL_THRESHOLD = 32;
 
     PriorityQueue<Mob> mobQueue;
 
@@ -96,13 +140,30 @@ public class World implements Savable{
     private WorldType worldType;
     private boolean usePathNodes = true;
     private Collection<PathNode> pathNodes = new ArrayList<PathNode>();
+    private SpatialGrid<PathNode> pathNodeGrid = new SpatialGrid<PathNode>(PATHNODE_CELL_SIZE);
+    private PathNodeLocator pathNodeLocator;
+    private PathGraph pathGraph;
+    private PathTable pathTable;
+    private FlowFieldManager flowFields = new FlowFieldManager(this);
+    private PathRequestService pathRequests = new PathRequestService();
 
     // temp when loading
     private Collection<EntitySpawnData> loadedEntities = null;
 
-    private Collection<Entity> entities = new CopyOnWriteArraySet<Entity>();
-    private Map<Integer, Entity> entitiesByID = new HashMap<Integer, Entity>();
-    private Collection<Entity> updatableEntities = new CopyOnWriteArraySet<Entity>();
+    private SlotMap<Entity> entities = new SlotMap<Entity>();
+    private IntMap<Entity> entitiesByID = new IntMap<Entity>();
+    private EntityIDAllocator entityIDs = new EntityIDAllocator();
+    private SlotMap<Entity> updatableEntities = new SlotMap<Entity>();
+    private Set<Entity> sleepingEntities = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+
+    // wakes sleeping entities and expires effects; see TIMER_RESOLUTION
+    private TimerWheel<Object> timers = new TimerWheel<Object>();
+    private IdentityHashMap<Object, TimerWheel.Timer<Object>> timersByOwner = new IdentityHashMap<Object, TimerWheel.Timer<Object>>();
+    private List<Object> dueTimers = new ArrayList<Object>();
+    private double simulationTime;
+    private SpatialGrid<Entity> entityGrid = new SpatialGrid<Entity>(ENTITY_CELL_SIZE);
+    private EntityRegistry registry = new EntityRegistry(entities);
+    private AreaEffects areaEffects = new AreaEffects(entityGrid);
 
     private List<Player> otherPlayers;
     private Player player;
@@ -113,14 +174,29 @@ public class World implements Savable{
     private boolean enableMobSpawning = true;
 
     private MobSpawnController spawner;
-    private Collection<Effect> effects = new CopyOnWriteArraySet<Effect>();
+    // the only physics tick listener; see PhysicsTickDispatcher
+    private PhysicsTickDispatcher physicsTicks = new PhysicsTickDispatcher(this);
+    // where mobs can be spawned, baked when the map is loaded
+    private SpawnGrid spawnGrid;
+    // bounds the number of mobs, and despawns those left far from every player
+    private MobPopulation population = new MobPopulation(entityGrid);
+    private List<Mob> despawned = new ArrayList<Mob>();
+    private SlotMap<Effect> effects = new SlotMap<Effect>();
+    private SlotMap<Effect> updatableEffects = new SlotMap<Effect>();
+    // damage dealt this tick, applied at the end of it; see dealDamage
+    private DamageBuffer damageBuffer = new DamageBuffer();
+    // stat multipliers every mob has, by source; see addMobModifiers
+    private IdentityHashMap<Object, StatModification> mobModifiers = new IdentityHashMap<Object, StatModification>();
+    private Collection<Effect> loadedEffects = null;
 
     private AssetManager assetManager;
     private PhysicsSpace physics;
 
     private ExpensiveOperationManager expensiveOperationManager = new ExpensiveOperationManager();
-
-    private int nextEntityID = 0;
+    private SimulationClock clock = new SimulationClock();
+    private TickProfiler profiler = new TickProfiler();
+    private UpdateLOD mobLOD = new UpdateLOD();
+    private ExecutorService aiPool;
 
     private Node root;
     private Node mobs;
@@ -147,6 +223,15 @@ public class World implements Savable{
 
         bulletAppState = new BulletAppState();
 
+        // the types that are looked up every tick or on every connection
+        registry.getView(Entity.class);
+        registry.getView(Mob.class);
+        registry.getView(Item.class);
+        registry.getView(Container.class);
+        registry.getView(Treasure.class);
+        registry.getView(Player.class);
+        registry.getView(Actor.class);
+
         spawner = new MobSpawnController(this);
     }
 
@@ -163,6 +248,11 @@ public class World implements Savable{
         appManager.detach(bulletAppState);
         if(vem != null)
         	vem.detachFromViewPort();
+        if(aiPool != null){
+            aiPool.shutdown();
+            aiPool = null;
+        }
+        pathRequests.shutdown();
     }
 
     /**
@@ -186,6 +276,7 @@ public class World implements Savable{
             physics.enableDebug(assetManager);
         physics.addCollisionListener(new ActorCollisionManager());
         physics.addCollisionListener(new TriggerCollisionListener());
+        physics.addTickListener(physicsTicks);
         assetManager.registerLocator("assets/Models/WorldObjects.zip", ZipLocator.class);
         assetManager.registerLocator("assets/Models/NewAsses.zip", ZipLocator.class);
         assetManager.registerLocator("assets/Scenes/terrain.zip", ZipLocator.class);
@@ -196,11 +287,17 @@ public class World implements Savable{
         if(loadedEntities != null){
             addEntities(loadedEntities);
             loadedEntities = null;
+            if(loadedEffects != null){
+                for(Effect e : loadedEffects){
+                    addEffect(e);
+                    e.linkToWorld(this);
+                }
+                loadedEffects = null;
+            }
         } else{
 
             if(type != WorldType.CLIENT){
                 initializeWorldObjectsFromFile(MAPFILE);
-                initializePathGraph();
             }
             if(type == WorldType.SP){
                 player = new Player();
@@ -211,6 +308,10 @@ public class World implements Savable{
             }
         }
 
+        // maps loaded from a file take their grid from the navigation bake; saved games bake it here
+        if(type != WorldType.CLIENT && spawnGrid == null)
+            spawnGrid = SpawnGrid.bake(rigidEntities, SpawnGrid.DEFAULT_CELL_SIZE);
+
         vem = new VisualEffectsManager(assetManager, root, viewPort);
         timeManager = new TimeManager(this, vem);
         vem.removeLightScattering();     //Uncomment this if you have a powerful computer mr markers
@@ -254,13 +355,46 @@ public class World implements Savable{
             spawnPoint = new Vector3f(0,50,0);
         }
 
+        // path nodes and trigger zones are taken from these models, unless they were baked last time
+        Set<String> models = new HashSet<String>();
+        for(MapLoader.Tuple t : ent)
+            if(t.entity instanceof WorldObject && !(t.entity instanceof OutpostGate))
+                t.entity.getPreloadAssets(models);
+
+        File bakeFile = NavigationBake.getCacheFile(filename, usePathNodes);
+        byte[] key = null;
+        NavigationBake bake = null;
+        if(CACHE_NAVIGATION){
+            try{
+                key = NavigationBake.computeKey(filename, models, assetManager, usePathNodes);
+                bake = NavigationBake.load(bakeFile, key, assetManager);
+            } catch(IOException e){
+                key = null; // can't tell whether a bake is up to date, so don't use or save one
+            }
+        }
+
+        List<TriggerZone> triggers = new ArrayList<TriggerZone>();
         for(MapLoader.Tuple t : ent){
             addEntity(t.entity, t.location);
 
-            if(t.entity instanceof WorldObject && !(t.entity instanceof OutpostGate)){
-                ((WorldObject) t.entity).addSpecialNodes();
+            if(bake == null && t.entity instanceof WorldObject && !(t.entity instanceof OutpostGate)){
+                triggers.addAll(((WorldObject) t.entity).addSpecialNodes());
             }
         }
+
+        if(bake != null){
+            for(PathNode n : bake.getPathNodes())
+                addPathNode(n);
+            for(EntitySpawnData d : bake.getTriggers())
+                addEntity(d.e, d.location);
+            bakePathGraph();
+            spawnGrid = bake.getSpawnGrid();
+        } else{
+            initializePathGraph();
+            spawnGrid = SpawnGrid.bake(rigidEntities, SpawnGrid.DEFAULT_CELL_SIZE);
+            if(key != null)
+                new NavigationBake(key, pathNodes, triggers, spawnGrid).save(bakeFile);
+        }
     }
 
     /**
@@ -282,17 +416,27 @@ public class World implements Savable{
      */
     public void addEntities(Collection<EntitySpawnData> es){
         for(EntitySpawnData e : es)
-            if(entities.contains(e.e) || entitiesByID.containsKey(e.id))
+            if(entities.contains(e.e) || entityIDs.isSlotInUse(e.id))
                 throw new IllegalStateException("duplicate entity or ID");
 
         for(EntitySpawnData e : es){
+            entityIDs.reserve(e.id);
             entities.add(e.e);
             entitiesByID.put(e.id, e.e);
+            registry.add(e.e);
             if(e.e.isUpdatable())
                 updatableEntities.add(e.e);
         }
-        for(EntitySpawnData e : es)
+        for(EntitySpawnData e : es){
             e.e.linkToWorld(this, e.location, e.id);
+            applyMobModifiers(e.e);
+            entityGrid.put(e.e, e.e.getLocation());
+            PhysicsUtilities.prepareCollision(e.e.getMesh());
+            if(e.e instanceof Actor)
+                areaEffects.add((Actor) e.e);
+            if(e.e instanceof Treasure)
+                updateTreasure((Treasure) e.e);
+        }
         for(EntitySpawnData e : es)
             if(e.e instanceof Container)
                 ((Container) e.e).getContainerInventory().linkToWorld(this);
@@ -316,18 +460,23 @@ public class World implements Savable{
         }
         if(getWorldType() == WorldType.CLIENT)
             throw new IllegalStateException("Cannot create entities on the client");
-        int id;
-        do
-            id = nextEntityID++;
-        while(entitiesByID.containsKey(id));
+        int id = entityIDs.allocate();
         entitiesByID.put(id, e);
+        registry.add(e);
 
         e.linkToWorld(this, location, id);
+        applyMobModifiers(e);
 
         if(e instanceof Container)
             ((Container) e).getContainerInventory().linkToWorld(this);
 
         e.setLocation(location);
+        entityGrid.put(e, location);
+        PhysicsUtilities.prepareCollision(e.getMesh());
+        if(e instanceof Actor)
+            areaEffects.add((Actor) e);
+        if(e instanceof Treasure)
+            updateTreasure((Treasure) e);
         for(WorldObserver o : observers)
             o.onAddEntity(this, e);
 
@@ -345,82 +494,372 @@ public class World implements Savable{
         for(WorldObserver o : observers)
             o.onRemoveEntity(this, e);
 
-        if(e.isUpdatable())
+        if(e.isUpdatable()){
             updatableEntities.remove(e);
+            sleepingEntities.remove(e);
+            cancelTimer(e);
+        }
 
         otherPlayers.remove(e);
+        playersOutsideWinZone.remove(e);
+        heldTreasures.remove(e);
         entities.remove(e);
         entitiesByID.remove(e.getEntityID());
+        entityIDs.release(e.getEntityID());
+        entityGrid.remove(e);
+        registry.remove(e);
+        if(e instanceof Mob){
+            mobLOD.remove((Mob) e);
+            population.remove((Mob) e);
+        }
+        if(e instanceof Actor)
+            areaEffects.remove((Actor) e);
         e.unlinkFromWorld(this);
+
+        // clients don't spawn mobs, so only the side that does keeps them
+        if(e instanceof Mob && worldType != WorldType.CLIENT)
+            spawner.recycle((Mob) e);
     }
 
     private void addWorldObject(String filename, float x, float y, float z, Vector3f vecscale, float scale, float angle, boolean cull){
         WorldObject wo = new WorldObject(filename, vecscale, scale, angle, cull);
         addEntity(wo, new Vector3f(x, y, z));
         wo.addSpecialNodes();
+        PhysicsUtilities.prepareCollision(wo.getMesh());
     }
 
     // GAME LOGIC
 
     /**
-     * Performs one tick of game-logic, including updating all Mobs and any items that need updating.
+     * Advances the game by the passed amount of real time. The local Player (input and camera) is updated every
+     * frame, while the rest of the game logic is run in fixed-length steps by this World's SimulationClock.
      *
      * This should be called from the main loop.
+     *
+     * @param frameTime
+     *            the real time since the last frame
+     */
+    public void simulate(float frameTime){
+        if(player != null){
+            long start = profiler.start();
+            player.update(frameTime);
+            profiler.record(TickProfiler.Phase.PLAYER, start);
+        }
+
+        int steps = clock.advance(frameTime);
+        float step = clock.getStepLength();
+        for(int i = 0; i < steps; i++){
+            long start = System.nanoTime();
+            simulationTick(step);
+            clock.recordStep(System.nanoTime() - start);
+        }
+        notifyStatObservers();
+    }
+
+    /**
+     * Performs one tick of game-logic, including updating all Mobs and any items that need updating.
+     *
+     * Unlike simulate, this runs a single tick of exactly the passed length.
      */
     public void gameTick(float tpf){
-        if(player != null)
+        if(player != null){
+            long start = profiler.start();
             player.update(tpf);
+            profiler.record(TickProfiler.Phase.PLAYER, start);
+        }
 
+        simulationTick(tpf);
+        notifyStatObservers();
+    }
+
+    /**
+     * Tells the observers of every Actor's stats about the stats that changed since the last call.
+     * This is done once per frame rather than on every change, so a stat that changes several
+     * times a frame (like a mob's speed) is only reported once, with its final value.
+     */
+    private void notifyStatObservers(){
+        EntityView<Actor> actors = registry.getView(Actor.class);
+        for(int i = 0; i < actors.size(); i++){
+            ActorStats stats = actors.get(i).getStats();
+            if(stats != null)
+                stats.notifyObservers();
+        }
+    }
+
+    /**
+     * Performs one tick of game-logic, excluding the local Player.
+     */
+    private void simulationTick(float tpf){
+        long tickStart = profiler.start();
+        updateSpatialIndex();
+        long t = profiler.record(TickProfiler.Phase.SPATIAL_INDEX, tickStart);
+
+        // paths found by the workers since the last tick take effect now, before anything uses them
+        pathRequests.update();
         expensiveOperationManager.update(tpf);
         timeManager.update(tpf);
+        t = profiler.record(TickProfiler.Phase.MANAGERS, t);
 
-        for(Effect e : effects){
-            e.linkToWorld(this); // effects aren't linked anywhere else?
+        simulationTime += tpf;
+        runDueTimers();
+        areaEffects.update();
+        for(Effect e : updatableEffects){
             e.update(tpf);
         }
+        t = profiler.record(TickProfiler.Phase.EFFECTS, t);
+
+        // fields are only replaced here, so mobs can read them while thinking in parallel
+        if(worldType != WorldType.CLIENT)
+            flowFields.update(otherPlayers);
+        // physics can only be paused on the side that simulates mobs
+        mobLOD.schedule(registry.getView(Mob.class), otherPlayers, tpf, worldType != WorldType.CLIENT);
+        // bring world transforms and bounds up to date, so raycasts while thinking only read the scene graph
+        root.updateGeometricState();
+        thinkMobs();
+        t = profiler.record(TickProfiler.Phase.AI_THINK, t);
 
         int count = 0;
+        long entityStart = t;
         for(Entity e : updatableEntities){
             if(e.isRemovedFromWorld())
                 continue;
             if(e instanceof Mob){
                 count++;
-                e.update(tpf);
+                float mobTpf = mobLOD.getTickTime((Mob) e);
+                if(mobTpf < 0)
+                    continue;
+                e.update(mobTpf);
             } else{
                 e.update(tpf);
             }
+            entityStart = profiler.recordEntity(e.getClass(), entityStart);
         }
+        t = profiler.record(TickProfiler.Phase.ENTITIES, t);
+
+        applyDealtDamage();
+        t = profiler.record(TickProfiler.Phase.DAMAGE, t);
 
-        if(enableMobSpawning && count < MAX_MOBS)
+        if(enableMobSpawning && worldType != WorldType.CLIENT){
+            despawnMobs(tpf);
             spawner.spawnTick(tpf);
+        }
+        profiler.recordSpawnQueue(spawner.getQueueDepth());
+        t = profiler.record(TickProfiler.Phase.SPAWNING, t);
 
-        if(gameIsWon()){
+        boolean wasWon = won;
+        won = gameIsWon();
+        if(won && !wasWon){
             for(WorldObserver o : observers){
                 o.onGameWon(this);
             }
         }
+        t = profiler.record(TickProfiler.Phase.WIN_CHECK, t);
+
+        // nothing is iterating now, so fill in the holes left by this tick's removals
+        entities.compact();
+        updatableEntities.compact();
+        effects.compact();
+        updatableEffects.compact();
+        profiler.record(TickProfiler.Phase.COMPACT, t);
+
+        profiler.endTick(tickStart, entities.size(), effects.size(), count);
+    }
+
+    /**
+     * Counts the mobs for population, and removes the ones that have been far from every player for too long.
+     */
+    private void despawnMobs(float tpf){
+        despawned.clear();
+        population.update(registry.getView(Mob.class), otherPlayers, tpf, despawned);
+        for(int i = 0; i < despawned.size(); i++)
+            removeEntity(despawned.get(i));
+    }
+
+    /**
+     * Runs the read-only part of the AI of every mob that mobLOD scheduled for this tick,
+     * in parallel if there are enough mobs.
+     * Nothing changes the World while this runs, so the AIs can safely query it.
+     */
+    private void thinkMobs(){
+        final EntityView<Mob> mobView = registry.getView(Mob.class);
+        final int n = mobView.size();
+
+        if(!PARALLEL_AI || n < AI_PARALLEL_THRESHOLD){
+            for(int i = 0; i < n; i++)
+                think(mobView.get(i));
+            return;
+        }
 
+        if(aiPool == null)
+            aiPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory(){
+                @Override
+                public Thread newThread(Runnable r){
+                    Thread t = new Thread(r, "AI thread");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+        List<Callable<Void>> batches = new ArrayList<Callable<Void>>();
+        for(int start = 0; start < n; start += AI_BATCH_SIZE){
+            final int from = start, to = Math.min(n, start + AI_BATCH_SIZE);
+            batches.add(new Callable<Void>(){
+                @Override
+                public Void call(){
+                    for(int i = from; i < to; i++)
+                        think(mobView.get(i));
+                    return null;
+                }
+            });
+        }
+
+        try{
+            for(Future<Void> f : aiPool.invokeAll(batches))
+                f.get();
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e){
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void think(Mob mob){
+        float tpf = mobLOD.getTickTime(mob);
+        if(tpf >= 0)
+            mob.think(tpf);
+    }
+
+    /**
+     * Moves every entity that can move to its current location in the spatial index,
+     * and updates which players are outside the win zone.
+     * Physics moves entities without telling the World, so this is done once per tick.
+     */
+    private void updateSpatialIndex(){
+        for(Entity e : entities){
+            if(!e.isImmovableEntity() && !e.isRemovedFromWorld()){
+                entityGrid.put(e, e.getLocation());
+                if(e instanceof Player)
+                    updatePlayerZone((Player) e);
+            }
+        }
     }
 
     private BoundingBox winZone = new BoundingBox(Vector3f.UNIT_X, Vector3f.UNIT_XYZ);
 
+    // the win condition is tracked as entities change, so checking it each tick is O(1)
+    private Set<Player> playersOutsideWinZone = Collections.newSetFromMap(new IdentityHashMap<Player, Boolean>());
+    private Set<Treasure> heldTreasures = Collections.newSetFromMap(new IdentityHashMap<Treasure, Boolean>());
+    private boolean won;
+
+    /**
+     * The game is won when every player is in the win zone, and every treasure is held by a player.
+     */
     private boolean gameIsWon(){
-        Vector3f location;
-        for(Player p : otherPlayers){
-            location = p.getLocation();
-            if(!winZone.contains(location))
-                return false;
-        }
+        return playersOutsideWinZone.isEmpty() && heldTreasures.size() == registry.getView(Treasure.class).size();
+    }
+
+    private void updatePlayerZone(Player p){
+        if(winZone.contains(p.getLocation()) || !otherPlayers.contains(p))
+            playersOutsideWinZone.remove(p);
+        else
+            playersOutsideWinZone.add(p);
+    }
 
-        for(Entity item : entities){
-        	if(!(item instanceof Treasure))
-        		continue;
+    private void updateTreasure(Treasure t){
+        Inventory inv = t.getInventory();
+        if(entities.contains(t) && inv != null && inv.getOwner() instanceof Player)
+            heldTreasures.add(t);
+        else
+            heldTreasures.remove(t);
+    }
 
-            if(((Treasure)item).getInventory() == null || !(((Treasure)item).getInventory().getOwner() instanceof Player))
-                return false;
+    /**
+     * Called by Inventory whenever an Item is added to or removed from an inventory.
+     *
+     * @param item the Item that moved
+     */
+    void itemInventoryChanged(Item item){
+        if(item instanceof Treasure)
+            updateTreasure((Treasure) item);
+    }
+
+    // TIMERS AND SLEEPING ENTITIES
+
+    private void startTimer(Object owner, float seconds){
+        cancelTimer(owner);
+        long deadline = (long) Math.ceil((simulationTime + seconds) / TIMER_RESOLUTION);
+        timersByOwner.put(owner, timers.schedule(owner, deadline));
+    }
+
+    private void cancelTimer(Object owner){
+        timers.cancel(timersByOwner.remove(owner));
+    }
+
+    private void runDueTimers(){
+        timers.advance((long) Math.floor(simulationTime / TIMER_RESOLUTION), dueTimers);
+        for(Object owner : dueTimers){
+            timersByOwner.remove(owner);
+            if(owner instanceof Effect)
+                ((Effect) owner).expire();
+            else
+                wake((Entity) owner);
         }
+        dueTimers.clear();
+    }
+
+    /**
+     * Stops updating the passed updatable Entity until it is woken with wake. This is for
+     * entities like closed doors that have nothing to do until something happens to them.
+     * Safe to call from within the Entity's update.
+     *
+     * @param e
+     *            the Entity to put to sleep
+     */
+    public void sleep(Entity e){
+        cancelTimer(e);
+        if(updatableEntities.remove(e))
+            sleepingEntities.add(e);
+    }
+
+    /**
+     * Stops updating the passed updatable Entity for the passed number of seconds of game time,
+     * after which it is woken automatically. It can still be woken early with wake.
+     *
+     * @param e
+     *            the Entity to put to sleep
+     * @param seconds
+     *            how long to sleep for
+     */
+    public void sleepFor(Entity e, float seconds){
+        sleep(e);
+        if(sleepingEntities.contains(e))
+            startTimer(e, seconds);
+    }
+
+    /**
+     * Resumes updating the passed Entity, if it is asleep. It will next be updated on the following tick.
+     *
+     * @param e
+     *            the Entity to wake
+     */
+    public void wake(Entity e){
+        cancelTimer(e);
+        if(sleepingEntities.remove(e))
+            updatableEntities.add(e);
+    }
 
-        return true;
+    /**
+     * @return whether the passed Entity has been put to sleep
+     */
+    public boolean isSleeping(Entity e){
+        return sleepingEntities.contains(e);
+    }
+
+    /**
+     * @return the number of effect expiries and entity wake-ups waiting to run
+     */
+    public int getTimerCount(){
+        return timers.size();
     }
 
     // EFFECT CREATION AND DESTRUCTION
@@ -433,6 +872,32 @@ public class World implements Savable{
      */
     public void destroyEffect(Effect effect){
         effects.remove(effect);
+        updatableEffects.remove(effect);
+        cancelTimer(effect);
+    }
+
+    /**
+     * Calls expire on the passed Effect after the passed number of seconds of game time,
+     * replacing any expiry already scheduled for it. Effects that only wait for a duration
+     * to pass use this instead of being updated every tick.
+     *
+     * @param effect
+     *            the Effect to expire
+     * @param seconds
+     *            the time until it expires
+     */
+    public void scheduleExpiry(Effect effect, float seconds){
+        startTimer(effect, seconds);
+    }
+
+    /**
+     * @return the time until the passed Effect expires, or -1 if it has no expiry scheduled
+     */
+    public float getTimeUntilExpiry(Effect effect){
+        TimerWheel.Timer<Object> timer = timersByOwner.get(effect);
+        if(timer == null)
+            return -1;
+        return (float) Math.max(0, timer.getDeadline() * TIMER_RESOLUTION - simulationTime);
     }
 
     /**
@@ -441,7 +906,7 @@ public class World implements Savable{
      * @param effect
      */
     public void makeEffect(Effect effect){
-        effects.add(effect);
+        addEffect(effect);
         effect.linkToWorld(this);
         effect.start();
 
@@ -464,11 +929,99 @@ public class World implements Savable{
      *            effect
      */
     public void makeLocalEffect(Effect effect){
-        effects.add(effect);
+        addEffect(effect);
         effect.linkToWorld(this);
         effect.start();
     }
 
+    /**
+     * Deals damage to the passed Actor. The damage is reduced by the actor's armour and added to the damage it has
+     * taken this tick, which is applied (and observers are told about) once, at the end of the tick.
+     *
+     * @param target
+     *            the Actor to damage
+     * @param damage
+     *            the damage of the hit
+     */
+    public void dealDamage(Actor target, float damage){
+        if(target == null)
+            throw new NullPointerException("target is null");
+        damageBuffer.add(target.getEntityID(), SimpleDamage.reduceByArmour(target.getStats().getStat(Stat.ARMOUR), damage));
+    }
+
+    /**
+     * Applies damage that has already been reduced by armour to the passed Actor straight away, without telling
+     * observers. Clients use this for the damage dealt on the server.
+     *
+     * @param target
+     *            the Actor to damage
+     * @param damage
+     *            the damage to take from its health
+     */
+    public void applyDamage(Actor target, float damage){
+        SimpleDamage d = SimpleDamage.obtain(target, damage, true);
+        d.linkToWorld(this);
+        target.applyEffect(d);
+    }
+
+    private void applyDealtDamage(){
+        for(int i = 0; i < damageBuffer.size(); i++){
+            Entity e = entitiesByID.get(damageBuffer.getTarget(i));
+            if(!(e instanceof Actor) || e.isRemovedFromWorld())
+                continue; // died or left earlier this tick
+            float amount = damageBuffer.getAmount(i);
+            for(WorldObserver o : observers){
+                o.onDamage(this, (Actor) e, amount);
+            }
+            applyDamage((Actor) e, amount);
+        }
+        damageBuffer.clear();
+    }
+
+    /**
+     * Gives every Mob, including those added later, stat modifiers belonging to the passed source that multiply
+     * their stats by the passed amounts. This replaces any mob modifiers the source already has.
+     *
+     * @param source
+     *            the object the modifiers belong to, such as the effect of the current time of day
+     * @param multipliers
+     *            the amounts to multiply each stat by
+     */
+    public void addMobModifiers(Object source, StatModification multipliers){
+        mobModifiers.put(source, multipliers);
+        EntityView<Mob> mobs = registry.getView(Mob.class);
+        for(int i = 0; i < mobs.size(); i++){
+            mobs.get(i).getStats().addModifiers(source, multipliers, true);
+        }
+    }
+
+    /**
+     * Removes the modifiers added by addMobModifiers from every Mob.
+     */
+    public void removeMobModifiers(Object source){
+        if(mobModifiers.remove(source) == null)
+            return;
+        EntityView<Mob> mobs = registry.getView(Mob.class);
+        for(int i = 0; i < mobs.size(); i++){
+            mobs.get(i).getStats().removeModifiers(source);
+        }
+    }
+
+    private void applyMobModifiers(Entity e){
+        if(!(e instanceof Mob) || mobModifiers.isEmpty())
+            return;
+        ActorStats stats = ((Mob) e).getStats();
+        for(Map.Entry<Object, StatModification> m : mobModifiers.entrySet()){
+            stats.addModifiers(m.getKey(), m.getValue(), true);
+        }
+    }
+
+    private void addEffect(Effect effect){
+        effects.add(effect);
+        if(effect.isUpdatable())
+            updatableEffects.add(effect);
+    }
+
     // PLAYER ACTIONS
 
     /**
@@ -635,11 +1188,68 @@ public class World implements Savable{
      * @return all Entities of the passed Class
      */
     public <T> Collection<T> getEntitiesOfClass(Class<T> clazz){
-        Collection<T> rv = new ArrayList<T>();
-        for(Entity e : entities)
-            if(clazz.isInstance(e))
-                rv.add(clazz.cast(e));
-        return rv;
+        return new ArrayList<T>(registry.getView(clazz));
+    }
+
+    /**
+     * Returns a live view of all the Entities of the passed class in the game world. Unlike getEntitiesOfClass,
+     * this does not copy anything, so Entities must not be added or removed while iterating over it.
+     *
+     * @param clazz
+     *            the Class of the Entities to return
+     * @return a live view of all Entities of the passed Class
+     */
+    public <T> EntityView<T> getEntityView(Class<T> clazz){
+        return registry.getView(clazz);
+    }
+
+    /**
+     * @return the UpdateLOD that decides how often mobs far from players are updated
+     */
+    public UpdateLOD getMobLOD(){
+        return mobLOD;
+    }
+
+    /**
+     * @return the PhysicsTickDispatcher that does this World's work before each physics substep
+     */
+    public PhysicsTickDispatcher getPhysicsTickDispatcher(){
+        return physicsTicks;
+    }
+
+    /**
+     * @return the SpawnGrid giving where mobs can be spawned, or null if there is none (such as on a client)
+     */
+    public SpawnGrid getSpawnGrid(){
+        return spawnGrid;
+    }
+
+    /**
+     * @return the MobPopulation that limits how many mobs are spawned, and where
+     */
+    public MobPopulation getMobPopulation(){
+        return population;
+    }
+
+    /**
+     * @return the AreaEffects that finds the actors in an area, for radius effects
+     */
+    public AreaEffects getAreaEffects(){
+        return areaEffects;
+    }
+
+    /**
+     * @return the TickProfiler that times each phase of a simulation tick
+     */
+    public TickProfiler getTickProfiler(){
+        return profiler;
+    }
+
+    /**
+     * @return the SimulationClock that controls the tick rate of simulate, and measures tick cost
+     */
+    public SimulationClock getSimulationClock(){
+        return clock;
     }
 
     /**
@@ -694,9 +1304,12 @@ public class World implements Savable{
     }
 
     /**
+     * IDs are reused once their Entity is removed, but with a new generation, so an out of date
+     * id (eg. from a late network message) returns null rather than the Entity that replaced it.
+     *
      * @param eid
      *            the id to find the Entity for
-     * @return the Entity with the passed id
+     * @return the Entity with the passed id, or null if there is none
      */
     public Entity getEntityByID(int eid){
         return entitiesByID.get(eid);
@@ -728,17 +1341,46 @@ public class World implements Savable{
      *            the point to get the closest PathNode to
      * @return the PathNode closest to the passed Vector3f
      */
-    public PathNode getClosestPathNode(Vector3f location){
-        float bestDistSq = Float.POSITIVE_INFINITY;
-        PathNode best = null;
-        for(PathNode pn : pathNodes){
-            float dist = pn.position.distanceSquared(location);
-            if(dist < bestDistSq && PhysicsUtilities.checkLineOfSight(location, pn.position, root, true)){
-                bestDistSq = dist;
-                best = pn;
+    public PathNode getClosestPathNode(final Vector3f location){
+        PathNodeLocator locator = pathNodeLocator;
+        if(locator != null)
+            return locator.nearestVisible(location);
+
+        // nodes are tried nearest-first, so the line of sight check only runs until one passes
+        return pathNodeGrid.nearest(location, new SpatialGrid.Filter<PathNode>(){
+            @Override
+            public boolean accept(PathNode pn){
+                return PhysicsUtilities.checkLineOfSight(location, pn.position, root, true);
             }
-        }
-        return best;
+        });
+    }
+
+    /**
+     * @return the shortest paths between this World's path nodes, or null if there are none or too many
+     */
+    public PathTable getPathTable(){
+        return pathTable;
+    }
+
+    /**
+     * @return a snapshot of this World's path graph, or null if there are no path nodes
+     */
+    public PathGraph getPathGraph(){
+        return pathGraph;
+    }
+
+    /**
+     * @return the service that finds paths through the path graph on worker threads
+     */
+    public PathRequestService getPathRequestService(){
+        return pathRequests;
+    }
+
+    /**
+     * @return the flow fields leading to each player, which mobs pursuing a player follow
+     */
+    public FlowFieldManager getFlowFieldManager(){
+        return flowFields;
     }
 
     /**
@@ -804,6 +1446,8 @@ public class World implements Savable{
      * @return the Player closest to the passed Vector3f
      */
     public Player getNearestPlayer(Vector3f point){
+        // there are only a few players, so scanning them is cheaper than walking the entity grid,
+        // which would visit every mob and item in each ring until it reached one
         float minDist = Float.MAX_VALUE;
         Player closest = null;
         float curDist;
@@ -831,24 +1475,39 @@ public class World implements Savable{
      * @return the Entity of the given class closest to the passed point
      */
     public <T> T getNearestEntity(Vector3f point, Class<T> entClass, Entity exclude){
-        float minDist = Float.MAX_VALUE;
-        T closest = null;
-        float curDist;
-
-        for(Entity p : entities){
-            if(p == exclude)
-                continue;
-            if(!entClass.isInstance(p))
-                continue;
+        return entClass.cast(entityGrid.nearest(point, SpatialGrid.<Entity>classFilter(entClass, exclude)));
+    }
 
-            curDist = p.getLocation().distanceSquared(point);
-            if(curDist < minDist){
-                minDist = curDist;
-                closest = entClass.cast(p);
-            }
-        }
+    /**
+     * Returns (at most) the k Entities of the passed class closest to the passed Vector3f.
+     *
+     * @param point
+     *            the point to get the closest Entities to
+     * @param k
+     *            the maximum number of Entities to return
+     * @param entClass
+     *            the Class of the Entities to find
+     * @return the found Entities, in nearest-first order
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getNearestEntities(Vector3f point, int k, Class<T> entClass){
+        return (List<T>) entityGrid.nearest(point, k, SpatialGrid.<Entity>classFilter(entClass, null), new ArrayList<Entity>(k));
+    }
 
-        return closest;
+    /**
+     * Returns all the Entities of the passed class within a radius of the passed Vector3f.
+     *
+     * @param centre
+     *            the centre of the area to search
+     * @param radius
+     *            the radius around the centre to search
+     * @param entClass
+     *            the Class of the Entities to find
+     * @return the found Entities, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getEntitiesInRadius(Vector3f centre, float radius, Class<T> entClass){
+        return (List<T>) entityGrid.inRadius(centre, radius, SpatialGrid.<Entity>classFilter(entClass, null), new ArrayList<Entity>());
     }
 
     /**
@@ -881,13 +1540,17 @@ public class World implements Savable{
         // effects = new HashSet<Effect>(ic.readSavableArrayList("effects",
         // null));
         // root = (Node)ic.readSavable("root", null);
-        nextEntityID = ic.readInt("nextEntityID", 0);
 
         pathNodes.clear();
-        pathNodes.addAll(ic.readSavableArrayList("pathNodes", null));
+        pathNodeGrid.clear();
+        for(Object o : ic.readSavableArrayList("pathNodes", null))
+            addPathNode((PathNode) o);
+        bakePathGraph();
 
+        // linked in attachToGame, once the entities they refer to exist
         effects.clear();
-        effects.addAll(ic.readSavableArrayList("effects", null));
+        updatableEffects.clear();
+        loadedEffects = ic.readSavableArrayList("effects", null);
 
         spawnPoint = (Vector3f) ic.readSavable("spawn", new Vector3f(0, 50, 0));
         winZone = (BoundingBox) ic.readSavable("winZone", winZone);
@@ -908,7 +1571,6 @@ public class World implements Savable{
         // oc.writeSavableArrayList(new ArrayList<Effect>(effects), "effects",
         // null);
         // oc.write(root, "root", null);
-        oc.write(nextEntityID, "nextEntityID", 0);
         oc.writeSavableArrayList(new ArrayList<PathNode>(pathNodes), "pathNodes", null);
         oc.writeSavableArrayList(new ArrayList<Effect>(effects), "effects", null);
         oc.write(spawnPoint, "spawn", null);
@@ -922,10 +1584,37 @@ public class World implements Savable{
     private void initializePathGraph(){
         for(PathNode n : pathNodes)
             n.link();
+        bakePathGraph();
+    }
+
+    /**
+     * Takes a snapshot of the path graph and bakes the table of shortest paths between path nodes, once the graph has been
+     * linked. Graphs too large for a PathTable are left without one, and searched instead. Also indexes the nodes for
+     * getClosestPathNode.
+     */
+    private void bakePathGraph(){
+        pathGraph = null;
+        pathTable = null;
+        pathNodeLocator = null;
+        if(pathNodes.isEmpty())
+            return;
+        pathNodeLocator = new PathNodeLocator(pathNodes, new PathNodeLocator.LineOfSight(){
+            @Override
+            public boolean check(Vector3f from, Vector3f to){
+                return PhysicsUtilities.checkLineOfSight(from, to, root, true);
+            }
+        });
+        if(pathNodes.size() > PathGraph.MAX_NODES)
+            return;
+        pathGraph = new PathGraph(pathNodes);
+        if(pathGraph.size() <= PathTable.MAX_NODES)
+            pathTable = new PathTable(pathGraph);
     }
 
     public void addPathNode(PathNode pathNode){
+        pathNodeLocator = null; // until the graph is baked again
         pathNodes.add(pathNode);
+        pathNodeGrid.put(pathNode, pathNode.position);
     }
 
     public Set<String> getPreloadAssets(){
@@ -954,6 +1643,8 @@ public class World implements Savable{
 
     public void setEnableMobSpawning(boolean value){
         enableMobSpawning = value;
+        if(!value)
+            spawner.clearQueue();
     }
 
 	public Vector3f getSpawnPoint() {
@@ -27,10 +27,33 @@ public abstract class AI implements Savable {
 	}
 
 	/**
-	 * Perform one tick of this AI's logic on the passed Mob.
+	 * Perform the read-only part of one tick of this AI's logic on the passed Mob, such as
+	 * choosing a target, checking line of sight and finding paths. This is called for every
+	 * Mob before update is called on any of them, and possibly in parallel on several threads,
+	 * so it must not change the World, the Mob or anything else shared - only this AI's own
+	 * state, for update to act on.
+	 * 
+	 * By default this does nothing, and all logic is done in update.
+	 * 
+	 * @param mob the Mob to perform AI logic on
+	 * @param tpf the time since the last update
+	 */
+	public void think(Mob mob, float tpf) {}
+
+	/**
+	 * Perform one tick of this AI's logic on the passed Mob. This is always called on the
+	 * game thread, after think.
 	 * 
 	 * @param mob the Mob to perform AI logic on
 	 * @param tpf the time since the last update
 	 */
 	public abstract void update(Mob mob, float tpf);
+
+	/**
+	 * Forgets everything this AI knows about the Mob it was controlling, so it can control
+	 * the Mob again after the Mob is reused. See Mob.reset.
+	 * 
+	 * By default this does nothing.
+	 */
+	public void reset() {}
 }
@@ -59,7 +59,6 @@ public class Follower extends AI {
 
 			// World.sop(mob);
 			float speed = mob.getStats().getStat(Stat.SPEED);
-			mob.getStats().resetStat(Stat.SPEED);
 
 			// if the mob is close enough to the player that they shouldn't
 			// move, don't pathfind instead attack.
@@ -41,6 +41,11 @@ public class NoNodePathing implements Pathfinder, Savable {
 		return getPath(to, mob, 0, null);
 	}
 
+	@Override
+	public PathRequest request (Vector3f to, Mob mob) {
+		return PathRequest.completed(path(to, mob));
+	}
+
 	private PathNode getPath (Vector3f to, Mob mob, int recursion, PathNode head) {
 		if (recursion == MAX_RECURSION) {
 			return head;
@@ -2,11 +2,19 @@ package world.ai;
 
 import java.io.IOException;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 
+import world.Actor;
+import world.FlowField;
+import world.PathGraph;
 import world.PathNode;
+import world.PathTable;
+import world.Player;
+import world.World;
 import world.entity.mob.Mob;
 
 import com.jme3.export.JmeExporter;
@@ -14,17 +22,73 @@ import com.jme3.export.JmeImporter;
 import com.jme3.math.Vector3f;
 
 /**
- * A pathfinder that uses A* on the world's pathnode grid.
+ * A pathfinder that uses the world's pathnode grid.
+ * Paths to a mob's target player follow that player's FlowField, and other paths are read from
+ * the world's PathTable when it has one, neither of which needs a search; otherwise the world's
+ * PathGraph is searched with A*, on a worker thread if the path was asked for with request
+ * (or the PathNodes themselves, for nodes added after the graph was baked).
+ * It does not modify the grid, so it is safe to use from several threads at once.
+ * The positions in paths from a FlowField or the PathTable are the path nodes' own, so they must not be modified.
  * 
  * @author Alex Campbell 300252131
  */
 public class NodePathing implements Pathfinder {
 	@Override
-	public world.ai.PathNode path(final Vector3f to, Mob mob) {
-		for(PathNode pn : mob.getWorld().getPathNodes()) {
-			pn.from = null;
+	public world.ai.PathNode path(Vector3f to, Mob mob) {
+		return find(to, mob, false).getPath();
+	}
+	
+	@Override
+	public PathRequest request(Vector3f to, Mob mob) {
+		return find(to, mob, true);
+	}
+	
+	/**
+	 * Finds the nodes to path between, and the path if that needs no search.
+	 * @param async true to search the world's PathGraph on another thread, rather than this one
+	 */
+	private PathRequest find(Vector3f to, Mob mob, boolean async) {
+		World world = mob.getWorld();
+		PathNode startNode = world.getClosestPathNode(mob.getLocation());
+		if(startNode == null)
+			return PathRequest.completed(null);
+		
+		// mobs heading for a player follow the field shared by everything pursuing that player
+		Actor target = mob.getTarget();
+		if(target instanceof Player && to.equals(target.getLocation())) {
+			FlowField field = world.getFlowFieldManager().getField((Player)target);
+			if(field != null && field.contains(startNode))
+				return PathRequest.completed(field.route(startNode));
+		}
+		
+		PathNode goalNode = world.getClosestPathNode(to);
+		//if(startNode == null/* || startNode.position.distanceSquared(mob.getLocation()) > 50*/)
+			//mob.getWorld().addPathNode(mob.getLocation());
+		//if(goalNode == null)
+			//mob.getWorld().addPathNode(to);
+		if(goalNode == null)
+			return PathRequest.completed(null);
+		
+		PathTable table = world.getPathTable();
+		if(table != null && table.contains(startNode) && table.contains(goalNode))
+			return PathRequest.completed(table.route(startNode, goalNode));
+		
+		PathGraph graph = world.getPathGraph();
+		int from = graph == null ? -1 : graph.indexOf(startNode);
+		int goal = graph == null ? -1 : graph.indexOf(goalNode);
+		if(from >= 0 && goal >= 0) {
+			if(async)
+				return world.getPathRequestService().submit(graph, from, goal);
+			return PathRequest.completed(graph.findPath(from, goal));
 		}
 		
+		return PathRequest.completed(search(startNode, goalNode));
+	}
+	
+	/**
+	 * A* over the PathNodes themselves, for nodes that are not in the world's PathGraph.
+	 */
+	private static world.ai.PathNode search(PathNode startNode, final PathNode goalNode) {
 		class PQEntry {
 			PathNode node;
 			double cost;
@@ -37,14 +101,8 @@ public class NodePathing implements Pathfinder {
 			}
 		}
 		
-		final PathNode goalNode = mob.getWorld().getClosestPathNode(to);
-		final PathNode startNode = mob.getWorld().getClosestPathNode(mob.getLocation());
-		//if(startNode == null/* || startNode.position.distanceSquared(mob.getLocation()) > 50*/)
-			//mob.getWorld().addPathNode(mob.getLocation());
-		//if(goalNode == null)
-			//mob.getWorld().addPathNode(to);
-		if(goalNode == null || startNode == null)
-			return null;
+		// search state is kept here rather than in the PathNodes, so paths can be found on several threads at once
+		final Map<PathNode, PathNode> from = new HashMap<PathNode, PathNode>();
 		
 		PriorityQueue<PQEntry> pq = new PriorityQueue<PQEntry>(10, new Comparator<PQEntry>() {
 			@Override
@@ -61,18 +119,18 @@ public class NodePathing implements Pathfinder {
 		
 		while(!pq.isEmpty()) {
 			PQEntry n = pq.poll();
-			if(n.node.from != null)
+			if(from.containsKey(n.node))
 				continue;
-			n.node.from = n.from;
+			from.put(n.node, n.from);
 			
 			if(n.node == goalNode) {
 				
 				PathNode pn = n.node;
 				
 				List<Vector3f> path = new LinkedList<Vector3f>();
-				while(pn.from != pn) {
+				while(from.get(pn) != pn) {
 					path.add(0, pn.position);
-					pn = pn.from;
+					pn = from.get(pn);
 				}
 				path.add(0, pn.position);
 				
@@ -0,0 +1,89 @@
+package world.ai;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A PathRequest is a path that a Pathfinder has been asked for, which might still be being found
+ * on another thread (see world.PathRequestService).
+ *
+ * A request that is being found only becomes done at the start of a tick, when the World applies
+ * the results that are ready, so a path never changes in the middle of a tick. Until then the mob
+ * that asked for it can keep following its old path.
+ */
+public class PathRequest {
+	private static final PathRequest NO_PATH = new PathRequest((PathNode) null);
+
+	private final Future<PathNode> future;
+	private boolean done;
+	private PathNode path;
+
+	/**
+	 * Makes a request that is being found by the passed Future.
+	 */
+	public PathRequest(Future<PathNode> future) {
+		this.future = future;
+	}
+
+	private PathRequest(PathNode path) {
+		this.future = null;
+		this.path = path;
+		this.done = true;
+	}
+
+	/**
+	 * @param path the path that was found, or null if there is none
+	 * @return a request that is already done
+	 */
+	public static PathRequest completed(PathNode path) {
+		return path == null ? NO_PATH : new PathRequest(path);
+	}
+
+	/**
+	 * @return true if the path has been found (or the request cancelled)
+	 */
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * @return the path that was found, or null if there is none or the request is not done
+	 */
+	public PathNode getPath() {
+		return path;
+	}
+
+	/**
+	 * Stops finding the path, if it hasn't been found yet. The request becomes done, with no path,
+	 * at the start of the next tick.
+	 */
+	public void cancel() {
+		if (future != null)
+			future.cancel(false);
+	}
+
+	/**
+	 * Called at the start of a tick; makes the request done if its path has been found.
+	 *
+	 * @return true if the request is done
+	 */
+	public boolean poll() {
+		if (done)
+			return true;
+		if (!future.isDone())
+			return false;
+		try {
+			path = future.get();
+		} catch (CancellationException e) {
+			path = null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		done = true;
+		return true;
+	}
+}
@@ -21,4 +21,13 @@ public interface Pathfinder extends Savable {
 	 * @return a linked list of path nodes representing the path
 	 */
 	public PathNode path (Vector3f to, Mob mob);
+
+	/**
+	 * Asks for a path like path does, but may find it on another thread.
+	 * Like path, this must only be called while the World is not changing (eg. in AI.think).
+	 * @param to the point to find a path to
+	 * @param mob the mob to find a path for
+	 * @return the request, which is done at once if the path could be found quickly
+	 */
+	public PathRequest request (Vector3f to, Mob mob);
 }
\ No newline at end of file
@@ -2,10 +2,10 @@ package world.ai;
 
 import java.io.IOException;
 
+import world.Actor;
 import world.ActorState;
 import world.PhysicsUtilities;
 import world.Player;
-import world.effects.SimpleDamage;
 import world.entity.item.Stat;
 import world.entity.mob.Mob;
 
@@ -27,6 +27,8 @@ public class StandardZombie extends AI {
 	private static final Vector3f zero = new Vector3f(0, 0, 0);
 	private PathNode path;
 	private Pathfinder pathing;
+	// a path being found on another thread; the mob follows the old one until it is done
+	private PathRequest pendingPath;
 	
 	private float timeSinceAttack;
 	private float timeSinceRepath;
@@ -53,6 +55,56 @@ public class StandardZombie extends AI {
 	
 	private Vector3f stuckPos = new Vector3f();
 	private float stuckTime = 0;
+	
+	// results of think, for update to act on
+	private boolean hasTarget;
+	private Actor thoughtTarget;
+	private boolean hasThought;
+	private boolean thoughtDirect;
+	private PathRequest thoughtPath;
+	
+	private static final float ATTACK_RANGE_SQ = 70;
+	private static final double MAX_HEIGHT_DIFF = 15;
+
+	@Override
+	public void think(Mob mob, float tpf) {
+		hasTarget = hasThought = false;
+		thoughtTarget = null;
+		thoughtPath = null;
+		
+		Actor target = mob.getTarget();
+		if(state == State.RETARGET || target == null || target.isRemovedFromWorld()) {
+			thoughtTarget = findTarget(mob);
+			hasTarget = true;
+			return;
+		}
+		
+		if(state != State.MOVE_TO || target.isInvisible() || !(target instanceof Player))
+			return;
+		
+		Vector3f targetLoc = target.getLocation();
+		Vector3f mobLoc = mob.getLocation();
+		if(targetLoc.distanceSquared(mobLoc) < ATTACK_RANGE_SQ || !world.getExpensiveOperationManager().canRun(this))
+			return;
+		
+		// if the mob can see the player, and is not higher or lower, it can go straight for them
+		hasThought = true;
+		thoughtDirect = Math.abs(mobLoc.y - targetLoc.y) < MAX_HEIGHT_DIFF && PhysicsUtilities.checkLineOfSight(mobLoc, targetLoc.add(new Vector3f(0, 10, 0)), mob.getWorld().getNode(), false);
+		if(!thoughtDirect && pendingPath == null)
+			thoughtPath = pathing.request(targetLoc, mob);
+	}
+	
+	/**
+	 * @return the nearest visible player to the mob, or failing that the nearest other mob
+	 */
+	private static Actor findTarget(Mob mob) {
+		Actor target = mob.getWorld().getNearestPlayer(mob.getLocation());
+		if(target == null || target.isRemovedFromWorld())
+			target = mob.getWorld().getNearestEntity(mob.getLocation(), Mob.class, mob);
+		if(target == null || target.isRemovedFromWorld())
+			return null;
+		return target;
+	}
 
 	@Override
 	public void update(Mob mob, float tpf) {
@@ -61,6 +113,10 @@ public class StandardZombie extends AI {
 		if(mob.getTarget() == null || mob.getTarget().isRemovedFromWorld())
 			state = State.RETARGET;
 		
+		// a path found on another thread replaces the one being followed
+		if(pendingPath != null && pendingPath.isDone() && (state == State.MOVE_TO_PATH || state == State.MOVE_TO_DIRECT))
+			usePendingPath(path);
+		
 
 		if(state == State.ATTACK) {
 			Vector3f target = mob.getTarget().getLocation();
@@ -80,16 +136,13 @@ public class StandardZombie extends AI {
 			state = State.RETARGET;
 		
 		if(state == State.RETARGET) {
-			mob.setTarget(mob.getWorld().getNearestPlayer(mob.getLocation()));
+			cancelPendingPath();
+			Actor target = hasTarget ? thoughtTarget : findTarget(mob);
+			hasTarget = false;
+			if(target == null || target.isRemovedFromWorld())
+				return;
+			mob.setTarget(target);
 			state = State.MOVE_TO;
-			
-			if(mob.getTarget() == null || mob.getTarget().isRemovedFromWorld()) {
-				mob.setTarget(mob.getWorld().getNearestEntity(mob.getLocation(), Mob.class, mob));
-				if(mob.getTarget() == null || mob.getTarget().isRemovedFromWorld()) {
-					state = State.RETARGET;
-					return;
-				}
-			}
 		}
 		
 		if(state == State.MOVE_TO) {
@@ -103,35 +156,40 @@ public class StandardZombie extends AI {
 			
 			// if the mob is close enough to the player that they shouldn't
 			// move, don't pathfind instead attack.
-			if (target.distanceSquared(mobLoc) < 70) {
+			if (target.distanceSquared(mobLoc) < ATTACK_RANGE_SQ) {
 				mob.getPhysics().setWalkDirection(zero);
 				mob.getPhysics().setViewDirection(target.subtract(mobLoc).setY(0));
 				
 				state = State.ATTACK;
 				timeSinceAttack = 0;
 				mob.setState(ActorState.ATTACKING);
+				cancelPendingPath();
 				
-				world.makeEffect(new SimpleDamage(mob.getTarget(), 0));
+				world.dealDamage(mob.getTarget(), 0);
 				return;
 			}
 
-			// if the mob can see the player, and is not higher or lower, abandon the path and go
-			// straight for them
-			final double MAX_HEIGHT_DIFF = 15;
-			if(!world.getExpensiveOperationManager().canRun(this)) {
+			// line of sight and pathfinding were done in think, if this AI's turn came up
+			if(!hasThought) {
 				path = oldPath;
 			} else {
-				if (Math.abs(mob.getLocation().y - mob.getTarget().getLocation().y) < MAX_HEIGHT_DIFF && PhysicsUtilities.checkLineOfSight(mob.getLocation(), mob.getTarget().getLocation().add(new Vector3f(0, 10, 0)), mob.getWorld().getNode(), false)) {
+				hasThought = false;
+				if (thoughtDirect) {
+					cancelPendingPath();
 					state = State.MOVE_TO_DIRECT;
 				
 				} else {
-					path = pathing.path(target, mob);
-					if(path != null && path.next != null) {
-						if(oldPath != null && path.next.loc.equals(oldPath.loc))
-							path = path.next; // otherwise, zombies sometimes go back to the previous path node, if it's closest.
-						state = State.MOVE_TO_PATH;
-					} else
-						state = State.MOVE_TO_DIRECT;
+					if(thoughtPath != null) {
+						pendingPath = thoughtPath;
+						thoughtPath = null;
+					}
+					if(pendingPath != null && pendingPath.isDone()) {
+						usePendingPath(oldPath);
+					} else {
+						// keep following the old path until the new one is found
+						path = oldPath;
+						state = path != null ? State.MOVE_TO_PATH : State.MOVE_TO_DIRECT;
+					}
 				}
 			}
 			
@@ -186,6 +244,40 @@ public class StandardZombie extends AI {
 		}
 	}
 
+	/**
+	 * Starts following the path that was found for pendingPath.
+	 * @param oldPath the path that was being followed
+	 */
+	private void usePendingPath(PathNode oldPath) {
+		path = pendingPath.getPath();
+		pendingPath = null;
+		if(path != null && path.next != null) {
+			if(oldPath != null && path.next.loc.equals(oldPath.loc))
+				path = path.next; // otherwise, zombies sometimes go back to the previous path node, if it's closest.
+			state = State.MOVE_TO_PATH;
+		} else
+			state = State.MOVE_TO_DIRECT;
+	}
+	
+	private void cancelPendingPath() {
+		if(pendingPath != null) {
+			pendingPath.cancel();
+			pendingPath = null;
+		}
+	}
+
+	@Override
+	public void reset() {
+		cancelPendingPath();
+		path = null;
+		state = State.RETARGET;
+		timeSinceAttack = timeSinceRepath = stuckTime = 0;
+		stuckPos.set(0, 0, 0);
+		hasTarget = hasThought = false;
+		thoughtTarget = null;
+		thoughtPath = null;
+	}
+
 	@Override
 	public void read(JmeImporter arg0) throws IOException {
 		InputCapsule ic = arg0.getCapsule(this);
@@ -41,11 +41,43 @@ public abstract class Effect implements Savable {
 	public abstract void start ();
 
 	/**
-	 * Called every game tick.
+	 * Called every game tick, if isUpdatable returns true.
 	 * @param tpf The amount of time for this tick.
 	 */
 	public void update (float tpf) {};
 
+	/**
+	 * If this returns false, update will not be called each tick. Effects that
+	 * only need to wait for a duration to pass should use expireAfter instead.
+	 * @return whether to update this effect every tick
+	 */
+	public boolean isUpdatable () {
+		return false;
+	}
+
+	/**
+	 * Schedules expire to be called after the passed number of seconds of game time.
+	 * @param seconds the time until this Effect expires
+	 */
+	protected void expireAfter (float seconds) {
+		world.scheduleExpiry(this, seconds);
+	}
+
+	/**
+	 * @return the time until this Effect expires, or -1 if expireAfter hasn't been called
+	 */
+	protected float getTimeUntilExpiry () {
+		return world == null ? -1 : world.getTimeUntilExpiry(this);
+	}
+
+	/**
+	 * Called by World when the time passed to expireAfter has passed.
+	 * By default this destroys the Effect.
+	 */
+	public void expire () {
+		destroy ();
+	}
+
 	/**
 	 * Called before the effect is removed from the world.
 	 */
@@ -1,24 +1,18 @@
 package world.effects;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.List;
 
 import world.Actor;
-import world.Entity;
-import world.World;
+import world.Area;
 import world.entity.item.Stat;
 import world.entity.mob.Mob;
 
-import com.jme3.bounding.BoundingSphere;
-import com.jme3.bounding.BoundingVolume;
-import com.jme3.collision.CollisionResult;
-import com.jme3.collision.CollisionResults;
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Node;
 
 /**
  * MobDamangeInRadius does damage (in the same manner as SimpleDamage) to all
@@ -26,11 +20,11 @@ import com.jme3.scene.Node;
  * is not continuous, like SimpleDamange and unlike SlowInRadius, and so is destroyed
  * at the end of the call to start()	
  * 
+ * The mobs are found with a burst query of the World's AreaEffects.
+ * 
  * @author Tony 300242775
  */
 public class MobDamageInRadius extends Effect {
-	private BoundingVolume sphere;
-	private Node sphereNode;
 	private float radius;
 	private Vector3f centre;
 	private float damage;
@@ -48,16 +42,6 @@ public class MobDamageInRadius extends Effect {
 		this.centre = centre;
 	}
 	
-	@Override
-	public void linkToWorld(World world) {
-		super.linkToWorld(world);
-		
-		this.sphere = new BoundingSphere(radius, centre);
-		sphereNode = new Node();
-		sphereNode.setModelBound(sphere);
-		world.getNode().attachChild(sphereNode);
-	}
-
 	@Override
 	public void apply(Actor actor) {
 		actor.getStats().modStat(Stat.HEALTH, -damage);
@@ -65,23 +49,9 @@ public class MobDamageInRadius extends Effect {
 
 	@Override
 	public void start() {
-		Node mobs = world.getMobNode();
-		if (mobs.getChildren().size() == 0) return;
-
-		HashSet<Mob> toApply = new HashSet<Mob>();
-
-		CollisionResults results = new CollisionResults();
-		mobs.collideWith(sphere, results);
-
-		for (CollisionResult result : results) {
-			Entity e = (Entity) result.getGeometry().getUserData("entity");
-			if (!(e instanceof Mob)) continue; // includes null case
-			toApply.add((Mob)e);
-			
-		}
-		
-		for (Mob mob : toApply) {
-			mob.applyEffect(this);
+		List<Mob> toApply = world.getAreaEffects().query(Area.sphere(centre, radius), Mob.class);
+		for (int i = 0; i < toApply.size(); i++) {
+			toApply.get(i).applyEffect(this);
 		}
 		
 		destroy ();
@@ -90,11 +60,6 @@ public class MobDamageInRadius extends Effect {
 	@Override
 	public void update(float tpf) {}
 
-	@Override
-	public void onDestroy() {
-		world.getNode().detachChild(sphereNode);
-	}
-	
 	@Override
 	public void read(JmeImporter im) throws IOException {
 		InputCapsule c = im.getCapsule(this);
@@ -1,6 +1,7 @@
 package world.effects;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
@@ -16,12 +17,21 @@ import world.entity.item.Stat;
  * SimpleDamage deals damage to an Actor by modifying the HEALTH Stat in the
  * Actor's ActorStats object.
  * 
+ * World applies the damage dealt by weapons and mobs with pooled SimpleDamage
+ * objects (see obtain), which return to the pool when they are destroyed.
+ * 
  * @author Tony 300242775
  */
 public class SimpleDamage extends Effect {
+	private static final int MAX_POOLED = 64;
+	// only used from the game thread
+	private static final ArrayDeque<SimpleDamage> pool = new ArrayDeque<SimpleDamage>();
+
 	private float damage;
 	private Actor actor;
 	private int savedActorID = -1;
+	private boolean ignoreArmour;
+	private boolean pooled;
 	
 	public SimpleDamage() {}
 	
@@ -34,6 +44,36 @@ public class SimpleDamage extends Effect {
 		this.actor = actor;
 	}
 	
+	/**
+	 * Returns a SimpleDamage from the pool, or a new one if the pool is empty. It is
+	 * returned to the pool when it is destroyed, so it must not be used after that.
+	 * 
+	 * @param actor the Actor to damage
+	 * @param damage the amount of damage to do
+	 * @param ignoreArmour true if the damage has already been reduced by the actor's armour
+	 */
+	public static SimpleDamage obtain(Actor actor, float damage, boolean ignoreArmour) {
+		SimpleDamage d = pool.poll();
+		if (d == null) {
+			d = new SimpleDamage();
+			d.pooled = true;
+		}
+		d.actor = actor;
+		d.damage = damage;
+		d.ignoreArmour = ignoreArmour;
+		d.savedActorID = -1;
+		return d;
+	}
+
+	/**
+	 * @param armour the armour of the damaged actor
+	 * @param damage the damage of one hit
+	 * @return the damage done by the hit; armour absorbs damage, but every hit does at least 1
+	 */
+	public static float reduceByArmour(float armour, float damage) {
+		return damage - armour >= 1 ? damage - armour : 1;
+	}
+
 	@Override
 	public void linkToWorld(World world) {
 		super.linkToWorld(world);
@@ -60,8 +100,7 @@ public class SimpleDamage extends Effect {
 	public void apply(Actor actor) {
 		ActorStats stats = actor.getStats();
 		
-		float armor = stats.getStat(Stat.ARMOUR);
-		float modDamage = damage - armor >= 1 ? damage - armor : 1;
+		float modDamage = ignoreArmour ? damage : reduceByArmour(stats.getStat(Stat.ARMOUR), damage);
 		
 		stats.modStat(Stat.HEALTH, -(1 * modDamage));
 		destroy ();
@@ -74,4 +113,14 @@ public class SimpleDamage extends Effect {
 
 	@Override
 	public void update(float tpf) {}
+
+	@Override
+	protected void onDestroy() {
+		if (!pooled)
+			return;
+		actor = null;
+		world = null;
+		if (pool.size() < MAX_POOLED)
+			pool.push(this);
+	}
 }
@@ -3,11 +3,12 @@ package world.effects;
 import java.io.IOException;
 
 import world.Actor;
-import world.Entity;
-import world.Player;
+import world.Area;
+import world.AreaEffects;
+import world.World;
 import world.entity.item.Stat;
+import world.entity.mob.Mob;
 
-import com.jme3.bounding.BoundingVolume;
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
@@ -18,13 +19,18 @@ import com.jme3.math.Vector3f;
  * SlowInRadius slows all the Mobs in a radius around a point. This is
  * used, for example, to make torches a key part of gameplay.
  * 
+ * The area is a continuous area of the World's AreaEffects. Mobs are given a
+ * speed modifier belonging to this effect when they enter it, which is removed
+ * when they leave or the effect is destroyed, so their speed is only changed
+ * when they enter or leave.
+ * 
  * @author Tony 300242775
  */
-public class SlowInRadius extends Effect {
-	private BoundingVolume sphere;
+public class SlowInRadius extends Effect implements AreaEffects.Listener {
 	private float slowAmount;
 	private float radius;
 	private Vector3f centre;
+	private AreaEffects.Region region;
 	
 	public SlowInRadius() {}
 
@@ -55,9 +61,16 @@ public class SlowInRadius extends Effect {
 		c.write(centre, "centre", null);
 	}
 
+	@Override
+	public void linkToWorld(World world) {
+		super.linkToWorld(world);
+		if (region == null)
+			region = world.getAreaEffects().add(Area.sphere(centre, radius), Mob.class, this);
+	}
+
 	@Override
 	public void apply(Actor actor) {
-		actor.getStats().multStat(Stat.SPEED, slowAmount);
+		actor.getStats().addModifier(this, Stat.SPEED, 0, slowAmount);
 	}
 
 	@Override
@@ -71,21 +84,24 @@ public class SlowInRadius extends Effect {
 	 *            the position to move this Effect to
 	 */
 	public void setLocation(Vector3f centre) {
-		sphere.setCenter(centre);
+		this.centre = centre;
+		if (region != null)
+			region.getArea().setCentre(centre);
+	}
+
+	@Override
+	public void onEnter(Actor actor) {
+		actor.applyEffect(this);
 	}
 
 	@Override
-	public void update(float tpf) {
-		float radius_sq = radius*radius;
-		for(Entity e : world.getEntities()) {
-			if(!(e instanceof Actor)) continue;
-			if(e instanceof Player) continue;
-			if(e.getLocation().distanceSquared(centre) <= radius_sq)
-				((Actor)e).applyEffect(this);
-		}
+	public void onExit(Actor actor) {
+		actor.getStats().removeModifiers(this);
 	}
 	
 	@Override
 	public void onDestroy() {
+		world.getAreaEffects().remove(region);
+		region = null;
 	}
 }
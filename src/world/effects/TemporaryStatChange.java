@@ -1,7 +1,6 @@
 package world.effects;
 
 import java.io.IOException;
-import java.util.Map.Entry;
 
 import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
@@ -9,14 +8,14 @@ import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
 
 import world.Actor;
-import world.ActorStats;
 import world.StatModification;
 import world.World;
-import world.entity.item.Stat;
 
 /**
  * TemporaryStatChange is identical to the StatChange effect except that the
  * StatModification is applied for a duration, and then removed from the Actor.
+ * It is applied as modifiers belonging to this effect, so removing it doesn't
+ * disturb changes made to the same stats in the meantime.
  * 
  * @author Tony 300242775
  */
@@ -42,8 +41,14 @@ public class TemporaryStatChange extends Effect {
 	public void linkToWorld(World world) {
 		super.linkToWorld(world);
 		
-		if(targetID != -1)
+		if(targetID != -1) {
+			// loaded, so start isn't called; modifiers aren't saved, so put them back
 			target = (Actor)world.getEntityByID(targetID);
+			start();
+		}
+		
+		// the rest of the duration is left to the world's timer, rather than counted every tick
+		expireAfter(duration - current);
 	}
 	
 	@Override
@@ -58,8 +63,9 @@ public class TemporaryStatChange extends Effect {
 	@Override
 	public void write(JmeExporter ex) throws IOException {
 		OutputCapsule c = ex.getCapsule(this);
+		float remaining = getTimeUntilExpiry();
 		c.write(duration, "dur", 0);
-		c.write(current, "cur", 0);
+		c.write(remaining < 0 ? current : duration - remaining, "cur", 0);
 		c.write(target == null ? -1 : target.getEntityID(), "target", -1);
 		c.write(effect, "effect", null);
 	}
@@ -72,25 +78,12 @@ public class TemporaryStatChange extends Effect {
 	@Override
 	public void start() {
 		if(target == null) return;
-		ActorStats stats = target.getStats();
-		for (Entry<Stat, Float> entry : effect) {
-			stats.modStat(entry.getKey(), entry.getValue());
-		}		
-	}
-
-	@Override
-	public void update(float tpf) {
-		current += tpf;
-		if (current >= duration)
-			destroy();
+		target.getStats().addModifiers(this, effect, false);
 	}
 
 	@Override
 	public void onDestroy() {
 		if(target == null) return;
-		ActorStats stats = target.getStats();
-		for (Entry<Stat, Float> entry : effect) {
-			stats.modStat(entry.getKey(), -1 * entry.getValue());
-		}
+		target.getStats().removeModifiers(this);
 	}
 }
@@ -70,7 +70,10 @@ public abstract class AbstractWeapon extends AbstractEquippable implements Weapo
 	
 	@Override
 	public void update (float tpf) {
-		if (!firing) return;
+		if (!firing) {
+			sleep(); // until the next attack
+			return;
+		}
 		
 		timeSinceFire += tpf;
 		
@@ -9,7 +9,6 @@ import world.StatModification;
 import world.PhysicsUtilities.EntityHitResult;
 import world.Player;
 import world.WorldType;
-import world.effects.SimpleDamage;
 import world.entity.item.ItemInfo;
 import world.entity.item.Stat;
 
@@ -40,6 +39,7 @@ public class Shotgun extends AbstractWeapon {
 	public boolean attack(Player attacking) {
 		if (firing) return false;
 		firing = true;
+		wake();
 
 		Vector3f direction = null;
 		if (attacking.isFirstPerson()) {
@@ -74,7 +74,7 @@ public class Shotgun extends AbstractWeapon {
 				if(world.getWorldType() != WorldType.SERVER) sound.playInstance();
 
 				if (!(e.entity instanceof Actor) || e.distance > RANGE) continue;
-				world.makeEffect(new SimpleDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE)));
+				world.dealDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE));
 				attacking.incrementHits();
 			}
 		}
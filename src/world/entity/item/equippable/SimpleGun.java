@@ -11,7 +11,6 @@ import world.PhysicsUtilities.EntityHitResult;
 import world.Player;
 import world.World;
 import world.WorldType;
-import world.effects.SimpleDamage;
 import world.entity.item.ItemInfo;
 import world.entity.item.Stat;
 
@@ -82,6 +81,7 @@ public class SimpleGun extends AbstractWeapon {
 
 		if (firing) return false;
 		firing = true;
+		wake();
 
 		List<EntityHitResult> results = PhysicsUtilities.raycastHitResult(attacking.getLocation(), attacking.getDirection(), world.getNode());
 		EntityHitResult e;
@@ -102,7 +102,7 @@ public class SimpleGun extends AbstractWeapon {
 			blood.setNumParticles(50);
 			blood.emitAllParticles();
 
-			world.makeEffect(new SimpleDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE)));
+			world.dealDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE));
 			attacking.incrementHits();
 		}
 
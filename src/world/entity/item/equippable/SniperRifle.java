@@ -9,7 +9,6 @@ import world.StatModification;
 import world.PhysicsUtilities.EntityHitResult;
 import world.Player;
 import world.WorldType;
-import world.effects.SimpleDamage;
 import world.entity.item.ItemInfo;
 import world.entity.item.ItemType;
 import world.entity.item.Stat;
@@ -39,6 +38,7 @@ public class SniperRifle extends AbstractWeapon {
 	public boolean attack(Player attacking) {
 		if (firing) return false;
 		firing = true;
+		wake();
 
 		List<EntityHitResult> results = PhysicsUtilities.raycastHitResult(attacking.getLocation(), attacking.getDirection(), world.getNode());
 
@@ -51,7 +51,7 @@ public class SniperRifle extends AbstractWeapon {
 			if(e.entity == attacking) { j++; continue;}
 			if (!(e.entity instanceof Actor) || e.distance > RANGE) break;
 
-			world.makeEffect(new SimpleDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE)));
+			world.dealDamage((Actor)(e.entity), attacking.getStats().getStat(Stat.DAMAGE));
 			i++;
 			attacking.incrementHits();
 		}
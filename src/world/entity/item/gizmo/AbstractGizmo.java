@@ -19,7 +19,6 @@ import com.jme3.asset.AssetManager;
  * @author Tony 300242775
  */
 public abstract class AbstractGizmo extends Item implements RightClickable {
-	private float timeSinceActive;
 	private float timeActive;
 	private boolean canActivate = true;
 	private boolean isActive;
@@ -40,6 +39,7 @@ public abstract class AbstractGizmo extends Item implements RightClickable {
 		
 
 		onActivate ();
+		wake();
 		
 		owner.getStats().modStat(Stat.ENERGY, -energyCost ());
 	}
@@ -58,18 +58,19 @@ public abstract class AbstractGizmo extends Item implements RightClickable {
 			if (timeActive >= getActiveTime()) {
 				isActive = false;
 				timeActive = 0;
-				canActivate = false;
 				onActiveEnd ();
+
+				// the cooldown counts from activation, unless it is shorter than the active time;
+				// the world's timer wakes this gizmo when it is over
+				float cooldown = getCooldown() >= getActiveTime() ? getCooldown() - getActiveTime() : getCooldown();
+				sleepFor(cooldown);
 			}
+			return;
 		}
 
-		if (canActivate) return;
-
-		timeSinceActive += tpf;
-		if (timeSinceActive >= getCooldown()) {
-			timeSinceActive = 0;
-			canActivate = true;
-		}
+		// only reached once the cooldown is over
+		canActivate = true;
+		sleep(); // until activated again
 	}
 	
 	/**
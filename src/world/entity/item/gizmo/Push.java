@@ -1,17 +1,13 @@
 package world.entity.item.gizmo;
 
-import java.util.HashSet;
+import java.util.List;
 
-import world.Entity;
+import world.Area;
 import world.entity.item.ItemInfo;
 import world.entity.item.Stat;
 import world.entity.mob.Mob;
 
-import com.jme3.bounding.BoundingSphere;
-import com.jme3.collision.CollisionResult;
-import com.jme3.collision.CollisionResults;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Node;
 
 /**
  * A gizmo that pushes all Mobs near the player away.
@@ -25,24 +21,7 @@ public class Push extends AbstractGizmo {
 	@Override
 	protected void onActivate() {
 		Vector3f centre = owner.getLocation();
-		BoundingSphere sphere = new BoundingSphere(RADIUS, centre);
-		Node sphereNode = new Node();
-		sphereNode.setModelBound(sphere);
-		world.getNode().attachChild(sphereNode);
-
-		Node mobs = world.getMobNode();
-		if (mobs.getChildren().size() == 0) return;
-
-		HashSet<Mob> appliedTo = new HashSet<Mob>();
-
-		CollisionResults results = new CollisionResults();
-		mobs.collideWith(sphere, results);
-
-		for (CollisionResult result : results) {
-			Entity e = (Entity) result.getGeometry().getUserData("entity");
-			if (!(e instanceof Mob)) continue; // includes null case
-			appliedTo.add((Mob)e);
-		}
+		List<Mob> appliedTo = world.getAreaEffects().query(Area.sphere(centre, RADIUS), Mob.class);
 
 		for (Mob mob : appliedTo) {
 			Vector3f force = mob.getLocation().subtract(centre).normalize().mult(POWER);
@@ -35,8 +35,8 @@ public class StasisFieldGenerator extends AbstractGizmo {
 
 	@Override
 	protected void onActiveEnd () {
-		if (world.getWorldType() != WorldType.CLIENT)
-			world.destroyEffect(slow);
+		if (world.getWorldType() != WorldType.CLIENT && slow != null)
+			slow.destroy();
 		//world.destroyEffect(slow);
 	}
 
@@ -88,6 +88,13 @@ public abstract class AbstractTorch extends Item implements Activatable, RightCl
 		activate (player);
 	}
 
+	/**
+	 * @return whether this torch has been placed in the world
+	 */
+	protected boolean isPlaced() {
+		return isPlaced;
+	}
+
 	@Override
 	public float getWeight () {
 		return isPlaced ? 0 : DEFAULT_ITEM_WEIGHT;
@@ -126,8 +133,8 @@ public abstract class AbstractTorch extends Item implements Activatable, RightCl
 	 * An optional method that will be called when this Activatable is deactivated.
 	 */
 	protected void onDeactivate () {
-		if (world.getWorldType() != WorldType.CLIENT)
-			world.destroyEffect(slow);
+		if (world.getWorldType() != WorldType.CLIENT && slow != null)
+			slow.destroy();
 		world.getNode().removeLight(light);
 	}
 
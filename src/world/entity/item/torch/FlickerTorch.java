@@ -1,5 +1,6 @@
 package world.entity.item.torch;
 
+import world.Player;
 import world.entity.item.ItemInfo;
 import world.entity.item.Stat;
 
@@ -17,15 +18,24 @@ public class FlickerTorch extends SimpleTorch {
 		return true;
 	}
 
-	private float updateTimer;
+	private static final float FLICKER_INTERVAL = 0.1f;
+
 	public void update(float tpf) {
 		super.update(tpf);
 		
-		updateTimer += tpf;
-		if(updateTimer > 0.1) {
-			updateTimer = Math.min(0.1f, updateTimer - 0.1f);
-			if(isActive != (Math.random() > 0.2))
-				activate(null);
+		if(!isPlaced()) {
+			sleep(); // until placed
+			return;
 		}
+		
+		if(isActive != (Math.random() > 0.2))
+			activate(null);
+		sleepFor(FLICKER_INTERVAL);
+	}
+	
+	@Override
+	public void activate(Player player) {
+		super.activate(player);
+		wake(); // start flickering if this torch was just placed
 	}
 }
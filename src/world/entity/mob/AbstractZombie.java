@@ -31,7 +31,7 @@ public abstract class AbstractZombie extends Mob {
 	public void linkToWorld(World world, Vector3f location, int id) {
 		super.linkToWorld(world, location, id);
 		
-		if(world.getWorldType() != WorldType.SERVER) {
+		if(world.getWorldType() != WorldType.SERVER && sound == null) {
 			int n = 1+(int)(Math.random()*6);
 			sound = new AudioNode(world.getAssetManager(), "Sounds/zombies/zombie_"+n+".wav", false);
 			sound.setPositional(true);
@@ -104,6 +104,16 @@ public abstract class AbstractZombie extends Mob {
 		
 	}
 	
+	@Override
+	public void reset() {
+		super.reset();
+		hasAttackAnim = false;
+		if(animch_arms != null)
+			animch_arms.setAnim(armIdleAnim);
+		if(animch_legs != null)
+			animch_legs.setAnim(walkAnim);
+	}
+	
 	@Override
 	public void unlinkFromWorld(World world) {
 		if(sound != null)
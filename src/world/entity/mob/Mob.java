@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Scanner;
 
 import world.Actor;
+import world.ActorState;
 import world.ActorStats;
 import world.World;
 import world.WorldType;
@@ -64,22 +65,49 @@ public abstract class Mob extends Actor {
 
 	@Override
 	public void update(float tpf) {
-
-
-		//if (state
-
+		// speed and damage changes (time of day, torches) are modifiers on the stats, so nothing needs resetting here
 		mobSpeed = getStats().getStat(Stat.SPEED);
-		getStats().resetStat(Stat.SPEED);
 
 		if (world.getWorldType() != WorldType.CLIENT) {
 			if (ai == null) throw new IllegalStateException ("AI being called before being initialised.");
 
 			ai.update(this, tpf);
 		}
+	}
 
-		getStats().resetStat(Stat.DAMAGE);
+	/**
+	 * Runs the read-only part of this mob's AI. See AI.think.
+	 * 
+	 * @param tpf the time since the last update
+	 */
+	public void think(float tpf) {
+		if (ai != null && world != null && world.getWorldType() != WorldType.CLIENT)
+			ai.think(this, tpf);
+	}
 
+	private boolean frozen;
 
+	/**
+	 * Takes this mob out of, or puts it back into, the physics simulation. A frozen mob
+	 * doesn't move or collide, and is used for mobs too far from any player to matter.
+	 * 
+	 * @param frozen whether to freeze this mob
+	 */
+	public void setFrozen(boolean frozen) {
+		if (frozen == this.frozen || physics == null)
+			return;
+		this.frozen = frozen;
+		if (frozen)
+			physics.setWalkDirection(Vector3f.ZERO);
+		physics.setEnabled(!frozen);
+		ghost.setEnabled(!frozen);
+	}
+
+	/**
+	 * @return whether this mob's physics is frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
 	}
 
 	/**
@@ -110,6 +138,25 @@ public abstract class Mob extends Actor {
 	@Override
 	protected void onStateChange() {}
 
+	/**
+	 * Resets this mob after it has been removed from its World, so that it can be added to a
+	 * World again as if it were new, keeping its geometry and physics. Its stats are reset
+	 * when it is added. Used by MobFactory to pool mobs.
+	 * 
+	 * @throws IllegalStateException if this mob is still in a World
+	 */
+	public void reset() {
+		keepForReuse();
+		setFrozen(false);
+		if (physics != null)
+			physics.setWalkDirection(Vector3f.ZERO);
+		target = null;
+		mobSpeed = 0;
+		state = ActorState.STANDING;
+		if (ai != null)
+			ai.reset();
+	}
+
 	// DISPLAY
 
 	public abstract String getImage();
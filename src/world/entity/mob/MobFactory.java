@@ -1,5 +1,10 @@
 package world.entity.mob;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import world.ai.StandardZombie;
 
 /**
@@ -10,9 +15,26 @@ import world.ai.StandardZombie;
  * MobFactory creates instances of Mobs according to internal probabilities, to give
  * the game a balanced feel with different types of mobs.
  * 
+ * Dead mobs can be given back with recycle; they are reset and kept in a pool for each type
+ * of mob, and getMobInstance returns a pooled mob of the chosen type before making a new one,
+ * so mobs dying and spawning doesn't create new geometry and physics objects each time.
+ * 
  * @author Tony 300242775
  */
 public class MobFactory {
+	/**
+	 * The most mobs of each type kept for reuse.
+	 */
+	public static int MAX_POOLED = 64;
+
+	private final Map<Class<? extends Mob>, ArrayDeque<Mob>> pools = new HashMap<Class<? extends Mob>, ArrayDeque<Mob>>();
+
+	public MobFactory() {
+		pools.put(SlowZombie.class, new ArrayDeque<Mob>());
+		pools.put(FastZombie.class, new ArrayDeque<Mob>());
+		pools.put(StrongZombie.class, new ArrayDeque<Mob>());
+	}
+
 	/**
 	 * @return an instance of Mob
 	 */
@@ -20,15 +42,65 @@ public class MobFactory {
 		//Mob mob = new SmallGreenCube (physicsSpace, assetManager, toAttach);
 		//mob.setAI(aiFactory.getAIInstance());
 		int choice = (int)(Math.random() * 10);
-		Mob mob = null;
+		Class<? extends Mob> type = null;
 		if (choice <= 5)
-			mob = new SlowZombie ();
+			type = SlowZombie.class;
 		else if (choice <= 8)
-			mob = new FastZombie ();
+			type = FastZombie.class;
 		else if (choice == 9)
+			type = StrongZombie.class;
+		
+		Mob mob = pools.get(type).poll();
+		while (mob != null && !mob.isRemovedFromWorld())
+			mob = pools.get(type).poll(); // it was added to a World again by something else
+		if (mob != null)
+			return mob; // its AI was reset along with it
+		
+		if (type == SlowZombie.class)
+			mob = new SlowZombie ();
+		else if (type == FastZombie.class)
+			mob = new FastZombie ();
+		else
 			mob = new StrongZombie ();
 		
 		mob.setAI(new StandardZombie());
 		return mob;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Resets the passed Mob, which must have been removed from its World, and keeps it to be
+	 * returned by getMobInstance. Mobs of types this factory doesn't make, and mobs beyond
+	 * MAX_POOLED of a type, are left to be garbage collected.
+	 * 
+	 * @param mob the Mob to reuse
+	 * @return true if the mob was kept
+	 */
+	public boolean recycle(Mob mob) {
+		ArrayDeque<Mob> pool = pools.get(mob.getClass());
+		if (pool == null || pool.size() >= MAX_POOLED || !mob.isRemovedFromWorld())
+			return false;
+		mob.reset();
+		pool.add(mob);
+		return true;
+	}
+
+	/**
+	 * @return the number of mobs kept for reuse, of all types
+	 */
+	public int getPooledCount() {
+		int n = 0;
+		for (ArrayDeque<Mob> pool : pools.values())
+			n += pool.size();
+		return n;
+	}
+
+	/**
+	 * Adds the assets needed by every type of Mob that getMobInstance can return.
+	 * Used for preloading.
+	 */
+	public void getPreloadAssets(Set<String> assets) {
+		new SlowZombie().getPreloadAssets(assets);
+		new FastZombie().getPreloadAssets(assets);
+		new StrongZombie().getPreloadAssets(assets);
+	}
+}
@@ -56,11 +56,13 @@ private static final float SPEED = 0.5f; // seconds to open/close
 	@Override
 	protected void onOpen(Player player) {
 		moveDir = 1;
+		wake();
 	}
 
 	@Override
 	protected void onClose(Player player) {
 		moveDir = -1;
+		wake();
 	}
 
 	@Override
@@ -74,7 +76,10 @@ private static final float SPEED = 0.5f; // seconds to open/close
 			posWhenOpen = physics.getPhysicsLocation();
 			posWhenClosed = posWhenOpen.add(new Vector3f(0, -35, 0));
 		}
-		if(moveDir == 0) return;
+		if(moveDir == 0) {
+			sleep(); // until opened or closed
+			return;
+		}
 
 		position += moveDir * tpf / SPEED;
 		//position += tpf;
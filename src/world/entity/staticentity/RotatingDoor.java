@@ -30,11 +30,13 @@ public class RotatingDoor extends AbstractDoor {
 	@Override
 	protected void onOpen(Player player) {
 		moveDir = 1;
+		wake();
 	}
 
 	@Override
 	protected void onClose(Player player) {
 		moveDir = -1;
+		wake();
 	}
 	
 	@Override
@@ -51,6 +53,10 @@ public class RotatingDoor extends AbstractDoor {
 		
 		Quaternion rotation = new Quaternion(new float[] {0, position * (panWhenOpen - panWhenClosed) + panWhenClosed + angle, 0});
 		physics.setPhysicsRotation(rotation);
+		
+		// the rotation is set at least once, so the door starts closed
+		if(moveDir == 0)
+			sleep(); // until opened or closed
 	}
 
 	@Override
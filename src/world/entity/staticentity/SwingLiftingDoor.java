@@ -30,11 +30,13 @@ private static final float SPEED = 0.5f; // seconds to open/close
 	@Override
 	protected void onOpen(Player player) {
 		moveDir = 1;
+		wake();
 	}
 
 	@Override
 	protected void onClose(Player player) {
 		moveDir = -1;
+		wake();
 	}
 	
 	@Override
@@ -44,7 +46,10 @@ private static final float SPEED = 0.5f; // seconds to open/close
 	
 	@Override
 	public void update(float tpf) {
-		if(moveDir == 0) return;
+		if(moveDir == 0) {
+			sleep(); // until opened or closed
+			return;
+		}
 		
 		position += moveDir * tpf / SPEED;
 		//position += tpf;
@@ -1,8 +1,10 @@
 package world.entity.staticentity;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -131,7 +133,13 @@ public class WorldObject extends RigidEntity {
     		s.removeFromParent();
     }
 
-	public void addSpecialNodes() {
+	/**
+	 * Adds the path nodes, trigger zones and spawners marked in this object's model to the world.
+	 * The model is loaded again, since makeMesh removes them.
+	 *
+	 * @return the trigger zones that were added
+	 */
+	public List<TriggerZone> addSpecialNodes() {
 		Node tempCopy = (Node)world.getAssetManager().loadModel(meshfile);
 		tempCopy.setLocalScale(geometry.getLocalScale());
 		tempCopy.setLocalRotation(geometry.getLocalRotation());
@@ -175,11 +183,13 @@ public class WorldObject extends RigidEntity {
         }
 		
 		Map<String, TriggerZone> tzones = new HashMap<String, TriggerZone>();
+		List<TriggerZone> added = new ArrayList<TriggerZone>();
 		
 		for(Spatial s : tempCopy.descendantMatches("trigger.*\\?.*")) {
 			
 			TriggerZone tz = new TriggerZone(s);
 			world.addEntity(tz, s.getWorldTranslation());
+			added.add(tz);
 			
 			String name = s.getName().substring(s.getName().indexOf('?')+1);
 			tzones.put(name, tz);
@@ -194,6 +204,7 @@ public class WorldObject extends RigidEntity {
     	}
     	
     	tempCopy.removeFromParent();
+    	return added;
 	}
 
 }